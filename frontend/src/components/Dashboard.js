@@ -270,7 +270,7 @@ const Dashboard = ({ hideNav }) => {
                     <div key={ad.id} className="flex items-center gap-3 p-3 rounded-xl hover:bg-slate-50 transition-colors group cursor-pointer border border-transparent hover:border-slate-100">
                       <div className="w-12 h-12 rounded-lg bg-slate-100 overflow-hidden flex-shrink-0 relative">
                         {ad.contentType === 'IMAGE' ? (
-                          <img src={ad.s3Url} alt="Ad" className="w-full h-full object-cover" />
+                          <img src={ad.thumbnailUrl || ad.s3Url} alt="Ad" className="w-full h-full object-cover" />
                         ) : (
                           <video src={ad.s3Url} className="w-full h-full object-cover" />
                         )}
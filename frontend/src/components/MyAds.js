@@ -99,7 +99,7 @@ const MyAds = () => {
                             <div className="relative aspect-video bg-slate-100 flex items-center justify-center overflow-hidden">
                                 {ad.contentType === 'IMAGE' ? (
                                     <img
-                                        src={ad.s3Url}
+                                        src={ad.thumbnailUrl || ad.s3Url}
                                         alt="Ad Creative"
                                         className="w-full h-full object-cover group-hover:scale-105 transition-transform duration-500"
                                     />
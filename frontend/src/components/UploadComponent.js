@@ -24,7 +24,20 @@ const UploadComponent = ({ onUploadSuccess }) => {
         setSuccess(null);
 
         try {
-            const result = await contentAPI.uploadContent(file);
+            const uploaded = await contentAPI.uploadContent(file);
+
+            // Validation runs in the background; poll until it finishes
+            let status = await contentAPI.getContentStatus(uploaded.id);
+            while (status.contentStatus === 'PENDING_VALIDATION') {
+                await new Promise((resolve) => setTimeout(resolve, 2000));
+                status = await contentAPI.getContentStatus(uploaded.id);
+            }
+            if (status.contentStatus !== 'APPROVED') {
+                setError(`Upload failed: ${status.validationDetails}`);
+                return;
+            }
+
+            const result = { ...uploaded, status: status.contentStatus, s3Url: status.s3Url };
             setSuccess('Content uploaded and approved successfully!');
             setFile(null); // Reset file input
             if (onUploadSuccess) {
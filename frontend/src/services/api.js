@@ -147,6 +147,18 @@ export const screenAPI = {
     return response.data;
   },
 
+  // Most similar screens (precomputed neighbours)
+  getSimilarScreens: async (screenId, limit = 10) => {
+    const response = await api.get(`/api/screens/${screenId}/similar`, { params: { limit } });
+    return response.data;
+  },
+
+  // Play order of a loop screen's hour; hour like '2026-01-15T18:00'
+  getLoop: async (screenId, hour) => {
+    const response = await api.get(`/api/screens/${screenId}/loop`, { params: { hour } });
+    return response.data;
+  },
+
   // Update screen details
   updateScreen: async (screenId, screenData) => {
     const response = await api.put(`/api/screens/${screenId}`, screenData);
@@ -172,9 +184,24 @@ export const contentAPI = {
     return response.data;
   },
 
+  uploadContentBatch: async (files, waitSeconds = 0) => {
+    const formData = new FormData();
+    files.forEach(file => formData.append('files', file));
+    const response = await api.post(`/api/content/upload/batch?waitSeconds=${waitSeconds}`, formData, {
+      headers: {
+        'Content-Type': 'multipart/form-data',
+      },
+    });
+    return response.data;
+  },
+
+  getContentStatus: (id) => api.get(`/api/content/${id}/status`).then(res => res.data),
   getMyContent: () => api.get('/api/content/my-content').then(res => res.data),
   getMyMetadata: () => api.get('/api/content/my-metadata').then(res => res.data),
-  deleteContent: (id) => api.delete(`/api/content/${id}`)
+  getMyContentByLabel: (label, minConfidence = 0) =>
+    api.get('/api/content/by-label', { params: { label, minConfidence } }).then(res => res.data),
+  deleteContent: (id) => api.delete(`/api/content/${id}`),
+  deleteContents: (contentIds) => api.post('/api/content/bulk-delete', { contentIds }).then(res => res.data)
 };
 
 // Booking API
@@ -184,6 +211,18 @@ export const bookingAPI = {
     return response.data;
   },
 
+  // Holds every booking of a plan, or none of them
+  createBookings: async (bookings) => {
+    const response = await api.post('/api/bookings/batch', bookings);
+    return response.data;
+  },
+
+  // plan: { contentId, budget, startDate, endDate, maxHoursPerScreen? }
+  planCampaign: async (plan) => {
+    const response = await api.post('/api/bookings/plan', plan);
+    return response.data;
+  },
+
   getMyBookings: async () => {
     const response = await api.get('/api/bookings/advertiser');
     return response.data;
@@ -252,8 +291,11 @@ export const adDetailsAPI = {
 
 // Recommendation API
 export const recommendationAPI = {
-  getRecommendations: async (contentId) => {
-    const response = await api.get(`/api/recommendations/content/${contentId}`);
+  // window: optional { start, end } to rank by availability in that window
+  getRecommendations: async (contentId, window) => {
+    const response = await api.get(`/api/recommendations/content/${contentId}`, {
+      params: window ? { start: window.start, end: window.end } : undefined
+    });
     return response.data;
   }
 };
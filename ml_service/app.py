@@ -1,4 +1,5 @@
 from flask import Flask, request, jsonify
+from werkzeug.serving import WSGIRequestHandler
 from sentence_transformers import SentenceTransformer
 from sklearn.metrics.pairwise import cosine_similarity
 import logging
@@ -9,12 +10,30 @@ logger = logging.getLogger(__name__)
 
 # Load model ONCE at startup
 logger.info("Loading Sentence-BERT model...")
-model = SentenceTransformer("all-MiniLM-L6-v2")
+MODEL_NAME = "all-MiniLM-L6-v2"
+model = SentenceTransformer(MODEL_NAME)
 logger.info("Model loaded successfully!")
 
 @app.route("/health", methods=["GET"])
 def health():
-    return jsonify({"status": "healthy", "model": "all-MiniLM-L6-v2"}), 200
+    return jsonify({"status": "healthy", "model": MODEL_NAME}), 200
+
+@app.route("/embed", methods=["POST"])
+def embed():
+    """Encode texts to unit-length vectors. The backend stores screen vectors
+    and only sends advertiser text per request."""
+    try:
+        data = request.json or {}
+        texts = data.get("texts", [])
+        if not texts:
+            return jsonify({"embeddings": [], "error": "texts is required and cannot be empty"}), 400
+
+        vectors = model.encode(texts, normalize_embeddings=True)
+        return jsonify({"model": MODEL_NAME, "embeddings": vectors.tolist()}), 200
+
+    except Exception as e:
+        logger.error(f"Error in embedding: {str(e)}")
+        return jsonify({"embeddings": [], "error": str(e)}), 500
 
 @app.route("/recommend", methods=["POST"])
 def recommend():
@@ -74,5 +93,39 @@ def recommend():
         logger.error(f"Error in recommendation: {str(e)}")
         return jsonify({"results": [], "error": str(e)}), 500
 
+@app.route("/recommend/batch", methods=["POST"])
+def recommend_batch():
+    """Rank one shared screen list for several advertiser texts. The screens
+    are encoded once and all texts are scored in a single matrix product."""
+    try:
+        data = request.json or {}
+        advertiser_texts = data.get("advertiser_texts", [])
+        screens = data.get("screens", [])
+        if not advertiser_texts:
+            return jsonify({"results": [], "error": "advertiser_texts is required and cannot be empty"}), 400
+        if not screens:
+            return jsonify({"results": [], "error": "screens list is required and cannot be empty"}), 400
+
+        logger.info(f"Batch recommendation: {len(advertiser_texts)} texts x {len(screens)} screens")
+
+        screen_ids = [s.get("id") for s in screens]
+        ad_vecs = model.encode(advertiser_texts, normalize_embeddings=True)
+        screen_vecs = model.encode([s.get("text", "") for s in screens], normalize_embeddings=True)
+        scores = ad_vecs @ screen_vecs.T
+
+        results = []
+        for row in scores:
+            ranked = [{"screenId": screen_ids[i], "score": float(row[i])} for i in range(len(screen_ids))]
+            ranked.sort(key=lambda x: x["score"], reverse=True)
+            results.append(ranked)
+
+        return jsonify({"results": results}), 200
+
+    except Exception as e:
+        logger.error(f"Error in batch recommendation: {str(e)}")
+        return jsonify({"results": [], "error": str(e)}), 500
+
 if __name__ == "__main__":
+    # HTTP/1.1 so the backend's pooled connections are kept alive between calls
+    WSGIRequestHandler.protocol_version = "HTTP/1.1"
     app.run(host="0.0.0.0", port=5000, debug=True)
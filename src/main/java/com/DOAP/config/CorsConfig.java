@@ -25,11 +25,15 @@ public class CorsConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:3000"));
         
         // Allow common HTTP methods
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         
         // Allow all headers (including Authorization for JWT)
         configuration.setAllowedHeaders(Arrays.asList("*"));
         
+        // Let the frontend read the recommendation freshness headers
+        configuration.setExposedHeaders(Arrays.asList("X-Recommendations-Computed-At",
+                "X-Recommendations-Catalog-Version", "X-Recommendations-Stale", "X-Recommendations-Source"));
+        
         // Allow credentials (cookies, authorization headers)
         configuration.setAllowCredentials(true);
         
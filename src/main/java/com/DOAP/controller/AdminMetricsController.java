@@ -0,0 +1,62 @@
+package com.DOAP.controller;
+
+import com.DOAP.dto.MlClientStatsDTO;
+import com.DOAP.dto.PreScreenStatsDTO;
+import com.DOAP.dto.RekognitionApiStatsDTO;
+import com.DOAP.dto.S3TransferStatsDTO;
+import com.DOAP.service.ContentPreScreenService;
+import com.DOAP.service.MlRequestBatcher;
+import com.DOAP.service.MlServiceClient;
+import com.DOAP.service.RekognitionThrottle;
+import com.DOAP.service.S3DeletionQueue;
+import com.DOAP.service.S3PresignService;
+import com.DOAP.service.S3Service;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminMetricsController {
+
+    private final S3Service s3Service;
+    private final S3PresignService s3PresignService;
+    private final S3DeletionQueue s3DeletionQueue;
+    private final ContentPreScreenService contentPreScreenService;
+    private final RekognitionThrottle rekognitionThrottle;
+    private final MlServiceClient mlServiceClient;
+    private final MlRequestBatcher mlRequestBatcher;
+
+    @GetMapping("/storage")
+    public ResponseEntity<S3TransferStatsDTO> getStorageStats() {
+        S3TransferStatsDTO stats = s3Service.getTransferStats();
+        stats.setPresignedUrlsSigned(s3PresignService.getSignatureCount());
+        stats.setPresignCacheHits(s3PresignService.getCacheHits());
+        stats.setPendingDeletes(s3DeletionQueue.getPendingCount());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/prescreen")
+    public ResponseEntity<PreScreenStatsDTO> getPreScreenStats() {
+        return ResponseEntity.ok(contentPreScreenService.getStats());
+    }
+
+    @GetMapping("/rekognition")
+    public ResponseEntity<List<RekognitionApiStatsDTO>> getRekognitionStats() {
+        return ResponseEntity.ok(rekognitionThrottle.getStats());
+    }
+
+    @GetMapping("/ml")
+    public ResponseEntity<MlClientStatsDTO> getMlClientStats() {
+        MlClientStatsDTO stats = mlServiceClient.getStats();
+        stats.setBatching(mlRequestBatcher.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
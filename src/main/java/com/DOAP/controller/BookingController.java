@@ -2,9 +2,14 @@ package com.DOAP.controller;
 
 import com.DOAP.dto.BookingRequest;
 import com.DOAP.dto.BookingResponse;
+import com.DOAP.dto.CampaignPlanDTO;
+import com.DOAP.dto.CampaignPlanRequest;
+import com.DOAP.dto.PriceQuoteRequest;
+import com.DOAP.dto.PriceQuoteResponse;
 import com.DOAP.entity.User;
 import com.DOAP.repository.UserRepository;
 import com.DOAP.service.BookingService;
+import com.DOAP.service.CampaignPlannerService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -18,6 +23,7 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final CampaignPlannerService campaignPlannerService;
     private final UserRepository userRepository;
 
     private User getUser(Authentication authentication) {
@@ -48,6 +54,44 @@ public class BookingController {
         }
     }
 
+    // All-or-nothing: holds every slot of a plan, or none if any is taken
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(@RequestBody List<BookingRequest> requests,
+            Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            return ResponseEntity.ok(bookingService.createBookings(requests, user.getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+
+    // Best mix of screen hours for a budget; post its bookings to /batch to hold them
+    @PostMapping("/plan")
+    public ResponseEntity<?> planCampaign(@RequestBody CampaignPlanRequest request, Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            CampaignPlanDTO plan = campaignPlannerService.plan(request, user.getId());
+            return ResponseEntity.ok(plan);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/quote")
+    public ResponseEntity<?> quotePrices(@RequestBody PriceQuoteRequest request) {
+        try {
+            PriceQuoteResponse response = bookingService.quotePrices(request);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/advertiser")
     public ResponseEntity<List<BookingResponse>> getMyBookings(Authentication authentication) {
         User user = getUser(authentication);
@@ -1,22 +1,29 @@
 package com.DOAP.controller;
 
+import com.DOAP.dto.BulkDeleteRequest;
 import com.DOAP.entity.Content;
 import com.DOAP.entity.User;
+import com.DOAP.service.ContentBatchUploadService;
+import com.DOAP.service.ContentIngestionService;
 import com.DOAP.service.ContentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.security.core.Authentication;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/content")
 @RequiredArgsConstructor
 public class ContentController {
 
     private final ContentService contentService;
+    private final ContentIngestionService contentIngestionService;
+    private final ContentBatchUploadService contentBatchUploadService;
     private final com.DOAP.repository.UserRepository userRepository;
-    private final com.DOAP.repository.ContentRepository contentRepository;
     private final com.DOAP.repository.AdVisionMetadataRepository adVisionMetadataRepository;
 
     private User getUser(Authentication authentication) {
@@ -37,8 +44,10 @@ public class ContentController {
             Authentication authentication) {
         try {
             User user = getUser(authentication);
-            Content content = contentService.uploadAndValidateContent(file, user.getId());
-            return ResponseEntity.ok(content);
+            // Validation runs in the background; poll /{id}/status or subscribe to
+            // /{id}/events
+            Content content = contentIngestionService.submit(file, user.getId());
+            return ResponseEntity.accepted().body(contentService.withSignedUrl(content));
         } catch (UnsupportedOperationException e) {
             return ResponseEntity.status(501).body(e.getMessage());
         } catch (RuntimeException e) {
@@ -48,16 +57,85 @@ public class ContentController {
         }
     }
 
+    @PostMapping("/upload/batch")
+    public ResponseEntity<?> uploadContentBatch(@RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "waitSeconds", defaultValue = "0") long waitSeconds,
+            Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            // Per-file results; PENDING files can be followed through /{id}/status
+            return ResponseEntity.ok(contentBatchUploadService.uploadBatch(files, user.getId(), waitSeconds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.internalServerError().body("Batch upload interrupted");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<?> getContentStatus(@PathVariable Long id, Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            return ResponseEntity.ok(contentIngestionService.getStatus(id, user.getId()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/{id}/events", produces = "text/event-stream")
+    public SseEmitter subscribeContentStatus(@PathVariable Long id, Authentication authentication) {
+        User user = getUser(authentication);
+        return contentIngestionService.subscribe(id, user.getId());
+    }
+
     @GetMapping("/my-content")
     public ResponseEntity<?> getMyContent(Authentication authentication) {
         try {
             User user = getUser(authentication);
-            return ResponseEntity.ok(contentRepository.findByUploaderId(user.getId()));
+            return ResponseEntity.ok(contentService.getUploaderContent(user.getId()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to fetch content: " + e.getMessage());
+        }
+    }
+
+    // e.g. /by-label?label=Car&minConfidence=80
+    @GetMapping("/by-label")
+    public ResponseEntity<?> getMyContentByLabel(@RequestParam String label,
+            @RequestParam(defaultValue = "0") double minConfidence,
+            Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            return ResponseEntity.ok(contentService.getUploaderContentByLabel(user.getId(), label, minConfidence));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to fetch content: " + e.getMessage());
         }
     }
 
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteContent(@PathVariable Long id, Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            contentService.deleteContent(id, user.getId());
+            return ResponseEntity.ok("Content deleted");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> deleteContents(@RequestBody BulkDeleteRequest request, Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            if (request.getContentIds() == null || request.getContentIds().isEmpty()) {
+                return ResponseEntity.badRequest().body("contentIds is required");
+            }
+            return ResponseEntity.ok(contentService.deleteContents(request.getContentIds(), user.getId()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/my-metadata")
     public ResponseEntity<?> getMyContentMetadata(Authentication authentication) {
         try {
@@ -1,12 +1,16 @@
 package com.DOAP.controller;
 
+import com.DOAP.dto.RecommendationResultDTO;
 import com.DOAP.dto.ScreenRecommendationDTO;
+import com.DOAP.service.MlServiceClient;
 import com.DOAP.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,16 +21,44 @@ public class RecommendationController {
 
     private final RecommendationService recommendationService;
 
+    // Optional start/end (ISO date-time, or a date for whole days with end
+    // inclusive) rank against availability in that window
     @GetMapping("/content/{contentId}")
-    public ResponseEntity<List<ScreenRecommendationDTO>> getRecommendations(@PathVariable Long contentId) {
+    public ResponseEntity<List<ScreenRecommendationDTO>> getRecommendations(@PathVariable Long contentId,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
         log.info("Recommendation endpoint called for content ID: {}", contentId);
         try {
-            List<ScreenRecommendationDTO> recommendations = recommendationService.getRecommendations(contentId);
-            log.info("Returning {} recommendations", recommendations.size());
-            return ResponseEntity.ok(recommendations);
+            if ((start == null) != (end == null)) {
+                throw new IllegalArgumentException("start and end must be given together");
+            }
+            RecommendationResultDTO result = start == null
+                    ? recommendationService.getRecommendations(contentId)
+                    : recommendationService.getRecommendations(contentId, parseStart(start), parseEnd(end));
+            log.info("Returning {} recommendations (stale: {})", result.getRecommendations().size(),
+                    result.getStale());
+            // Freshness travels in headers so the body stays a plain list
+            return ResponseEntity.ok()
+                    .header("X-Recommendations-Computed-At", result.getComputedAt().toString())
+                    .header("X-Recommendations-Catalog-Version", String.valueOf(result.getCatalogVersion()))
+                    .header("X-Recommendations-Stale", String.valueOf(result.getStale()))
+                    .header("X-Recommendations-Source", result.getSource())
+                    .body(result.getRecommendations());
+        } catch (MlServiceClient.MlServiceUnavailableException e) {
+            // No stored ranking to fall back to
+            log.warn("Recommendations unavailable for content {}: {}", contentId, e.getMessage());
+            return ResponseEntity.status(503).build();
         } catch (Exception e) {
             log.error("Error getting recommendations: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
         }
     }
+
+    private static LocalDateTime parseStart(String value) {
+        return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
+
+    private static LocalDateTime parseEnd(String value) {
+        return value.length() == 10 ? LocalDate.parse(value).plusDays(1).atStartOfDay() : LocalDateTime.parse(value);
+    }
 }
@@ -0,0 +1,111 @@
+package com.DOAP.controller;
+
+import com.DOAP.dto.ResumableUploadRequest;
+import com.DOAP.entity.Content;
+import com.DOAP.entity.User;
+import com.DOAP.service.ContentService;
+import com.DOAP.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Resumable chunked uploads for large creatives.
+ *
+ * 1. POST   /api/content/uploads                 -> upload id
+ * 2. PATCH  /api/content/uploads/{id}            raw bytes, Upload-Offset header
+ * 3. GET    /api/content/uploads/{id}            current offset, to resume
+ * 4. POST   /api/content/uploads/{id}/finalize   -> content, validated like /upload
+ */
+@RestController
+@RequestMapping("/api/content/uploads")
+@RequiredArgsConstructor
+public class ResumableUploadController {
+
+    private final ResumableUploadService resumableUploadService;
+    private final ContentService contentService;
+    private final com.DOAP.repository.UserRepository userRepository;
+
+    private User getUser(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User) {
+            return (User) principal;
+        } else if (principal instanceof String) {
+            String email = (String) principal;
+            return userRepository.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found for email: " + email));
+        } else {
+            throw new RuntimeException("Unknown principal type: " + principal.getClass().getName());
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createUpload(@RequestBody ResumableUploadRequest request,
+            Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(resumableUploadService.create(request, user.getId()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getUpload(@PathVariable String id, Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            return ResponseEntity.ok(resumableUploadService.getUpload(id, user.getId()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> appendChunk(@PathVariable String id,
+            @RequestHeader("Upload-Offset") long offset,
+            HttpServletRequest request,
+            Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            return ResponseEntity.ok(
+                    resumableUploadService.appendChunk(id, user.getId(), offset, request.getInputStream()));
+        } catch (IllegalStateException e) {
+            // Offset mismatch or upload no longer open; client re-reads the offset
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/finalize")
+    public ResponseEntity<?> finalizeUpload(@PathVariable String id, Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            Content content = resumableUploadService.finalizeUpload(id, user.getId());
+            return ResponseEntity.accepted().body(contentService.withSignedUrl(content));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Finalize failed: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> abortUpload(@PathVariable String id, Authentication authentication) {
+        try {
+            User user = getUser(authentication);
+            resumableUploadService.abort(id, user.getId());
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.DOAP.controller;
 
 import com.DOAP.dto.ScreenApprovalRequest;
+import com.DOAP.dto.ScreenLoopDTO;
+import com.DOAP.dto.ScreenRecommendationDTO;
 import com.DOAP.dto.ScreenRequest;
 import com.DOAP.dto.ScreenResponse;
 import com.DOAP.entity.User;
+import com.DOAP.service.LoopScheduler;
 import com.DOAP.service.ScreenService;
+import com.DOAP.service.ScreenSimilarityGraph;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +24,8 @@ import java.util.List;
 public class ScreenController {
 
         private final ScreenService screenService;
+        private final ScreenSimilarityGraph screenSimilarityGraph;
+        private final LoopScheduler loopScheduler;
         private final com.DOAP.repository.UserRepository userRepository;
 
         private User getUser(Authentication authentication) {
@@ -94,6 +100,30 @@ public class ScreenController {
                 return ResponseEntity.ok(response);
         }
 
+        // Precomputed nearest neighbours: similar screens for advertisers,
+        // competing screens for owners
+        @GetMapping("/{id}/similar")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SCREEN_OWNER', 'ADVERTISER')")
+        public ResponseEntity<List<ScreenRecommendationDTO>> getSimilarScreens(
+                        @PathVariable Long id,
+                        @RequestParam(defaultValue = "10") int limit) {
+                return ResponseEntity.ok(screenSimilarityGraph.similar(id, Math.max(1, Math.min(limit, 50))));
+        }
+
+        // Play order of one hour's loop, e.g. hour=2026-01-15T18:00
+        @GetMapping("/{id}/loop")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SCREEN_OWNER')")
+        public ResponseEntity<?> getLoop(
+                        @PathVariable Long id,
+                        @RequestParam String hour) {
+                try {
+                        ScreenLoopDTO loop = loopScheduler.buildLoop(id, java.time.LocalDateTime.parse(hour));
+                        return ResponseEntity.ok(loop);
+                } catch (java.time.format.DateTimeParseException e) {
+                        return ResponseEntity.badRequest().body("Invalid hour: " + hour);
+                }
+        }
+
         @PutMapping("/{id}/approval")
         @PreAuthorize("hasRole('ADMIN')")
         public ResponseEntity<ScreenResponse> approveScreen(
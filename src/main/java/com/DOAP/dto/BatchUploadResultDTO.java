@@ -0,0 +1,35 @@
+package com.DOAP.dto;
+
+import com.DOAP.entity.enums.ContentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResultDTO {
+
+    private Integer accepted;
+    private Integer rejected;
+    private Integer pending;
+    private Long elapsedMs;
+    private List<FileResult> files;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FileResult {
+        private String fileName;
+        private String result; // ACCEPTED, REJECTED or PENDING
+        private Long contentId; // Null if the file was rejected before upload
+        private ContentStatus contentStatus;
+        private String reason; // Rejection reason
+        private String s3Url;
+    }
+}
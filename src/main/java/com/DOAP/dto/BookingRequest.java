@@ -10,4 +10,5 @@ public class BookingRequest {
     private Long contentId;
     private LocalDateTime startDatetime;
     private LocalDateTime endDatetime;
+    private Integer spots; // Loop screens only, defaults to 1
 }
@@ -20,4 +20,5 @@ public class BookingResponse {
     private LocalDateTime expiresAt;
     private Double priceAmount;
     private LocalDateTime confirmedAt;
+    private Integer spots; // Loop bookings only
 }
@@ -0,0 +1,10 @@
+package com.DOAP.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkDeleteRequest {
+    private List<Long> contentIds;
+}
@@ -0,0 +1,25 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResultDTO {
+
+    private List<Long> deleted;
+    private List<Long> notFound;
+    private List<Long> unauthorized;
+
+    private Integer bookingsDeleted;
+    private Integer paymentsDeleted;
+
+    // Originals and renditions handed to the background delete queue
+    private Integer s3ObjectsQueued;
+}
@@ -0,0 +1,44 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignPlanDTO {
+
+    // Ready to post to /api/bookings/batch as they are
+    private List<BookingRequest> bookings;
+    private List<Slot> slots;
+
+    private Double budget;
+    private Double totalCost;
+    private Double totalValue;
+
+    // True when the solver's core search completed within its time budget. That is not a proof of global
+    // optimality, as slots outside the core stay fixed by value per cost. The plan is never worse than greedy
+    private Boolean optimal;
+    private Integer candidateSlots;
+    private Long solveMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Slot {
+        private Long screenId;
+        private String screenName;
+        private String location;
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private Double price;
+        private Double value; // Recommendation score weighted by the hour's demand multiplier
+    }
+}
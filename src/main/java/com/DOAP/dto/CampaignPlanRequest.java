@@ -0,0 +1,14 @@
+package com.DOAP.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class CampaignPlanRequest {
+    private Long contentId;
+    private Double budget; // Advertiser price, INR
+    private LocalDate startDate;
+    private LocalDate endDate; // Inclusive
+    private Integer maxHoursPerScreen; // Optional, defaults to planner.max-hours-per-screen
+}
@@ -0,0 +1,27 @@
+package com.DOAP.dto;
+
+import com.DOAP.entity.enums.ContentStatus;
+import com.DOAP.entity.enums.IngestionJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentIngestionStatusDTO {
+
+    private Long contentId;
+    private ContentStatus contentStatus;
+    private String validationDetails;
+    private String s3Url;
+
+    // Pipeline progress
+    private IngestionJobStatus jobStatus;
+    private String currentStage;
+    private Integer attempts;
+    private String lastError;
+    private String stageTimings;
+}
@@ -0,0 +1,15 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MLBatchRecommendationRequest {
+    private List<String> advertiser_texts;
+    private List<MLRecommendationRequest.MLScreenData> screens; // Shared by every text in the batch
+}
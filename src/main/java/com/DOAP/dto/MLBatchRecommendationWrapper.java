@@ -0,0 +1,18 @@
+package com.DOAP.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MLBatchRecommendationWrapper {
+
+    // One ranking per advertiser text, in request order
+    @JsonProperty("results")
+    private List<List<MLRecommendationResponse>> results;
+
+    private String error;
+}
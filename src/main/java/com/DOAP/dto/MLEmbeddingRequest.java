@@ -0,0 +1,14 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MLEmbeddingRequest {
+    private List<String> texts;
+}
@@ -0,0 +1,18 @@
+package com.DOAP.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MLEmbeddingResponse {
+
+    private String model;
+
+    // One vector per input text, in request order
+    private List<float[]> embeddings;
+
+    private String error; // optional, if ML sends it
+}
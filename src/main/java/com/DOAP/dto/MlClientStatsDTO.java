@@ -0,0 +1,49 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MlClientStatsDTO {
+
+    private String circuitState; // CLOSED, OPEN or HALF_OPEN
+    private Long circuitOpenings;
+    private Long shortCircuited; // Calls refused while open
+    private List<EndpointStats> endpoints;
+    private List<BatchStats> batching;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EndpointStats {
+        private String endpoint;
+        private Long calls; // Logical calls, a hedged call counts once
+        private Long failures;
+        private Long hedges; // Second requests sent
+        private Long hedgeWins; // Hedges that answered first
+        private Long p50Ms;
+        private Long p95Ms;
+        private Long p99Ms;
+        private Map<String, Long> latencyHistogram; // Bucket upper bound in ms -> attempts
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchStats {
+        private String lane; // EMBED or RECOMMEND
+        private Long requests; // Caller requests
+        private Long batches; // ML service calls made for them
+        private Double averageBatchSize;
+    }
+}
@@ -15,4 +15,5 @@ public class PlatformSettingsDTO {
     private Integer minimumBookingDurationMinutes;
     private Boolean maintenanceMode;
     private Boolean autoApproveScreens;
+    private Long version; // Read-only, ignored on update
 }
@@ -0,0 +1,37 @@
+package com.DOAP.dto;
+
+import com.DOAP.entity.PlatformSettings;
+import lombok.Value;
+
+/**
+ * Immutable, versioned view of the platform settings row.
+ * Held in memory by PlatformSettingsService and replaced as a whole on update.
+ */
+@Value
+public class PlatformSettingsSnapshot {
+
+    long version;
+    double commissionPercentage;
+    int minimumBookingDurationMinutes;
+    boolean maintenanceMode;
+    boolean autoApproveScreens;
+
+    public static PlatformSettingsSnapshot from(PlatformSettings settings) {
+        return new PlatformSettingsSnapshot(
+                settings.getSettingsVersion() != null ? settings.getSettingsVersion() : 0L,
+                settings.getCommissionPercentage() != null ? settings.getCommissionPercentage() : 25.0,
+                settings.getMinimumBookingDurationMinutes() != null ? settings.getMinimumBookingDurationMinutes() : 60,
+                Boolean.TRUE.equals(settings.getMaintenanceMode()),
+                Boolean.TRUE.equals(settings.getAutoApproveScreens()));
+    }
+
+    public PlatformSettingsDTO toDTO() {
+        return PlatformSettingsDTO.builder()
+                .commissionPercentage(commissionPercentage)
+                .minimumBookingDurationMinutes(minimumBookingDurationMinutes)
+                .maintenanceMode(maintenanceMode)
+                .autoApproveScreens(autoApproveScreens)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreScreenStatsDTO {
+
+    private Long filesScreened;
+    private Long filesRejected;
+    private Map<String, Long> rejectionsByReason;
+
+    // Remote work avoided by rejecting locally
+    private Long s3UploadsSaved;
+    private Long bytesNotUploaded;
+    private Long rekognitionCallsSaved;
+}
@@ -0,0 +1,22 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class PriceQuoteRequest {
+    private List<Long> screenIds;
+    private List<Window> windows;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Window {
+        private LocalDateTime start;
+        private LocalDateTime end;
+    }
+}
@@ -0,0 +1,14 @@
+package com.DOAP.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PriceQuoteResponse {
+    private List<Long> screenIds; // Row order of prices
+    private List<PriceQuoteRequest.Window> windows; // Column order of prices
+    private double[][] prices; // prices[screen][window], advertiser price
+}
@@ -0,0 +1,30 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationResultDTO {
+
+    public static final String SOURCE_SEMANTIC = "SEMANTIC";
+    public static final String SOURCE_LEXICAL = "LEXICAL";
+
+    private List<ScreenRecommendationDTO> recommendations;
+
+    private LocalDateTime computedAt;
+    private Long catalogVersion;
+
+    // SEMANTIC (embedding ranking) or LEXICAL (in-process fallback while the ML service is down)
+    private String source;
+
+    // True when the screen catalog changed after this ranking and the index has not caught up yet
+    private Boolean stale;
+}
@@ -0,0 +1,23 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RekognitionApiStatsDTO {
+
+    private String api;
+    private Double concurrencyLimit; // Current AIMD limit
+    private Integer inFlight;
+    private Integer queued;
+    private Long calls; // Attempts sent, including retries
+    private Long throttled;
+    private Long retries;
+    private Long deadlineExpired; // Gave up waiting for a slot or retry
+    private Double avgLatencyMs; // Successful calls only
+}
@@ -0,0 +1,26 @@
+package com.DOAP.dto;
+
+import com.DOAP.entity.enums.ResumableUploadStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumableUploadDTO {
+
+    private String uploadId;
+    private String fileName;
+    private Long totalBytes;
+    private Long offset; // Bytes received, where the next chunk must start
+    private Integer maxChunkBytes;
+    private ResumableUploadStatus status;
+    private LocalDateTime expiresAt;
+    private Long contentId; // After finalize
+    private String failureReason;
+}
@@ -0,0 +1,10 @@
+package com.DOAP.dto;
+
+import lombok.Data;
+
+@Data
+public class ResumableUploadRequest {
+    private String fileName;
+    private Long totalBytes;
+    private String mimeType;
+}
@@ -0,0 +1,25 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class S3TransferStatsDTO {
+
+    private Long uploads; // Objects written by upload (single put or multipart)
+    private Long multipartUploads;
+    private Long bytesUploaded;
+    private Long serverSideCopies; // Legacy temp -> approved copies
+    private Double avgUploadThroughputMbps; // Megabits per second
+    private Double avgBytesWrittenPerUpload; // Upload bytes only, copies excluded
+    private Long presignedUrlsSigned;
+    private Long presignCacheHits;
+
+    // Objects waiting in the background delete queue
+    private Long pendingDeletes;
+}
@@ -0,0 +1,31 @@
+package com.DOAP.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScreenLoopDTO {
+    private Long screenId;
+    private LocalDateTime hourStart;
+    private Integer spotSeconds;
+    private List<Spot> spots; // Play order; the loop repeats for the whole hour
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spot {
+        private Integer position;
+        private Integer offsetSeconds; // From the start of the loop
+        private Long bookingId; // Null for an unsold spot
+        private Long contentId;
+    }
+}
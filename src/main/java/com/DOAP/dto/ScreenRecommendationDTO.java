@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,4 +16,10 @@ public class ScreenRecommendationDTO {
     private Double score;
     private String city;
     private Double pricePerHour;
+
+    // Set when ranked against a requested window; score then blends all three
+    private Double similarity;
+    private Double occupancy; // Booked share of the screen's operating time in the window
+    private Double quotedPrice;
+    private LocalDateTime firstFreeSlot; // Start of the first bookable gap
 }
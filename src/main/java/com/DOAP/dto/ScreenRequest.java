@@ -2,6 +2,7 @@ package com.DOAP.dto;
 
 import com.DOAP.entity.enums.ScreenOrientation;
 import com.DOAP.entity.enums.ScreenType;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -72,6 +73,13 @@ public class ScreenRequest {
     @JsonFormat(pattern = "HH:mm")
     private LocalTime activeTo;
 
+    // Optional loop inventory, e.g. 6 spots of 10 seconds; leave empty for exclusive bookings
+    @Min(value = 2, message = "A loop needs at least 2 spots")
+    private Integer loopSpots;
+
+    @Min(value = 1, message = "Spot length must be at least 1 second")
+    private Integer spotSeconds;
+
     // Legacy support (optional, can be removed if not needed)
     private String location;
 }
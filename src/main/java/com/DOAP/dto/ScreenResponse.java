@@ -53,6 +53,9 @@ public class ScreenResponse {
     @JsonFormat(pattern = "HH:mm")
     private LocalTime activeTo;
 
+    private Integer loopSpots;
+    private Integer spotSeconds;
+
     private Long ownerId;
     private String ownerName;
     private String ownerEmail;
@@ -59,6 +59,11 @@ public class Booking {
     @Column(nullable = true)
     private LocalDateTime expiresAt; // Only relevant for HELD status
 
+    // Loop bookings only: spots held in every hour's loop, out of the screen's loop size at
+    // booking time; both null for an exclusive booking
+    private Integer spots;
+    private Integer loopSize;
+
     @PrePersist
     public void generateReference() {
         if (this.bookingReference == null) {
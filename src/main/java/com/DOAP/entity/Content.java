@@ -12,9 +12,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "content")
+@Table(name = "content", indexes = {
+        @Index(name = "idx_content_hash", columnList = "contentHash"),
+        @Index(name = "idx_content_uploader", columnList = "uploaderId")
+})
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Content {
@@ -33,6 +36,20 @@ public class Content {
     @Column(nullable = false)
     private ContentType contentType;
 
+    private Long fileSizeBytes; // Bytes written to S3 for this creative
+
+    // Probed from the file header
+    private Integer width;
+    private Integer height;
+    private Long durationMicros; // Videos only
+    private String codec;
+
+    @Column(length = 64)
+    private String contentHash; // Hex SHA-256 of the file, used to detect re-uploads
+
+    @Transient
+    private String thumbnailUrl; // Signed dashboard preview, filled in when listing
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ContentStatus status;
@@ -0,0 +1,72 @@
+package com.DOAP.entity;
+
+import com.DOAP.entity.enums.ContentType;
+import com.DOAP.entity.enums.IngestionJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "content_ingestion_jobs", indexes = {
+        @Index(name = "idx_ingestion_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentIngestionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private Long contentId;
+
+    @Column(nullable = false)
+    private String s3Key;
+
+    private String s3Bucket; // Bucket holding the upload; null for jobs created before single-write placement
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ContentType contentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IngestionJobStatus status;
+
+    private String currentStage; // e.g. VALIDATE, AWAIT_MODERATION, PROMOTE, PERSIST
+
+    private String externalJobId; // Rekognition video moderation job id
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt; // Earliest time a worker may pick this job
+
+    private LocalDateTime startedAt; // Set when claimed by a worker
+
+    private LocalDateTime completedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(columnDefinition = "TEXT")
+    private String stageTimings; // e.g. "UPLOAD=120ms, VALIDATE=2300ms"
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.DOAP.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One detected vision label of a content item, parsed out of
+ * AdVisionMetadata.detectedLabels at ingestion.
+ */
+@Entity
+@Table(name = "content_labels", indexes = {
+        @Index(name = "idx_content_label_label_confidence", columnList = "label, confidence"),
+        @Index(name = "idx_content_label_content", columnList = "contentId")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_content_label", columnNames = { "contentId", "label" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentLabel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long contentId;
+
+    @Column(nullable = false, length = 128)
+    private String label; // As reported by Rekognition, e.g. "Food"
+
+    @Column(nullable = false)
+    private Double confidence; // 0-100
+}
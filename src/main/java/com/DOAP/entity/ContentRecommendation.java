@@ -0,0 +1,53 @@
+package com.DOAP.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed screen ranking for one content item.
+ *
+ * Keeps the advertiser text embedding so a catalog change only needs a local
+ * re-rank, not another ML service call.
+ */
+@Entity
+@Table(name = "content_recommendations")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentRecommendation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private Long contentId;
+
+    // Unit-length advertiser text embedding, little-endian float32
+    @ToString.Exclude
+    @Column(columnDefinition = "BLOB", nullable = false)
+    private byte[] queryEmbedding;
+
+    // JSON array of {screenId, score}, best first
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String rankedScreens;
+
+    // Screen catalog version the ranking was computed against
+    @Column(nullable = false)
+    private Long catalogVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+
+    // Ad details changed since; kept as the fallback until a recompute succeeds
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean invalidated = false;
+}
@@ -0,0 +1,54 @@
+package com.DOAP.entity;
+
+import com.DOAP.entity.enums.RenditionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A downscaled variant of an approved image. Renditions belong to the source
+ * S3 object rather than a content row, so deduplicated uploads share them.
+ */
+@Entity
+@Table(name = "content_renditions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rendition_source_size", columnNames = { "sourceS3Key", "width", "height" })
+}, indexes = {
+        @Index(name = "idx_rendition_source", columnList = "sourceS3Key")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String sourceS3Key; // Key of the original in the approved bucket
+
+    @Column(nullable = false)
+    private String s3Key;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RenditionType renditionType;
+
+    @Column(nullable = false)
+    private Integer width;
+
+    @Column(nullable = false)
+    private Integer height;
+
+    private Long fileSizeBytes;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
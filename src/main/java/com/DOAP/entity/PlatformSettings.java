@@ -37,6 +37,10 @@ public class PlatformSettings {
     @Builder.Default
     private Boolean autoApproveScreens = false; // Auto-approve screen submissions
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Long settingsVersion = 0L; // Bumped on every update, polled by other nodes
+
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 }
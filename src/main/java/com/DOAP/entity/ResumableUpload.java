@@ -0,0 +1,68 @@
+package com.DOAP.entity;
+
+import com.DOAP.entity.enums.ResumableUploadStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chunked upload in progress. Chunks are appended to a local spool file;
+ * receivedBytes is the offset the next chunk must start at.
+ */
+@Entity
+@Table(name = "resumable_uploads", indexes = {
+        @Index(name = "idx_resumable_status_expires", columnList = "status, expiresAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumableUpload {
+
+    @Id
+    @Column(length = 36)
+    private String id; // Random UUID, also the client-facing upload id
+
+    @Column(nullable = false)
+    private Long uploaderId;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    private String mimeType;
+
+    @Column(nullable = false)
+    private Long totalBytes;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long receivedBytes = 0L;
+
+    @Column(nullable = false)
+    private String spoolPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ResumableUploadStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt; // Pushed back on every chunk
+
+    private Long contentId; // Set on finalize
+
+    @Column(columnDefinition = "TEXT")
+    private String failureReason;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
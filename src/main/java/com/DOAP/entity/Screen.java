@@ -3,11 +3,13 @@ package com.DOAP.entity;
 import com.DOAP.entity.enums.ScreenStatus;
 import com.DOAP.entity.enums.FootfallCategory;
 import com.DOAP.entity.enums.VisibilityLevel;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -94,6 +96,11 @@ public class Screen {
     private LocalTime activeFrom;
     private LocalTime activeTo;
 
+    // Loop inventory: when set, every hour plays a loop of loopSpots spots of spotSeconds
+    // each and is sold per spot; null keeps exclusive whole-slot bookings
+    private Integer loopSpots;
+    private Integer spotSeconds;
+
     private Long approvedBy; // Admin User ID
 
     private LocalDateTime approvedAt;
@@ -107,4 +114,15 @@ public class Screen {
 
     @Column(nullable = false)
     private Long createdBy; // User ID who created the record
+
+    // Recommendation embedding of the screen text, unit length, little-endian float32
+    @JsonIgnore
+    @ToString.Exclude
+    @Column(columnDefinition = "BLOB")
+    private byte[] embedding;
+
+    // Hash of model + text the embedding was computed from, to detect stale vectors
+    @JsonIgnore
+    @Column(length = 64)
+    private String embeddingSourceHash;
 }
@@ -0,0 +1,29 @@
+package com.DOAP.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row counter bumped whenever the set of bookable screens or their
+ * recommendation-relevant fields change. Cached recommendations computed
+ * against an older version are stale.
+ */
+@Entity
+@Table(name = "screen_catalog_version")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScreenCatalogVersion {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,37 @@
+package com.DOAP.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Spots sold in one hour's loop of a loop-inventory screen. Bookings are
+ * admitted by a conditional increment of soldSpots, so a screen hour is only
+ * contended by bookings for that same hour.
+ */
+@Entity
+@Table(name = "screen_hour_inventory", uniqueConstraints = @UniqueConstraint(name = "uk_screen_hour",
+        columnNames = { "screenId", "hourStart" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScreenHourInventory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long screenId;
+
+    @Column(nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false)
+    private Integer soldSpots;
+}
@@ -0,0 +1,8 @@
+package com.DOAP.entity.enums;
+
+public enum IngestionJobStatus {
+    QUEUED, // Waiting for a worker (new or scheduled for retry)
+    RUNNING, // Claimed by a worker
+    SUCCEEDED, // Content approved and promoted
+    FAILED // Content rejected or retries exhausted
+}
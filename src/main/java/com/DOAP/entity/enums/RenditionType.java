@@ -0,0 +1,6 @@
+package com.DOAP.entity.enums;
+
+public enum RenditionType {
+    THUMBNAIL, // Small preview for dashboards
+    SCREEN // Downscaled to fit a screen resolution class
+}
@@ -0,0 +1,10 @@
+package com.DOAP.entity.enums;
+
+public enum ResumableUploadStatus {
+    IN_PROGRESS, // Accepting chunks
+    UPLOADING, // Complete and claimed by a finalize, which is running the ingestion pipeline
+    COMPLETED, // Finalized and handed to the ingestion pipeline
+    FAILED, // Finalize rejected the file
+    EXPIRED, // No chunk received before expiresAt
+    ABORTED // Cancelled by the uploader
+}
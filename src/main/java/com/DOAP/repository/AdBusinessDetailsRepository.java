@@ -2,11 +2,19 @@ package com.DOAP.repository;
 
 import com.DOAP.entity.AdBusinessDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface AdBusinessDetailsRepository extends JpaRepository<AdBusinessDetails, Long> {
     Optional<AdBusinessDetails> findByContent_Id(Long contentId);
+
+    @Modifying
+    @Query("DELETE FROM AdBusinessDetails d WHERE d.content.id IN :contentIds")
+    int deleteByContentIds(@Param("contentIds") Collection<Long> contentIds);
 }
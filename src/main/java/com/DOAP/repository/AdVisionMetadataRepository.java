@@ -2,8 +2,12 @@ package com.DOAP.repository;
 
 import com.DOAP.entity.AdVisionMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,14 @@ public interface AdVisionMetadataRepository extends JpaRepository<AdVisionMetada
     Optional<AdVisionMetadata> findByContent_Id(Long contentId);
 
     java.util.List<AdVisionMetadata> findByContent_UploaderId(Long uploaderId);
+
+    // Metadata stored before labels were normalised, for the one-off backfill
+    @Query("SELECT m FROM AdVisionMetadata m WHERE m.id > :afterId AND m.detectedLabels IS NOT NULL "
+            + "AND NOT EXISTS (SELECT l.id FROM ContentLabel l WHERE l.contentId = m.content.id) ORDER BY m.id")
+    java.util.List<AdVisionMetadata> findWithoutNormalisedLabels(@Param("afterId") Long afterId,
+            org.springframework.data.domain.Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AdVisionMetadata m WHERE m.content.id IN :contentIds")
+    int deleteByContentIds(@Param("contentIds") Collection<Long> contentIds);
 }
@@ -3,11 +3,13 @@ package com.DOAP.repository;
 import com.DOAP.entity.Booking;
 import com.DOAP.entity.enums.BookingStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,10 +26,29 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
         List<Booking> findByContentId(Long contentId);
 
+        // Loop bookings of deleted content, whose spots go back before the rows do
+        @Query("SELECT b FROM Booking b WHERE b.contentId IN :contentIds AND b.status IN ('HELD', 'CONFIRMED') "
+                        + "AND b.spots IS NOT NULL")
+        List<Booking> findActiveLoopBookingsByContentIds(@Param("contentIds") Collection<Long> contentIds);
+
+        // Set-based cascade for content deletion
+        @Modifying
+        @Query("DELETE FROM Booking b WHERE b.contentId IN :contentIds")
+        int deleteByContentIds(@Param("contentIds") Collection<Long> contentIds);
+
         // Find active bookings for a screen (HELD or CONFIRMED)
         @Query("SELECT b FROM Booking b WHERE b.screenId = :screenId AND b.status IN ('HELD', 'CONFIRMED')")
         List<Booking> findActiveBookingsByScreen(@Param("screenId") Long screenId);
 
+        // Active bookings of several screens overlapping a window, ordered for a
+        // sweep; served by idx_booking_screen_status_dates
+        @Query("SELECT b FROM Booking b WHERE b.screenId IN :screenIds AND b.status IN ('HELD', 'CONFIRMED') "
+                        + "AND b.startDatetime < :end AND b.endDatetime > :start "
+                        + "ORDER BY b.screenId, b.startDatetime")
+        List<Booking> findActiveOverlapping(@Param("screenIds") Collection<Long> screenIds,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
         // CRITICAL: Conflict Check
         // Returns count of overlapping bookings that are HELD or CONFIRMED.
         // Overlap logic: (StartA < EndB) and (EndA > StartB)
@@ -0,0 +1,46 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.ContentIngestionJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ContentIngestionJobRepository extends JpaRepository<ContentIngestionJob, Long> {
+
+        Optional<ContentIngestionJob> findByContentId(Long contentId);
+
+        // Jobs ready to run, oldest first
+        @Query("SELECT j FROM ContentIngestionJob j WHERE j.status = 'QUEUED' AND j.nextAttemptAt <= :now " +
+                        "ORDER BY j.nextAttemptAt")
+        List<ContentIngestionJob> findDueJobs(@Param("now") LocalDateTime now, Pageable pageable);
+
+        // CONCURRENCY: Conditional claim
+        // Only one worker (on any node) can move a job from QUEUED to RUNNING.
+        // Returns 1 if this caller won the claim.
+        @Modifying
+        @Transactional
+        @Query("UPDATE ContentIngestionJob j SET j.status = 'RUNNING', j.startedAt = :now, " +
+                        "j.attempts = j.attempts + 1 WHERE j.id = :id AND j.status = 'QUEUED'")
+        int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+        // Recover jobs whose worker died mid-run (node restart, crash)
+        @Modifying
+        @Transactional
+        @Query("UPDATE ContentIngestionJob j SET j.status = 'QUEUED', j.nextAttemptAt = :now " +
+                        "WHERE j.status = 'RUNNING' AND j.startedAt < :cutoff")
+        int requeueStaleJobs(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+
+        @Modifying
+        @Query("DELETE FROM ContentIngestionJob j WHERE j.contentId IN :contentIds")
+        int deleteByContentIds(@Param("contentIds") Collection<Long> contentIds);
+}
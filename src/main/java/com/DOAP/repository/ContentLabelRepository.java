@@ -0,0 +1,31 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.Content;
+import com.DOAP.entity.ContentLabel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContentLabelRepository extends JpaRepository<ContentLabel, Long> {
+
+    List<ContentLabel> findByContentIdOrderByConfidenceDesc(Long contentId);
+
+    // One uploader's content only: starts from idx_content_uploader rather than every posting of the label
+    @Query("SELECT c FROM Content c JOIN ContentLabel l ON l.contentId = c.id "
+            + "WHERE c.uploaderId = :uploaderId AND l.label = :label AND l.confidence >= :minConfidence "
+            + "ORDER BY l.confidence DESC")
+    List<Content> findUploaderContentByLabel(@Param("uploaderId") Long uploaderId, @Param("label") String label,
+            @Param("minConfidence") double minConfidence);
+
+    boolean existsByContentId(Long contentId);
+
+    @Modifying
+    @Query("DELETE FROM ContentLabel l WHERE l.contentId IN :contentIds")
+    int deleteByContentIds(@Param("contentIds") Collection<Long> contentIds);
+}
@@ -0,0 +1,25 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.ContentRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ContentRecommendationRepository extends JpaRepository<ContentRecommendation, Long> {
+
+    Optional<ContentRecommendation> findByContentId(Long contentId);
+
+    @Modifying
+    @Query("UPDATE ContentRecommendation r SET r.invalidated = true WHERE r.contentId = :contentId")
+    int markInvalidated(@Param("contentId") Long contentId);
+
+    @Modifying
+    @Query("DELETE FROM ContentRecommendation r WHERE r.contentId IN :contentIds")
+    int deleteByContentIds(@Param("contentIds") Collection<Long> contentIds);
+}
@@ -0,0 +1,26 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.ContentRendition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContentRenditionRepository extends JpaRepository<ContentRendition, Long> {
+
+    List<ContentRendition> findBySourceS3Key(String sourceS3Key);
+
+    // Batch lookup for list endpoints
+    List<ContentRendition> findBySourceS3KeyIn(Collection<String> sourceS3Keys);
+
+    boolean existsBySourceS3Key(String sourceS3Key);
+
+    @Modifying
+    @Query("DELETE FROM ContentRendition r WHERE r.sourceS3Key IN :sourceS3Keys")
+    int deleteBySourceS3Keys(@Param("sourceS3Keys") Collection<String> sourceS3Keys);
+}
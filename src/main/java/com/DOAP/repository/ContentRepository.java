@@ -3,15 +3,31 @@ package com.DOAP.repository;
 import com.DOAP.entity.Content;
 import com.DOAP.entity.enums.ContentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ContentRepository extends JpaRepository<Content, Long> {
     List<Content> findByUploaderId(Long uploaderId);
 
+    // Earliest approved upload with the same bytes, reused instead of re-validating
+    Optional<Content> findFirstByContentHashAndStatusOrderByIdAsc(String contentHash, ContentStatus status);
+
+    // Keys among the given ones still used by content outside the deleted set
+    @Query("SELECT DISTINCT c.s3Key FROM Content c WHERE c.s3Key IN :s3Keys AND c.id NOT IN :excludedIds")
+    List<String> findReferencedS3Keys(@Param("s3Keys") Collection<String> s3Keys,
+            @Param("excludedIds") Collection<Long> excludedIds);
+
+    @Modifying
+    @Query("DELETE FROM Content c WHERE c.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
     // Admin Queries
     // Count total uploaded ads
     @Query("SELECT COUNT(c) FROM Content c")
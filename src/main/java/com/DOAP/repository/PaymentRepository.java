@@ -8,6 +8,12 @@ import org.springframework.stereotype.Repository;
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     java.util.List<Payment> findByBookingId(Long bookingId);
 
+    // Set-based cascade for content deletion: payments of every booking of the content
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("DELETE FROM Payment p WHERE p.bookingId IN (SELECT b.id FROM com.DOAP.entity.Booking b WHERE b.contentId IN :contentIds)")
+    int deleteByContentIds(
+            @org.springframework.data.repository.query.Param("contentIds") java.util.Collection<Long> contentIds);
+
     @org.springframework.data.jpa.repository.Query("SELECT p FROM Payment p WHERE p.bookingId IN (SELECT b.id FROM com.DOAP.entity.Booking b WHERE b.advertiserId = :advertiserId)")
     java.util.List<Payment> findByAdvertiserId(
             @org.springframework.data.repository.query.Param("advertiserId") Long advertiserId);
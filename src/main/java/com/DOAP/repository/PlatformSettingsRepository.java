@@ -2,9 +2,17 @@ package com.DOAP.repository;
 
 import com.DOAP.entity.PlatformSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface PlatformSettingsRepository extends JpaRepository<PlatformSettings, Long> {
     // Platform settings will have only one row with ID=1
+
+    // Cheap version probe used to detect updates made by other nodes
+    @Query("SELECT s.settingsVersion FROM PlatformSettings s WHERE s.id = :id")
+    Optional<Long> findSettingsVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,32 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.ResumableUpload;
+import com.DOAP.entity.enums.ResumableUploadStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ResumableUploadRepository extends JpaRepository<ResumableUpload, String> {
+
+    // Uploads abandoned past their expiry
+    List<ResumableUpload> findByStatusInAndExpiresAtBefore(Collection<ResumableUploadStatus> statuses,
+            LocalDateTime cutoff);
+
+    // Only one finalize (on any node) can move a complete upload from IN_PROGRESS to UPLOADING.
+    // Returns 1 if this caller won the claim.
+    @Modifying
+    @Transactional
+    @Query("UPDATE ResumableUpload u SET u.status = 'UPLOADING', u.expiresAt = :expiresAt "
+            + "WHERE u.id = :id AND u.status = 'IN_PROGRESS' AND u.receivedBytes = u.totalBytes")
+    int claimForUpload(@Param("id") String id, @Param("expiresAt") LocalDateTime expiresAt);
+
+    long countByUploaderIdAndStatus(Long uploaderId, ResumableUploadStatus status);
+}
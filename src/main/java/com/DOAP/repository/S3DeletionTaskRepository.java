@@ -0,0 +1,19 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.S3DeletionTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface S3DeletionTaskRepository extends JpaRepository<S3DeletionTask, Long> {
+
+    // Deletions ready to run, oldest first
+    @Query("SELECT t FROM S3DeletionTask t WHERE t.nextAttemptAt <= :now ORDER BY t.nextAttemptAt")
+    List<S3DeletionTask> findDueTasks(@Param("now") LocalDateTime now, Pageable pageable);
+}
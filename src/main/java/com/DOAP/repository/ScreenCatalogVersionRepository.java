@@ -0,0 +1,22 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.ScreenCatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ScreenCatalogVersionRepository extends JpaRepository<ScreenCatalogVersion, Long> {
+
+    // Atomic in-database increment, safe across nodes
+    @Modifying
+    @Query("UPDATE ScreenCatalogVersion v SET v.version = v.version + 1 WHERE v.id = :id")
+    int increment(@Param("id") Long id);
+
+    @Query("SELECT v.version FROM ScreenCatalogVersion v WHERE v.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+}
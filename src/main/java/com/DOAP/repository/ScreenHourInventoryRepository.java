@@ -0,0 +1,50 @@
+package com.DOAP.repository;
+
+import com.DOAP.entity.ScreenHourInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ScreenHourInventoryRepository extends JpaRepository<ScreenHourInventory, Long> {
+
+    @Query("SELECT i.hourStart FROM ScreenHourInventory i WHERE i.screenId = :screenId AND i.hourStart IN :hours")
+    List<LocalDateTime> findExistingHours(@Param("screenId") Long screenId,
+            @Param("hours") Collection<LocalDateTime> hours);
+
+    List<ScreenHourInventory> findByScreenIdAndHourStartBetween(Long screenId, LocalDateTime from,
+            LocalDateTime to);
+
+    // A concurrent first booking of the same hour may have created the row already
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO screen_hour_inventory (screen_id, hour_start, sold_spots) "
+            + "VALUES (:screenId, :hourStart, :soldSpots)", nativeQuery = true)
+    int insertIfAbsent(@Param("screenId") Long screenId, @Param("hourStart") LocalDateTime hourStart,
+            @Param("soldSpots") int soldSpots);
+
+    // CRITICAL: Admission. Each row is incremented only while it stays within the screen's
+    // current loop size, read in the same statement so a concurrent resize cannot be overshot;
+    // the caller compares the count with the number of hours and rolls back on a shortfall
+    @Modifying
+    @Query("UPDATE ScreenHourInventory i SET i.soldSpots = i.soldSpots + :spots "
+            + "WHERE i.screenId = :screenId AND i.hourStart IN :hours "
+            + "AND i.soldSpots + :spots <= (SELECT s.loopSpots FROM Screen s WHERE s.id = :screenId)")
+    int admit(@Param("screenId") Long screenId, @Param("hours") Collection<LocalDateTime> hours,
+            @Param("spots") int spots);
+
+    @Query("SELECT COALESCE(MAX(i.soldSpots), 0) FROM ScreenHourInventory i "
+            + "WHERE i.screenId = :screenId AND i.hourStart >= :from")
+    int findMaxSoldSpotsFrom(@Param("screenId") Long screenId, @Param("from") LocalDateTime from);
+
+    @Modifying
+    @Query("UPDATE ScreenHourInventory i SET i.soldSpots = i.soldSpots - :spots "
+            + "WHERE i.screenId = :screenId AND i.hourStart IN :hours AND i.soldSpots >= :spots")
+    int release(@Param("screenId") Long screenId, @Param("hours") Collection<LocalDateTime> hours,
+            @Param("spots") int spots);
+}
@@ -7,8 +7,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.List;
@@ -52,7 +54,21 @@ public interface ScreenRepository extends JpaRepository<Screen, Long> {
         @Query("SELECT s FROM Screen s WHERE s.status = 'PENDING_APPROVAL' ORDER BY s.createdAt DESC")
         List<Screen> findPendingApprovalScreens();
 
+        // Distinct resolutions of active screens, most common first.
+        // Each row is [resolutionWidth, resolutionHeight, screenCount]
+        @Query("SELECT s.resolutionWidth, s.resolutionHeight, COUNT(s) FROM Screen s " +
+                        "WHERE s.status = 'ACTIVE' AND s.resolutionWidth IS NOT NULL AND s.resolutionHeight IS NOT NULL " +
+                        "GROUP BY s.resolutionWidth, s.resolutionHeight ORDER BY COUNT(s) DESC")
+        List<Object[]> findActiveResolutionClasses();
+
         // Find all screens ordered by creation date (for admin view)
         @Query("SELECT s FROM Screen s ORDER BY s.createdAt DESC")
         List<Screen> findAllScreensOrderedByDate();
+
+        // Targeted update so storing an embedding never overwrites a concurrent screen edit
+        @Modifying
+        @Transactional
+        @Query("UPDATE Screen s SET s.embedding = :embedding, s.embeddingSourceHash = :sourceHash WHERE s.id = :id")
+        int updateEmbedding(@Param("id") Long id, @Param("embedding") byte[] embedding,
+                        @Param("sourceHash") String sourceHash);
 }
@@ -16,12 +16,16 @@ public class AdBusinessDetailsService {
 
     private final AdBusinessDetailsRepository adBusinessDetailsRepository;
     private final ContentRepository contentRepository;
+    private final RecommendationService recommendationService;
 
     @Transactional
     public AdBusinessDetails saveAdDetails(AdBusinessDetailsRequest request) {
         Content content = contentRepository.findById(request.getContentId())
                 .orElseThrow(() -> new EntityNotFoundException("Content not found with ID: " + request.getContentId()));
 
+        // Stored screen ranking depends on these details; rebuild it after commit
+        recommendationService.recomputeAfterCommit(request.getContentId());
+
         // Check if details already exist for this content
         AdBusinessDetails existingDetails = adBusinessDetailsRepository.findByContent_Id(request.getContentId())
                 .orElse(null);
@@ -8,6 +8,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,14 +22,29 @@ public class AdminBookingService {
     private final ScreenRepository screenRepository;
     private final ContentRepository contentRepository;
     private final AdBusinessDetailsRepository adBusinessDetailsRepository;
+    private final S3PresignService s3PresignService;
+    private final ImageRenditionService imageRenditionService;
 
     public List<AdminBookingDetailsDTO> getAllBookings() {
-        return bookingRepository.findAllBookingsOrderedByDate().stream()
-                .map(this::convertToDTO)
+        List<Booking> bookings = bookingRepository.findAllBookingsOrderedByDate();
+
+        // Load the booked creatives and their renditions once for the whole list
+        Map<Long, Content> contents = contentRepository
+                .findAllById(bookings.stream().map(Booking::getContentId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Content::getId, Function.identity()));
+        Map<String, List<ContentRendition>> renditions = imageRenditionService.findRenditions(contents.values()
+                .stream()
+                .map(Content::getS3Key)
+                .collect(Collectors.toSet()));
+
+        return bookings.stream()
+                .map(booking -> convertToDTO(booking, contents.get(booking.getContentId()), renditions))
                 .collect(Collectors.toList());
     }
 
-    private AdminBookingDetailsDTO convertToDTO(Booking booking) {
+    private AdminBookingDetailsDTO convertToDTO(Booking booking, Content content,
+            Map<String, List<ContentRendition>> renditions) {
         // Fetch Advertiser
         User advertiser = userRepository.findById(booking.getAdvertiserId()).orElse(null);
 
@@ -38,8 +55,7 @@ public class AdminBookingService {
             screenOwner = userRepository.findById(screen.getOwnerId()).orElse(null);
         }
 
-        // Fetch Content and Ad Details
-        Content content = contentRepository.findById(booking.getContentId()).orElse(null);
+        // Fetch Ad Details
         AdBusinessDetails adDetails = adBusinessDetailsRepository.findByContent_Id(booking.getContentId()).orElse(null);
 
         return AdminBookingDetailsDTO.builder()
@@ -56,7 +72,7 @@ public class AdminBookingService {
                         : (screen != null && "ADMIN".equals(screen.getOwnerRole()) ? "admin@doap.com" : "Unknown"))
                 .contentId(booking.getContentId())
                 .adTitle(adDetails != null ? adDetails.getAdTitle() : "Ad-" + booking.getContentId())
-                .adS3Url(content != null ? content.getS3Url() : null)
+                .adS3Url(content != null ? servedUrl(content, screen, renditions) : null)
                 .adType(content != null ? content.getContentType().toString() : "IMAGE")
                 .priceAmount(booking.getPriceAmount())
                 .bookedAt(booking.getCreatedAt())
@@ -65,4 +81,13 @@ public class AdminBookingService {
                 .paymentStatus(booking.getConfirmedAt() != null ? "PAID" : "PENDING")
                 .build();
     }
+
+    // Signed URL of the rendition a display on this screen would be served
+    private String servedUrl(Content content, Screen screen, Map<String, List<ContentRendition>> renditions) {
+        String key = screen != null
+                ? imageRenditionService.selectForScreen(content.getS3Key(), renditions.get(content.getS3Key()),
+                        screen.getResolutionWidth(), screen.getResolutionHeight())
+                : content.getS3Key();
+        return s3PresignService.presignApproved(key);
+    }
 }
@@ -27,6 +27,7 @@ public class AdminScreenManagementService {
     private final ScreenRepository screenRepository;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final ScreenCatalogVersionService screenCatalogVersionService;
 
     public List<AdminScreenDetailsDTO> getAllScreens() {
         return screenRepository.findAllScreensOrderedByDate().stream()
@@ -81,7 +82,9 @@ public class AdminScreenManagementService {
         screen.setApprovedBy(adminId);
         screen.setApprovedAt(LocalDateTime.now());
 
-        return screenRepository.save(screen);
+        Screen saved = screenRepository.save(screen);
+        screenCatalogVersionService.bump(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -100,6 +103,7 @@ public class AdminScreenManagementService {
         screen.setApprovedAt(LocalDateTime.now());
 
         screenRepository.save(screen);
+        screenCatalogVersionService.bump(screenId);
     }
 
     @Transactional
@@ -111,6 +115,7 @@ public class AdminScreenManagementService {
 
         screen.setStatus(ScreenStatus.REJECTED);
         screenRepository.save(screen);
+        screenCatalogVersionService.bump(screenId);
     }
 
     @Transactional
@@ -122,5 +127,6 @@ public class AdminScreenManagementService {
 
         screen.setStatus(ScreenStatus.INACTIVE);
         screenRepository.save(screen);
+        screenCatalogVersionService.bump(screenId);
     }
 }
@@ -0,0 +1,274 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.ScreenRecommendationDTO;
+import com.DOAP.entity.Booking;
+import com.DOAP.entity.Screen;
+import com.DOAP.repository.BookingRepository;
+import com.DOAP.repository.ScreenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Re-ranks screen recommendations for a requested booking window.
+ *
+ * For every candidate the operating hours inside the window are swept against
+ * its HELD and CONFIRMED bookings, which come from a single indexed query for
+ * all candidates. Screens without a free gap of the minimum booking duration
+ * are dropped (or sink to the bottom when drop-unavailable is off); the rest
+ * are scored by text similarity, free share of the window and quoted price in
+ * one pass. Loop screens are blocked only by exclusive bookings and sold-out
+ * hours, need whole hours and are quoted per spot.
+ */
+@Service
+@Slf4j
+public class AvailabilityRanker {
+
+    private final BookingRepository bookingRepository;
+    private final ScreenRepository screenRepository;
+    private final PricingService pricingService;
+    private final PlatformSettingsService platformSettingsService;
+    private final LoopInventoryService loopInventoryService;
+
+    private final double similarityWeight;
+    private final double availabilityWeight;
+    private final double priceWeight;
+    private final boolean dropUnavailable;
+    private final long maxRangeDays;
+
+    public AvailabilityRanker(BookingRepository bookingRepository,
+            ScreenRepository screenRepository,
+            PricingService pricingService,
+            PlatformSettingsService platformSettingsService,
+            LoopInventoryService loopInventoryService,
+            @Value("${recommendation.availability.similarity-weight:0.7}") double similarityWeight,
+            @Value("${recommendation.availability.occupancy-weight:0.2}") double availabilityWeight,
+            @Value("${recommendation.availability.price-weight:0.1}") double priceWeight,
+            @Value("${recommendation.availability.drop-unavailable:true}") boolean dropUnavailable,
+            @Value("${recommendation.availability.max-range-days:31}") long maxRangeDays) {
+        this.bookingRepository = bookingRepository;
+        this.screenRepository = screenRepository;
+        this.pricingService = pricingService;
+        this.platformSettingsService = platformSettingsService;
+        this.loopInventoryService = loopInventoryService;
+        this.similarityWeight = similarityWeight;
+        this.availabilityWeight = availabilityWeight;
+        this.priceWeight = priceWeight;
+        this.dropUnavailable = dropUnavailable;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Free time of one screen inside the requested window.
+     */
+    private record FreeTime(long sellableMinutes, long freeMinutes, LocalDateTime firstFreeSlot) {
+        double occupancy() {
+            return sellableMinutes == 0 ? 1.0 : 1.0 - (double) freeMinutes / sellableMinutes;
+        }
+    }
+
+    public List<ScreenRecommendationDTO> rank(List<ScreenRecommendationDTO> recommendations,
+            LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        if (Duration.between(start, end).toDays() > maxRangeDays) {
+            throw new IllegalArgumentException("Window cannot be longer than " + maxRangeDays + " days");
+        }
+        if (recommendations.isEmpty()) {
+            return recommendations;
+        }
+
+        List<Long> ids = recommendations.stream().map(ScreenRecommendationDTO::getScreenId).toList();
+        Map<Long, Screen> screens = screenRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Screen::getId, Function.identity()));
+        Map<Long, List<Booking>> bookings = bookingRepository.findActiveOverlapping(ids, start, end).stream()
+                .collect(Collectors.groupingBy(Booking::getScreenId));
+
+        LocalDateTime from = start.isBefore(LocalDateTime.now()) ? LocalDateTime.now() : start;
+        long windowMinutes = Duration.between(from, end).toMinutes();
+        long requiredMinutes = Math.min(windowMinutes,
+                platformSettingsService.getSnapshot().getMinimumBookingDurationMinutes());
+
+        // Sweep every candidate; the ones with no bookable gap are set aside
+        List<ScreenRecommendationDTO> available = new ArrayList<>();
+        List<ScreenRecommendationDTO> unavailable = new ArrayList<>();
+        List<Screen> quoted = new ArrayList<>();
+        for (ScreenRecommendationDTO recommendation : recommendations) {
+            Screen screen = screens.get(recommendation.getScreenId());
+            if (screen == null) {
+                continue;
+            }
+            boolean loop = loopInventoryService.isLoopScreen(screen);
+            FreeTime free = freeTime(screen, busyTimes(screen, bookings.getOrDefault(screen.getId(), List.of()),
+                    from, end), from, end, loop ? wholeHours(requiredMinutes) : requiredMinutes, loop);
+            recommendation.setSimilarity(recommendation.getScore());
+            recommendation.setOccupancy(free.occupancy());
+            recommendation.setFirstFreeSlot(free.firstFreeSlot());
+            if (requiredMinutes > 0 && free.firstFreeSlot() != null) {
+                available.add(recommendation);
+                quoted.add(screen);
+            } else {
+                unavailable.add(recommendation);
+            }
+        }
+
+        // A short window is quoted as a whole; for a longer range the first
+        // bookable slot of minimum length is what the advertiser would pay for
+        LocalDateTime[] starts = new LocalDateTime[quoted.size()];
+        LocalDateTime[] ends = new LocalDateTime[quoted.size()];
+        boolean wholeWindow = Duration.between(start, end).toHours() <= 24;
+        for (int i = 0; i < quoted.size(); i++) {
+            long minutes = loopInventoryService.isLoopScreen(quoted.get(i)) ? wholeHours(requiredMinutes)
+                    : requiredMinutes;
+            starts[i] = wholeWindow ? from : available.get(i).getFirstFreeSlot();
+            ends[i] = wholeWindow ? end : starts[i].plusMinutes(minutes);
+        }
+        double[] prices = new double[quoted.size()];
+        for (int i = 0; i < quoted.size(); i++) {
+            Screen screen = quoted.get(i);
+            prices[i] = pricingService.calculateAdvertiserPrice(screen, starts[i], ends[i]);
+            if (loopInventoryService.isLoopScreen(screen)) {
+                prices[i] = prices[i] / screen.getLoopSpots(); // One spot, as createBooking charges it
+            }
+        }
+
+        double minPrice = Double.MAX_VALUE;
+        double maxPrice = 0;
+        for (double price : prices) {
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+        }
+
+        for (int i = 0; i < available.size(); i++) {
+            ScreenRecommendationDTO recommendation = available.get(i);
+            double priceScore = maxPrice > minPrice ? (maxPrice - prices[i]) / (maxPrice - minPrice) : 1.0;
+            recommendation.setQuotedPrice(prices[i]);
+            recommendation.setScore(similarityWeight * recommendation.getSimilarity()
+                    + availabilityWeight * (1.0 - recommendation.getOccupancy())
+                    + priceWeight * priceScore);
+        }
+        available.sort(Comparator.comparing(ScreenRecommendationDTO::getScore).reversed());
+
+        log.info("Availability ranking {} to {}: {} of {} screens bookable", start, end, available.size(),
+                recommendations.size());
+        if (dropUnavailable) {
+            return available;
+        }
+        for (ScreenRecommendationDTO recommendation : unavailable) {
+            recommendation.setScore(similarityWeight * recommendation.getSimilarity());
+        }
+        unavailable.sort(Comparator.comparing(ScreenRecommendationDTO::getScore).reversed());
+        available.addAll(unavailable);
+        return available;
+    }
+
+    /**
+     * Times the screen cannot sell in [from, end) as [start, end) pairs sorted
+     * by start. A loop screen is blocked by exclusive bookings and by the hours
+     * whose spots are sold out, not by every loop booking.
+     */
+    private List<LocalDateTime[]> busyTimes(Screen screen, List<Booking> bookings, LocalDateTime from,
+            LocalDateTime end) {
+        if (!loopInventoryService.isLoopScreen(screen)) {
+            return bookings.stream()
+                    .map(booking -> new LocalDateTime[] { booking.getStartDatetime(), booking.getEndDatetime() })
+                    .toList();
+        }
+        List<LocalDateTime[]> busy = new ArrayList<>();
+        bookings.stream()
+                .filter(booking -> booking.getSpots() == null)
+                .forEach(booking -> busy.add(new LocalDateTime[] { booking.getStartDatetime(),
+                        booking.getEndDatetime() }));
+        LocalDateTime firstHour = from.truncatedTo(ChronoUnit.HOURS);
+        int hours = (int) ChronoUnit.HOURS.between(firstHour, LoopInventoryService.hourAtOrAfter(end));
+        if (hours > 0) {
+            int[] spotsLeft = loopInventoryService.spotsLeft(screen, firstHour, hours);
+            for (int h = 0; h < hours; h++) {
+                if (spotsLeft[h] < 1) {
+                    busy.add(new LocalDateTime[] { firstHour.plusHours(h), firstHour.plusHours(h + 1) });
+                }
+            }
+        }
+        busy.sort(Comparator.comparing((LocalDateTime[] interval) -> interval[0]));
+        return busy;
+    }
+
+    /**
+     * Sweeps the operating hours of each day in [from, end) against the
+     * screen's busy times. Loop screens only offer slots on the hour.
+     */
+    private static FreeTime freeTime(Screen screen, List<LocalDateTime[]> busy, LocalDateTime from,
+            LocalDateTime end, long requiredMinutes, boolean onTheHour) {
+        long sellable = 0;
+        long free = 0;
+        LocalDateTime firstFreeSlot = null;
+        int next = 0;
+
+        for (LocalDate day = from.toLocalDate(); !day.atStartOfDay().isAfter(end); day = day.plusDays(1)) {
+            LocalDateTime open = max(from, day.atTime(screen.getActiveFrom() != null
+                    ? screen.getActiveFrom() : LocalTime.MIDNIGHT));
+            LocalDateTime close = min(end, screen.getActiveTo() != null
+                    ? day.atTime(screen.getActiveTo()) : day.plusDays(1).atStartOfDay());
+            if (!close.isAfter(open)) {
+                continue;
+            }
+            sellable += Duration.between(open, close).toMinutes();
+
+            // Busy times that ended before this day's opening are done with
+            while (next < busy.size() && !busy.get(next)[1].isAfter(open)) {
+                next++;
+            }
+            LocalDateTime cursor = open;
+            for (int i = next; i < busy.size() && busy.get(i)[0].isBefore(close); i++) {
+                LocalDateTime[] interval = busy.get(i);
+                if (interval[0].isAfter(cursor)) {
+                    free += Duration.between(cursor, interval[0]).toMinutes();
+                    if (firstFreeSlot == null) {
+                        firstFreeSlot = slotIn(cursor, interval[0], requiredMinutes, onTheHour);
+                    }
+                }
+                cursor = max(cursor, interval[1]);
+            }
+            if (close.isAfter(cursor)) {
+                free += Duration.between(cursor, close).toMinutes();
+                if (firstFreeSlot == null) {
+                    firstFreeSlot = slotIn(cursor, close, requiredMinutes, onTheHour);
+                }
+            }
+        }
+        return new FreeTime(sellable, free, firstFreeSlot);
+    }
+
+    // Start of a slot of requiredMinutes inside [gapStart, gapEnd), or null if none fits
+    private static LocalDateTime slotIn(LocalDateTime gapStart, LocalDateTime gapEnd, long requiredMinutes,
+            boolean onTheHour) {
+        LocalDateTime slotStart = onTheHour ? LoopInventoryService.hourAtOrAfter(gapStart) : gapStart;
+        return Duration.between(slotStart, gapEnd).toMinutes() >= requiredMinutes ? slotStart : null;
+    }
+
+    // Loop bookings cover whole hours
+    private static long wholeHours(long minutes) {
+        return (minutes + 59) / 60 * 60;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
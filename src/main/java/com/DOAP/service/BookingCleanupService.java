@@ -18,6 +18,7 @@ import java.util.List;
 public class BookingCleanupService {
 
     private final BookingRepository bookingRepository;
+    private final LoopInventoryService loopInventoryService;
 
     /**
      * Runs every minute to check for expired HELD bookings.
@@ -38,6 +39,8 @@ public class BookingCleanupService {
                 log.info("Expiring Booking ID: {} (Reference: {}). Expired at: {}",
                         booking.getId(), booking.getBookingReference(), booking.getExpiresAt());
                 booking.setStatus(BookingStatus.EXPIRED);
+                // Loop bookings hand their spots back to the hour counters
+                loopInventoryService.release(booking);
             }
 
             bookingRepository.saveAll(expiredBookings);
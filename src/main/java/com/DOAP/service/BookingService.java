@@ -2,6 +2,8 @@ package com.DOAP.service;
 
 import com.DOAP.dto.BookingRequest;
 import com.DOAP.dto.BookingResponse;
+import com.DOAP.dto.PriceQuoteRequest;
+import com.DOAP.dto.PriceQuoteResponse;
 import com.DOAP.entity.Booking;
 import com.DOAP.entity.Content;
 import com.DOAP.entity.Screen;
@@ -31,7 +33,9 @@ public class BookingService {
     private final ContentRepository contentRepository;
     // user repository removed as it was unused
     private final PricingService pricingService;
+    private final CreativeProbeService creativeProbeService;
     private final InvoiceService invoiceService;
+    private final LoopInventoryService loopInventoryService;
 
     // Constructor generated by @RequiredArgsConstructor
 
@@ -47,9 +51,18 @@ public class BookingService {
             throw new IllegalArgumentException("End time must be after start time");
         }
 
-        // 2. THREAD SAFETY: Acquire Lock on Screen
-        Screen screen = screenRepository.findByIdWithLock(request.getScreenId())
+        // 2. THREAD SAFETY: Loop screens are admitted per hour by their spot counters (step 5);
+        // exclusive bookings lock the screen
+        Screen screen = screenRepository.findById(request.getScreenId())
                 .orElseThrow(() -> new RuntimeException("Screen not found"));
+        boolean loop = loopInventoryService.isLoopScreen(screen);
+        if (!loop) {
+            screen = screenRepository.findByIdWithLock(request.getScreenId())
+                    .orElseThrow(() -> new RuntimeException("Screen not found"));
+        } else if (request.getSpots() != null && request.getSpots() < 1) {
+            throw new IllegalArgumentException("Spots must be at least 1");
+        }
+        int spots = loop && request.getSpots() != null ? request.getSpots() : 1;
 
         if (screen.getStatus() != ScreenStatus.ACTIVE) {
             throw new RuntimeException("Screen is not ACTIVE currently");
@@ -67,6 +80,12 @@ public class BookingService {
             throw new RuntimeException("Content must be APPROVED to book slots");
         }
 
+        // Creative must fit the screen (from probed header dimensions, no download)
+        String incompatibility = creativeProbeService.checkScreenCompatibility(content, screen);
+        if (incompatibility != null) {
+            throw new IllegalArgumentException(incompatibility);
+        }
+
         // 4. Validate against Screen Operating Hours
         if (screen.getActiveFrom() != null && screen.getActiveTo() != null) {
             java.time.LocalTime bookingStartTime = request.getStartDatetime().toLocalTime();
@@ -86,20 +105,28 @@ public class BookingService {
         }
 
         // 5. Verification Check (Double Check)
-        int conflictCount = bookingRepository.countConflictingBookings(
-                request.getScreenId(),
-                request.getStartDatetime(),
-                request.getEndDatetime());
-
-        if (conflictCount > 0) {
-            throw new RuntimeException("Slot unavailable: Overlaps with an existing booking");
+        if (loop) {
+            loopInventoryService.admit(screen.getId(), screen.getLoopSpots(), request.getStartDatetime(),
+                    request.getEndDatetime(), spots);
+        } else {
+            int conflictCount = bookingRepository.countConflictingBookings(
+                    request.getScreenId(),
+                    request.getStartDatetime(),
+                    request.getEndDatetime());
+
+            if (conflictCount > 0) {
+                throw new RuntimeException("Slot unavailable: Overlaps with an existing booking");
+            }
         }
 
-        // 6. Calculate Price (Snapshot)
+        // 6. Calculate Price (Snapshot); a loop booking pays its share of the loop
         Double price = pricingService.calculateAdvertiserPrice(
                 screen,
                 request.getStartDatetime(),
                 request.getEndDatetime());
+        if (loop) {
+            price = price * spots / screen.getLoopSpots();
+        }
 
         // 6. Create Booking
         Booking booking = Booking.builder()
@@ -111,6 +138,8 @@ public class BookingService {
                 .status(BookingStatus.HELD)
                 .expiresAt(LocalDateTime.now().plusMinutes(HOLD_DURATION_MINUTES))
                 .priceAmount(price) // Save Snapshot
+                .spots(loop ? spots : null)
+                .loopSize(loop ? screen.getLoopSpots() : null)
                 .build();
 
         Booking savedBooking = bookingRepository.save(booking);
@@ -120,6 +149,62 @@ public class BookingService {
         return mapToResponse(savedBooking);
     }
 
+    /**
+     * Holds several slots in one transaction: either every booking is created
+     * or none is. Screens are locked in id order so two batches over the same
+     * screens cannot deadlock.
+     */
+    @Transactional
+    public List<BookingResponse> createBookings(List<BookingRequest> requests, Long advertiserId) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one booking is required");
+        }
+        if (requests.stream().anyMatch(r -> r.getScreenId() == null || r.getStartDatetime() == null
+                || r.getEndDatetime() == null)) {
+            throw new IllegalArgumentException("Every booking needs a screen, start and end time");
+        }
+        return requests.stream()
+                .sorted(java.util.Comparator.comparing(BookingRequest::getScreenId)
+                        .thenComparing(BookingRequest::getStartDatetime))
+                .map(request -> createBooking(request, advertiserId))
+                .collect(Collectors.toList());
+    }
+
+    // Batch price quote: every requested screen against every window
+    public PriceQuoteResponse quotePrices(PriceQuoteRequest request) {
+        if (request.getScreenIds() == null || request.getScreenIds().isEmpty()
+                || request.getWindows() == null || request.getWindows().isEmpty()) {
+            throw new IllegalArgumentException("At least one screen and one window are required");
+        }
+
+        java.util.Map<Long, Screen> screensById = screenRepository.findAllById(request.getScreenIds()).stream()
+                .collect(Collectors.toMap(Screen::getId, s -> s));
+
+        List<Long> screenIds = request.getScreenIds().stream()
+                .filter(screensById::containsKey)
+                .distinct()
+                .collect(Collectors.toList());
+        List<Screen> screens = screenIds.stream().map(screensById::get).collect(Collectors.toList());
+
+        int windowCount = request.getWindows().size();
+        LocalDateTime[] starts = new LocalDateTime[windowCount];
+        LocalDateTime[] ends = new LocalDateTime[windowCount];
+        for (int i = 0; i < windowCount; i++) {
+            PriceQuoteRequest.Window window = request.getWindows().get(i);
+            if (window.getStart() == null || window.getEnd() == null || !window.getEnd().isAfter(window.getStart())) {
+                throw new IllegalArgumentException("Window " + i + ": end time must be after start time");
+            }
+            starts[i] = window.getStart();
+            ends[i] = window.getEnd();
+        }
+
+        return PriceQuoteResponse.builder()
+                .screenIds(screenIds)
+                .windows(request.getWindows())
+                .prices(pricingService.quoteAdvertiserPrices(screens, starts, ends))
+                .build();
+    }
+
     // Dynamic Availability Calculation
     public List<TimeRange> getAvailability(Long screenId, LocalDate date) {
         // 1. Get active bookings for the screen
@@ -222,6 +307,7 @@ public class BookingService {
                 .expiresAt(booking.getExpiresAt())
                 .priceAmount(booking.getPriceAmount())
                 .confirmedAt(booking.getConfirmedAt())
+                .spots(booking.getSpots())
                 .build();
     }
 
@@ -245,6 +331,8 @@ public class BookingService {
     public static class SlotStatus {
         private String slot; // "09:00-10:00"
         private String status; // "AVAILABLE", "BOOKED", "SELECTED"
+        private Double price; // Advertiser price for this slot (one spot on a loop screen)
+        private Integer spotsLeft; // Loop screens only
     }
 
     public List<SlotStatus> getSlotsStatus(Long screenId, LocalDate date) {
@@ -260,21 +348,45 @@ public class BookingService {
                         || b.getEndDatetime().toLocalDate().equals(date))
                 .collect(Collectors.toList());
 
+        // 3. Quote all slots in one pass
+        LocalDateTime[] slotStarts = new LocalDateTime[endHour - startHour];
+        LocalDateTime[] slotEnds = new LocalDateTime[endHour - startHour];
         for (int hour = startHour; hour < endHour; hour++) {
-            LocalDateTime slotStart = date.atTime(hour, 0);
-            LocalDateTime slotEnd = date.atTime(hour + 1, 0);
+            slotStarts[hour - startHour] = date.atTime(hour, 0);
+            slotEnds[hour - startHour] = date.atTime(hour + 1, 0);
+        }
+        Screen screen = screenRepository.findById(screenId).orElse(null);
+        double[] slotPrices = screen != null ? pricingService.quoteAdvertiserPrices(screen, slotStarts, slotEnds)
+                : null;
+
+        // Loop screens sell an hour until its spot counter is full
+        boolean loop = screen != null && loopInventoryService.isLoopScreen(screen);
+        int[] spotsLeft = loop ? loopInventoryService.spotsLeft(screen, slotStarts[0], slotStarts.length) : null;
+
+        for (int hour = startHour; hour < endHour; hour++) {
+            LocalDateTime slotStart = slotStarts[hour - startHour];
+            LocalDateTime slotEnd = slotEnds[hour - startHour];
             String slotLabel = String.format("%02d:00-%02d:00", hour, hour + 1);
 
             boolean isBooked = activeBookings.stream().anyMatch(b ->
             // Check Overlap: (StartA < EndB) and (EndA > StartB)
-            (b.getStartDatetime().isBefore(slotEnd) && b.getEndDatetime().isAfter(slotStart)));
+            (b.getStartDatetime().isBefore(slotEnd) && b.getEndDatetime().isAfter(slotStart))
+                    && (!loop || b.getSpots() == null));
+            Integer left = loop ? (isBooked ? 0 : spotsLeft[hour - startHour]) : null;
+            if (loop && left == 0) {
+                isBooked = true;
+            }
 
             // Check if slot is in the past (if today)
             boolean isPast = LocalDateTime.now().isAfter(slotStart);
 
             String status = isBooked ? "BOOKED" : (isPast ? "BOOKED" : "AVAILABLE"); // Mark past slots as
                                                                                      // BOOKED/Unavailable
-            slots.add(new SlotStatus(slotLabel, status));
+            Double price = slotPrices != null ? slotPrices[hour - startHour] : null;
+            if (loop && price != null) {
+                price = price / screen.getLoopSpots();
+            }
+            slots.add(new SlotStatus(slotLabel, status, price, left));
         }
         return slots;
     }
@@ -0,0 +1,239 @@
+package com.DOAP.service;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * 0/1 knapsack for budget planning: pick items (screen hours) with the highest
+ * total value whose total cost fits the budget.
+ *
+ * Items are sorted by value per unit cost and filled greedily. Only a core of
+ * items around the first one that no longer fits is then searched exactly,
+ * with everything denser fixed in and everything sparser fixed out; the best
+ * solutions of a knapsack almost always differ from greedy only there. The
+ * core is searched by a branch-and-bound with the fractional (LP) bound, split
+ * into fork-join tasks over its first decisions. The search stops at the
+ * deadline and keeps the best solution found. The result is never worse than
+ * greedy: if the searched core leaves less room for the sparser items, the
+ * greedy fill is returned instead.
+ */
+public class BudgetKnapsack {
+
+    /**
+     * chosen[i] refers to the caller's item order. optimal is true when the
+     * core search completed before the deadline. That proves the result best
+     * only for the core: items outside it stay fixed by density, unless the
+     * core covers every item.
+     */
+    public record Solution(boolean[] chosen, long totalCost, double totalValue, boolean optimal) {
+    }
+
+    // Decisions taken as separate fork-join tasks before going sequential
+    private static final int SPLIT_DEPTH = 8;
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final long[] costs;
+    private final double[] values;
+    private final long budget;
+    private final int coreSize;
+    private final long deadlineNanos;
+
+    // Item indexes by value density, highest first
+    private final int[] order;
+
+    private double bestValue;
+    private boolean[] bestCore;
+    private volatile boolean timedOut;
+
+    public BudgetKnapsack(long[] costs, double[] values, long budget, int coreSize, long deadlineNanos) {
+        if (costs.length != values.length) {
+            throw new IllegalArgumentException("costs and values must have the same length");
+        }
+        this.costs = costs;
+        this.values = values;
+        this.budget = budget;
+        this.coreSize = coreSize;
+        this.deadlineNanos = deadlineNanos;
+        this.order = IntStream.range(0, costs.length)
+                .filter(i -> costs[i] > 0 && values[i] > 0)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> values[i] / costs[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public Solution solve(ForkJoinPool pool) {
+        int n = order.length;
+
+        // Break item: the first by density that does not fit after all denser ones
+        long prefixCost = 0;
+        int breakAt = n;
+        for (int k = 0; k < n; k++) {
+            if (prefixCost + costs[order[k]] > budget) {
+                breakAt = k;
+                break;
+            }
+            prefixCost += costs[order[k]];
+        }
+        if (breakAt == n) {
+            boolean[] chosen = new boolean[costs.length];
+            double value = 0;
+            for (int item : order) {
+                chosen[item] = true;
+                value += values[item];
+            }
+            return new Solution(chosen, prefixCost, value, true);
+        }
+
+        int coreStart = Math.max(0, breakAt - coreSize / 2);
+        int coreEnd = Math.min(n, coreStart + coreSize);
+        long fixedCost = 0;
+        double fixedValue = 0;
+        for (int k = 0; k < coreStart; k++) {
+            fixedCost += costs[order[k]];
+            fixedValue += values[order[k]];
+        }
+
+        // Greedy fill of the core is the incumbent the search has to beat
+        boolean[] greedyCore = new boolean[coreEnd - coreStart];
+        long greedyCost = fixedCost;
+        double greedyValue = fixedValue;
+        for (int k = coreStart; k < coreEnd; k++) {
+            if (greedyCost + costs[order[k]] <= budget) {
+                greedyCore[k - coreStart] = true;
+                greedyCost += costs[order[k]];
+                greedyValue += values[order[k]];
+            }
+        }
+        bestValue = greedyValue - fixedValue;
+        bestCore = greedyCore;
+
+        pool.invoke(new Branch(coreStart, coreEnd, coreStart, budget - fixedCost, 0,
+                new boolean[coreEnd - coreStart], 0));
+
+        // A better core can leave less room for the sparser items than greedy did
+        Solution searched = assemble(bestCore, coreStart, coreEnd);
+        Solution greedy = assemble(greedyCore, coreStart, coreEnd);
+        Solution best = greedy.totalValue() > searched.totalValue() ? greedy : searched;
+        return new Solution(best.chosen(), best.totalCost(), best.totalValue(), !timedOut);
+    }
+
+    // Items denser than the core, the chosen core items, then sparser items while they fit
+    private Solution assemble(boolean[] core, int coreStart, int coreEnd) {
+        int n = order.length;
+        boolean[] chosen = new boolean[costs.length];
+        long totalCost = 0;
+        double totalValue = 0;
+        for (int k = 0; k < coreEnd; k++) {
+            if (k < coreStart || core[k - coreStart]) {
+                chosen[order[k]] = true;
+                totalCost += costs[order[k]];
+                totalValue += values[order[k]];
+            }
+        }
+        // Anything sparser that still fits goes into what is left
+        for (int k = coreEnd; k < n; k++) {
+            if (totalCost + costs[order[k]] <= budget) {
+                chosen[order[k]] = true;
+                totalCost += costs[order[k]];
+                totalValue += values[order[k]];
+            }
+        }
+        return new Solution(chosen, totalCost, totalValue, false);
+    }
+
+    private synchronized double best() {
+        return bestValue;
+    }
+
+    private synchronized void offer(double value, boolean[] core) {
+        if (value > bestValue) {
+            bestValue = value;
+            bestCore = core.clone();
+        }
+    }
+
+    /**
+     * Search below one node: items before k of the core are decided in taken.
+     */
+    private final class Branch extends RecursiveAction {
+        private final int coreStart;
+        private final int coreEnd;
+        private final int k;
+        private final long remaining;
+        private final double value;
+        private final boolean[] taken;
+        private final int depth;
+        private int nodes;
+
+        Branch(int coreStart, int coreEnd, int k, long remaining, double value, boolean[] taken, int depth) {
+            this.coreStart = coreStart;
+            this.coreEnd = coreEnd;
+            this.k = k;
+            this.remaining = remaining;
+            this.value = value;
+            this.taken = taken;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth < SPLIT_DEPTH && k < coreEnd) {
+                if (bound(k, remaining, value) <= best()) {
+                    return;
+                }
+                int item = order[k];
+                Branch without = new Branch(coreStart, coreEnd, k + 1, remaining, value, taken.clone(), depth + 1);
+                if (costs[item] <= remaining) {
+                    boolean[] with = taken.clone();
+                    with[k - coreStart] = true;
+                    invokeAll(new Branch(coreStart, coreEnd, k + 1, remaining - costs[item], value + values[item],
+                            with, depth + 1), without);
+                } else {
+                    without.compute();
+                }
+                return;
+            }
+            search(k, remaining, value);
+        }
+
+        // Sequential depth-first search, denser item taken first
+        private void search(int at, long left, double current) {
+            if (timedOut || (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos)) {
+                timedOut = true;
+                return;
+            }
+            if (at == coreEnd) {
+                offer(current, taken);
+                return;
+            }
+            if (bound(at, left, current) <= best()) {
+                return;
+            }
+            int item = order[at];
+            if (costs[item] <= left) {
+                taken[at - coreStart] = true;
+                search(at + 1, left - costs[item], current + values[item]);
+                taken[at - coreStart] = false;
+            }
+            search(at + 1, left, current);
+        }
+
+        // Fractional fill of the undecided core items: nothing below can beat it
+        private double bound(int at, long left, double current) {
+            double bound = current;
+            for (int j = at; j < coreEnd; j++) {
+                int item = order[j];
+                if (costs[item] <= left) {
+                    left -= costs[item];
+                    bound += values[item];
+                } else {
+                    return bound + values[item] * ((double) left / costs[item]);
+                }
+            }
+            return bound;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.BookingRequest;
+import com.DOAP.dto.CampaignPlanDTO;
+import com.DOAP.dto.CampaignPlanRequest;
+import com.DOAP.dto.ScreenRecommendationDTO;
+import com.DOAP.entity.Booking;
+import com.DOAP.entity.Content;
+import com.DOAP.entity.Screen;
+import com.DOAP.entity.enums.ContentStatus;
+import com.DOAP.entity.enums.ScreenStatus;
+import com.DOAP.repository.BookingRepository;
+import com.DOAP.repository.ContentRepository;
+import com.DOAP.repository.ScreenRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Plans the best mix of screen hours an advertiser can buy with a budget.
+ *
+ * Candidates are the free hour slots, inside operating hours, of the screens
+ * recommended for the content, found with one booking query for all of them
+ * and priced with one batch quote. Loop screens offer one spot of whole hours
+ * that still have spots left, at its share of the loop. A slot is worth its screen's
+ * recommendation score times the demand multiplier of its hour. Each screen
+ * keeps only its best slots, then BudgetKnapsack picks the set with the most
+ * value that fits the budget within the time budget. The plan comes back as
+ * booking requests for /api/bookings/batch, which holds them all or none.
+ */
+@Service
+@Slf4j
+public class CampaignPlannerService {
+
+    private final RecommendationService recommendationService;
+    private final BookingRepository bookingRepository;
+    private final ScreenRepository screenRepository;
+    private final ContentRepository contentRepository;
+    private final PricingService pricingService;
+    private final PlatformSettingsService platformSettingsService;
+    private final CreativeProbeService creativeProbeService;
+    private final LoopInventoryService loopInventoryService;
+
+    private final long maxDays;
+    private final int defaultMaxHoursPerScreen;
+    private final int coreSize;
+    private final long timeBudgetMs;
+    private final ForkJoinPool solverPool;
+
+    public CampaignPlannerService(RecommendationService recommendationService,
+            BookingRepository bookingRepository,
+            ScreenRepository screenRepository,
+            ContentRepository contentRepository,
+            PricingService pricingService,
+            PlatformSettingsService platformSettingsService,
+            CreativeProbeService creativeProbeService,
+            LoopInventoryService loopInventoryService,
+            @Value("${planner.max-days:14}") long maxDays,
+            @Value("${planner.max-hours-per-screen:12}") int defaultMaxHoursPerScreen,
+            @Value("${planner.core-size:64}") int coreSize,
+            @Value("${planner.time-budget-ms:500}") long timeBudgetMs,
+            @Value("${planner.parallelism:0}") int parallelism) {
+        this.recommendationService = recommendationService;
+        this.bookingRepository = bookingRepository;
+        this.screenRepository = screenRepository;
+        this.contentRepository = contentRepository;
+        this.pricingService = pricingService;
+        this.platformSettingsService = platformSettingsService;
+        this.creativeProbeService = creativeProbeService;
+        this.loopInventoryService = loopInventoryService;
+        this.maxDays = maxDays;
+        this.defaultMaxHoursPerScreen = defaultMaxHoursPerScreen;
+        this.coreSize = coreSize;
+        this.timeBudgetMs = timeBudgetMs;
+        this.solverPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // spots is 1 on loop screens, null for exclusive bookings
+    private record Candidate(Screen screen, LocalDateTime start, LocalDateTime end, Integer spots, double price,
+            double value) {
+    }
+
+    public CampaignPlanDTO plan(CampaignPlanRequest request, Long advertiserId) {
+        if (request.getBudget() == null || request.getBudget() <= 0) {
+            throw new IllegalArgumentException("Budget must be positive");
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null
+                || request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) >= maxDays) {
+            throw new IllegalArgumentException("Campaign cannot be longer than " + maxDays + " days");
+        }
+
+        Content content = contentRepository.findById(request.getContentId())
+                .orElseThrow(() -> new RuntimeException("Content not found"));
+        if (!content.getUploaderId().equals(advertiserId)) {
+            throw new RuntimeException("You can only plan with your own content");
+        }
+        if (content.getStatus() != ContentStatus.APPROVED) {
+            throw new RuntimeException("Content must be APPROVED to book slots");
+        }
+
+        int maxHoursPerScreen = request.getMaxHoursPerScreen() != null && request.getMaxHoursPerScreen() > 0
+                ? request.getMaxHoursPerScreen() : defaultMaxHoursPerScreen;
+        List<Candidate> candidates = candidates(content, request.getStartDate(),
+                request.getEndDate().plusDays(1).atStartOfDay(), maxHoursPerScreen);
+
+        long[] costs = new long[candidates.size()];
+        double[] values = new double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            // Whole paise, so the budget check is exact
+            costs[i] = Math.round(candidates.get(i).price() * 100);
+            values[i] = candidates.get(i).value();
+        }
+
+        long started = System.nanoTime();
+        BudgetKnapsack.Solution solution = new BudgetKnapsack(costs, values, Math.round(request.getBudget() * 100),
+                coreSize, started + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs)).solve(solverPool);
+        long solveMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        List<Candidate> chosen = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (solution.chosen()[i]) {
+                chosen.add(candidates.get(i));
+            }
+        }
+        chosen.sort(Comparator.comparing((Candidate c) -> c.screen().getId()).thenComparing(Candidate::start));
+
+        log.info("Campaign plan for content {}: {} of {} slots, cost {} of {}, optimal {}, {} ms",
+                content.getId(), chosen.size(), candidates.size(), solution.totalCost() / 100.0,
+                request.getBudget(), solution.optimal(), solveMillis);
+
+        return CampaignPlanDTO.builder()
+                .bookings(chosen.stream().map(c -> toBookingRequest(content.getId(), c)).toList())
+                .slots(chosen.stream().map(this::toSlot).toList())
+                .budget(request.getBudget())
+                .totalCost(solution.totalCost() / 100.0)
+                .totalValue(solution.totalValue())
+                .optimal(solution.optimal())
+                .candidateSlots(candidates.size())
+                .solveMillis(solveMillis)
+                .build();
+    }
+
+    /**
+     * Free slots of the recommended screens in [from, to), best per screen
+     * first and at most maxHoursPerScreen of them.
+     */
+    private List<Candidate> candidates(Content content, LocalDate fromDate, LocalDateTime to, int maxHoursPerScreen) {
+        List<ScreenRecommendationDTO> recommendations = recommendationService.getRecommendations(content.getId())
+                .getRecommendations();
+        Map<Long, Double> scores = recommendations.stream()
+                .collect(Collectors.toMap(ScreenRecommendationDTO::getScreenId, ScreenRecommendationDTO::getScore,
+                        (a, b) -> a));
+        // The batch booking would reject these, so they never enter the plan
+        List<Screen> screens = screenRepository.findAllById(scores.keySet()).stream()
+                .filter(screen -> screen.getStatus() == ScreenStatus.ACTIVE)
+                .filter(screen -> creativeProbeService.checkScreenCompatibility(content, screen) == null)
+                .toList();
+        if (screens.isEmpty()) {
+            return List.of();
+        }
+
+        // Slots are whole multiples of an hour and never shorter than the platform minimum
+        int minimumMinutes = platformSettingsService.getSnapshot().getMinimumBookingDurationMinutes();
+        long slotMinutes = Math.max(1, (minimumMinutes + 59) / 60) * 60L;
+        LocalDateTime from = fromDate.atStartOfDay();
+        LocalDateTime earliest = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        Map<Long, List<Booking>> bookings = bookingRepository
+                .findActiveOverlapping(screens.stream().map(Screen::getId).toList(), from, to).stream()
+                .collect(Collectors.groupingBy(Booking::getScreenId));
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Screen screen : screens) {
+            List<Booking> screenBookings = bookings.getOrDefault(screen.getId(), List.of());
+            boolean loop = loopInventoryService.isLoopScreen(screen);
+            // Loop screens: spot counters decide, only exclusive bookings block the whole hour
+            int[] spotsLeft = loop
+                    ? loopInventoryService.spotsLeft(screen, from, (int) ChronoUnit.HOURS.between(from, to))
+                    : null;
+            List<LocalDateTime[]> slots = freeSlots(screen,
+                    loop ? screenBookings.stream().filter(b -> b.getSpots() == null).toList() : screenBookings,
+                    from, to, earliest, slotMinutes, spotsLeft);
+            if (slots.isEmpty()) {
+                continue;
+            }
+            LocalDateTime[] starts = slots.stream().map(slot -> slot[0]).toArray(LocalDateTime[]::new);
+            LocalDateTime[] ends = slots.stream().map(slot -> slot[1]).toArray(LocalDateTime[]::new);
+            double[] prices = pricingService.quoteAdvertiserPrices(screen, starts, ends);
+            double score = scores.get(screen.getId());
+
+            List<Candidate> own = new ArrayList<>(slots.size());
+            for (int i = 0; i < slots.size(); i++) {
+                // One spot pays its share of the loop, as createBooking charges it
+                double price = loop ? prices[i] / screen.getLoopSpots() : prices[i];
+                if (price > 0) {
+                    own.add(new Candidate(screen, starts[i], ends[i], loop ? 1 : null, price,
+                            score * pricingService.timeMultiplier(starts[i])));
+                }
+            }
+            own.stream()
+                    .sorted(Comparator.comparingDouble((Candidate c) -> c.value() / c.price()).reversed())
+                    .limit(maxHoursPerScreen)
+                    .forEach(candidates::add);
+        }
+        return candidates;
+    }
+
+    /**
+     * Slots of slotMinutes from each day's opening in [from, to) that start
+     * after earliest and overlap none of the screen's bookings, which arrive
+     * sorted by start. For loop screens spotsLeft holds the spots left per
+     * hour from from: slots then start on the hour and need a spot in every
+     * hour they cover.
+     */
+    private static List<LocalDateTime[]> freeSlots(Screen screen, List<Booking> bookings, LocalDateTime from,
+            LocalDateTime to, LocalDateTime earliest, long slotMinutes, int[] spotsLeft) {
+        List<LocalDateTime[]> slots = new ArrayList<>();
+        int next = 0;
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+            LocalDateTime close = screen.getActiveTo() != null
+                    ? day.atTime(screen.getActiveTo()) : day.plusDays(1).atStartOfDay();
+            LocalDateTime slotStart = day.atTime(screen.getActiveFrom() != null
+                    ? screen.getActiveFrom() : LocalTime.MIDNIGHT);
+            if (spotsLeft != null) {
+                slotStart = LoopInventoryService.hourAtOrAfter(slotStart);
+            }
+            for (; !slotStart.plusMinutes(slotMinutes).isAfter(close); slotStart = slotStart.plusMinutes(slotMinutes)) {
+                LocalDateTime slotEnd = slotStart.plusMinutes(slotMinutes);
+                if (slotStart.isBefore(earliest)) {
+                    continue;
+                }
+                while (next < bookings.size() && !bookings.get(next).getEndDatetime().isAfter(slotStart)) {
+                    next++;
+                }
+                if (next < bookings.size() && bookings.get(next).getStartDatetime().isBefore(slotEnd)) {
+                    continue;
+                }
+                if (spotsLeft != null && !hasSpot(spotsLeft, from, slotStart, slotEnd)) {
+                    continue;
+                }
+                slots.add(new LocalDateTime[] { slotStart, slotEnd });
+            }
+        }
+        return slots;
+    }
+
+    private static boolean hasSpot(int[] spotsLeft, LocalDateTime from, LocalDateTime slotStart,
+            LocalDateTime slotEnd) {
+        for (LocalDateTime hour = slotStart; hour.isBefore(slotEnd); hour = hour.plusHours(1)) {
+            if (spotsLeft[(int) ChronoUnit.HOURS.between(from, hour)] < 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BookingRequest toBookingRequest(Long contentId, Candidate candidate) {
+        BookingRequest request = new BookingRequest();
+        request.setScreenId(candidate.screen().getId());
+        request.setContentId(contentId);
+        request.setStartDatetime(candidate.start());
+        request.setEndDatetime(candidate.end());
+        request.setSpots(candidate.spots());
+        return request;
+    }
+
+    private CampaignPlanDTO.Slot toSlot(Candidate candidate) {
+        return CampaignPlanDTO.Slot.builder()
+                .screenId(candidate.screen().getId())
+                .screenName(candidate.screen().getScreenName())
+                .location(candidate.screen().getLocation())
+                .start(candidate.start())
+                .end(candidate.end())
+                .price(candidate.price())
+                .value(candidate.value())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        solverPool.shutdownNow();
+    }
+}
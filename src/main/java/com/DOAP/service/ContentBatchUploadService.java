@@ -0,0 +1,184 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.BatchUploadResultDTO;
+import com.DOAP.entity.Content;
+import com.DOAP.entity.enums.ContentStatus;
+import com.DOAP.repository.ContentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-file upload for campaign packs.
+ *
+ * Every file goes through the normal ingestion path (pre-screen, dedup, S3
+ * upload, queued validation), with up to content.batch.max-parallel files in
+ * flight at once. The caller can optionally wait a few seconds for background
+ * validation so most files come back final in a single request.
+ */
+@Service
+@Slf4j
+public class ContentBatchUploadService {
+
+    private final ContentIngestionService contentIngestionService;
+    private final ContentService contentService;
+    private final ContentRepository contentRepository;
+
+    private final int maxFiles;
+    private final int maxParallel;
+    private final long maxWaitSeconds;
+
+    private final ExecutorService uploaders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ContentBatchUploadService(ContentIngestionService contentIngestionService,
+            ContentService contentService,
+            ContentRepository contentRepository,
+            @Value("${content.batch.max-files:50}") int maxFiles,
+            @Value("${content.batch.max-parallel:8}") int maxParallel,
+            @Value("${content.batch.max-wait-seconds:60}") long maxWaitSeconds) {
+        this.contentIngestionService = contentIngestionService;
+        this.contentService = contentService;
+        this.contentRepository = contentRepository;
+        this.maxFiles = maxFiles;
+        this.maxParallel = maxParallel;
+        this.maxWaitSeconds = maxWaitSeconds;
+    }
+
+    public BatchUploadResultDTO uploadBatch(List<MultipartFile> files, Long uploaderId, long waitSeconds)
+            throws InterruptedException {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No files provided");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("A batch can contain at most " + maxFiles + " files");
+        }
+
+        long start = System.nanoTime();
+
+        // 1. Fan out uploads, bounded per batch
+        Semaphore permits = new Semaphore(maxParallel);
+        List<Future<BatchUploadResultDTO.FileResult>> uploads = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            uploads.add(uploaders.submit(() -> {
+                permits.acquire();
+                try {
+                    return submitOne(file, uploaderId);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<BatchUploadResultDTO.FileResult> results = new ArrayList<>(files.size());
+        for (int i = 0; i < uploads.size(); i++) {
+            try {
+                results.add(uploads.get(i).get());
+            } catch (ExecutionException e) {
+                results.add(rejected(files.get(i).getOriginalFilename(), "Upload failed: " + e.getCause().getMessage()));
+            }
+        }
+
+        // 2. Optionally wait for background validation of the pending files
+        long wait = Math.min(Math.max(0, waitSeconds), maxWaitSeconds);
+        if (wait > 0) {
+            awaitValidation(results, wait);
+        }
+
+        return BatchUploadResultDTO.builder()
+                .accepted(count(results, "ACCEPTED"))
+                .rejected(count(results, "REJECTED"))
+                .pending(count(results, "PENDING"))
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .files(results)
+                .build();
+    }
+
+    private BatchUploadResultDTO.FileResult submitOne(MultipartFile file, Long uploaderId) {
+        try {
+            return toResult(file.getOriginalFilename(), contentIngestionService.submit(file, uploaderId));
+        } catch (ContentService.ContentRejectedException e) {
+            return rejected(file.getOriginalFilename(), e.getMessage());
+        } catch (Exception e) {
+            log.warn("Batch upload of {} failed", file.getOriginalFilename(), e);
+            return rejected(file.getOriginalFilename(), "Upload failed: " + e.getMessage());
+        }
+    }
+
+    private void awaitValidation(List<BatchUploadResultDTO.FileResult> results, long waitSeconds)
+            throws InterruptedException {
+        List<Long> pendingIds = results.stream()
+                .filter(result -> "PENDING".equals(result.getResult()))
+                .map(BatchUploadResultDTO.FileResult::getContentId)
+                .toList();
+        if (pendingIds.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<?>[] waiters = pendingIds.stream()
+                .map(contentIngestionService::whenFinished)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(waiters).get(waitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Report whatever has finished, the rest stay PENDING
+        }
+
+        Map<Long, Content> refreshed = contentRepository.findAllById(pendingIds).stream()
+                .collect(Collectors.toMap(Content::getId, Function.identity()));
+        for (int i = 0; i < results.size(); i++) {
+            BatchUploadResultDTO.FileResult result = results.get(i);
+            Content content = result.getContentId() != null ? refreshed.get(result.getContentId()) : null;
+            if (content != null) {
+                results.set(i, toResult(result.getFileName(), content));
+            }
+        }
+    }
+
+    private BatchUploadResultDTO.FileResult toResult(String fileName, Content content) {
+        BatchUploadResultDTO.FileResult.FileResultBuilder result = BatchUploadResultDTO.FileResult.builder()
+                .fileName(fileName)
+                .contentId(content.getId())
+                .contentStatus(content.getStatus());
+
+        if (content.getStatus() == ContentStatus.APPROVED) {
+            return result.result("ACCEPTED").s3Url(contentService.withSignedUrl(content).getS3Url()).build();
+        }
+        if (content.getStatus() == ContentStatus.REJECTED) {
+            return result.result("REJECTED").reason(content.getValidationDetails()).build();
+        }
+        return result.result("PENDING").build();
+    }
+
+    private static BatchUploadResultDTO.FileResult rejected(String fileName, String reason) {
+        return BatchUploadResultDTO.FileResult.builder()
+                .fileName(fileName)
+                .result("REJECTED")
+                .reason(reason)
+                .build();
+    }
+
+    private static int count(List<BatchUploadResultDTO.FileResult> results, String result) {
+        return (int) results.stream().filter(r -> result.equals(r.getResult())).count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploaders.shutdownNow();
+    }
+}
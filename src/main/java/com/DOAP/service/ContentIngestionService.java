@@ -0,0 +1,663 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.ContentIngestionStatusDTO;
+import com.DOAP.entity.Content;
+import com.DOAP.entity.ContentIngestionJob;
+import com.DOAP.entity.enums.ContentStatus;
+import com.DOAP.entity.enums.ContentType;
+import com.DOAP.entity.enums.IngestionJobStatus;
+import com.DOAP.repository.ContentIngestionJobRepository;
+import com.DOAP.repository.ContentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous content ingestion pipeline.
+ *
+ * Upload requests only stream the file to S3 and record a PENDING_VALIDATION
+ * content row plus a durable job. New uploads are written once, straight into
+ * the approved bucket with a pending validation tag, so promotion is a tag
+ * update rather than a copy. Validation, promotion and persistence run on a
+ * bounded worker pool, with
+ * retries and per-stage timings recorded on the job row. Video moderation is
+ * handed to VideoModerationTracker so no worker waits on Rekognition.
+ */
+@Service
+@Slf4j
+public class ContentIngestionService {
+
+    private static final long SSE_TIMEOUT_MS = 10 * 60 * 1000L;
+    private static final long RETRY_BASE_DELAY_SECONDS = 10;
+    private static final long THROTTLE_MAX_DELAY_SECONDS = 300;
+    private static final String VALIDATION_TAG = "validation";
+
+    private final S3Service s3Service;
+    private final S3PresignService s3PresignService;
+    private final ContentService contentService;
+    private final ContentRepository contentRepository;
+    private final ContentIngestionJobRepository jobRepository;
+    private final VideoModerationTracker videoModerationTracker;
+    private final ImageRenditionService imageRenditionService;
+    private final CreativeProbeService creativeProbeService;
+    private final ContentPreScreenService contentPreScreenService;
+
+    private final String tempBucket;
+    private final String approvedBucket;
+    private final int maxAttempts;
+    private final long staleJobMinutes;
+    private final long throttleDeadlineMinutes;
+
+    private final ThreadPoolExecutor workers;
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Waiter> completionWaiters = new ConcurrentHashMap<>();
+
+    private record Waiter(CompletableFuture<Void> finished, LocalDateTime registeredAt) {
+    }
+
+    public ContentIngestionService(S3Service s3Service,
+            S3PresignService s3PresignService,
+            ContentService contentService,
+            ContentRepository contentRepository,
+            ContentIngestionJobRepository jobRepository,
+            VideoModerationTracker videoModerationTracker,
+            ImageRenditionService imageRenditionService,
+            CreativeProbeService creativeProbeService,
+            ContentPreScreenService contentPreScreenService,
+            @Value("${aws.s3.bucket.temp}") String tempBucket,
+            @Value("${aws.s3.bucket.approved}") String approvedBucket,
+            @Value("${content.ingestion.workers:4}") int workerCount,
+            @Value("${content.ingestion.queue-capacity:32}") int queueCapacity,
+            @Value("${content.ingestion.max-attempts:3}") int maxAttempts,
+            @Value("${content.ingestion.stale-job-minutes:15}") long staleJobMinutes,
+            @Value("${content.ingestion.throttle-deadline-minutes:60}") long throttleDeadlineMinutes) {
+        this.s3Service = s3Service;
+        this.s3PresignService = s3PresignService;
+        this.contentService = contentService;
+        this.contentRepository = contentRepository;
+        this.jobRepository = jobRepository;
+        this.videoModerationTracker = videoModerationTracker;
+        this.imageRenditionService = imageRenditionService;
+        this.creativeProbeService = creativeProbeService;
+        this.contentPreScreenService = contentPreScreenService;
+        this.tempBucket = tempBucket;
+        this.approvedBucket = approvedBucket;
+        this.maxAttempts = maxAttempts;
+        this.staleJobMinutes = staleJobMinutes;
+        this.throttleDeadlineMinutes = throttleDeadlineMinutes;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "content-ingest-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Accepts an upload: stores the file in the approved bucket tagged as
+     * pending, records the content as PENDING_VALIDATION and queues it for
+     * validation. Returns immediately.
+     *
+     * A file whose SHA-256 matches already approved content skips the upload and
+     * validation entirely and is approved with the cached results.
+     */
+    public Content submit(MultipartFile file, Long uploaderId) throws IOException {
+        String originalFilename = file.getOriginalFilename();
+        String extension = originalFilename != null && originalFilename.contains(".")
+                ? originalFilename.substring(originalFilename.lastIndexOf("."))
+                : "";
+
+        String key = UUID.randomUUID() + extension;
+        ContentType contentType = contentService.determineContentType(originalFilename);
+
+        // 0a. Local pre-screen: signature, size and dimension checks before any remote call
+        CreativeProbeService.ProbeResult probe = contentPreScreenService.screen(file, contentType);
+
+        // 0b. Hash the spooled upload and reuse an identical approved creative. This is a local
+        // re-read of the spool file: the digest has to be known before the S3 upload it may skip
+        long hashStart = System.nanoTime();
+        String contentHash = sha256Hex(file);
+        Content duplicate = contentService.approveFromDuplicate(contentHash, uploaderId).orElse(null);
+        if (duplicate != null) {
+            log.info("Upload matched existing content by hash in {}ms", elapsedMs(hashStart));
+            return duplicate;
+        }
+
+        // 1. Single write to the APPROVED bucket, tagged pending until validated
+        long uploadStart = System.nanoTime();
+        s3Service.uploadFile(approvedBucket, key, file, VALIDATION_TAG + "=pending");
+        long uploadMs = elapsedMs(uploadStart);
+
+        // 2. Record content + durable job
+        Content savedContent;
+        try {
+            Content content = Content.builder()
+                    .s3Key(key)
+                    .s3Url(s3Service.generateUrl(approvedBucket, key))
+                    .contentType(contentType)
+                    .fileSizeBytes(file.getSize())
+                    .contentHash(contentHash)
+                    .width(probe.getWidth())
+                    .height(probe.getHeight())
+                    .durationMicros(probe.getDurationMicros())
+                    .codec(probe.getCodec())
+                    .status(ContentStatus.PENDING_VALIDATION)
+                    .uploaderId(uploaderId)
+                    .validationDetails("Queued for AI validation")
+                    .build();
+            savedContent = contentRepository.save(content);
+
+            jobRepository.save(ContentIngestionJob.builder()
+                    .contentId(savedContent.getId())
+                    .s3Key(key)
+                    .s3Bucket(approvedBucket)
+                    .contentType(contentType)
+                    .status(IngestionJobStatus.QUEUED)
+                    .currentStage("QUEUED")
+                    .nextAttemptAt(LocalDateTime.now())
+                    .stageTimings("UPLOAD=" + uploadMs + "ms")
+                    .build());
+        } catch (RuntimeException ex) {
+            log.error("Failed to record upload {}", key, ex);
+            contentService.cleanupSilently(approvedBucket, key);
+            throw new RuntimeException("Upload failed due to server error");
+        }
+
+        // 3. Hand off to workers without waiting for the next poll
+        dispatchDueJobs();
+        return savedContent;
+    }
+
+    /**
+     * Claims due jobs up to the free worker queue capacity and submits them.
+     * The conditional claim makes this safe to run on several nodes.
+     */
+    @Scheduled(fixedDelayString = "${content.ingestion.poll-interval-ms:2000}")
+    public void dispatchDueJobs() {
+        int capacity = workers.getQueue().remainingCapacity();
+        if (capacity <= 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ContentIngestionJob> dueJobs = jobRepository.findDueJobs(now, PageRequest.of(0, capacity));
+        for (ContentIngestionJob job : dueJobs) {
+            if (jobRepository.claim(job.getId(), now) == 0) {
+                continue; // Another worker got it
+            }
+            try {
+                workers.execute(() -> process(job.getId()));
+            } catch (RejectedExecutionException e) {
+                log.warn("Ingestion workers saturated, re-queueing job {}", job.getId());
+                requeue(job.getId(), now, null);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000) // Run every 60 seconds
+    public void recoverStaleJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int recovered = jobRepository.requeueStaleJobs(now.minusMinutes(staleJobMinutes), now);
+        if (recovered > 0) {
+            log.warn("Re-queued {} stale ingestion jobs", recovered);
+        }
+    }
+
+    private static String sha256Hex(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = file.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // ================= PIPELINE =================
+
+    private void process(Long jobId) {
+        ContentIngestionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        if (contentDeleted(job)) {
+            return;
+        }
+
+        StringBuilder timings = new StringBuilder(job.getStageTimings() != null ? job.getStageTimings() : "");
+
+        try {
+            // A. Header probe: dimensions, duration and codec via ranged reads
+            long stageStart = startStage(job, "PROBE");
+            probe(job);
+            recordTiming(timings, "PROBE", stageStart);
+
+            // B. AI validation
+            stageStart = startStage(job, "VALIDATE");
+            if (job.getContentType() == ContentType.VIDEO) {
+                awaitVideoModeration(job, timings, stageStart);
+                return; // Worker is released, the tracker resumes the pipeline
+            }
+
+            ContentService.ValidationResult result = contentService.validateImage(uploadBucket(job), job.getS3Key());
+            recordTiming(timings, "VALIDATE", stageStart);
+
+            promoteAndPersist(job, timings, result);
+        } catch (Exception ex) {
+            handleFailure(job, timings, ex);
+        }
+    }
+
+    /**
+     * Starts Rekognition video moderation and hands the job to the shared
+     * tracker. The rest of the pipeline runs on the workers when the tracker
+     * completes. A job requeued while waiting (restart, full worker queue)
+     * re-tracks the moderation job it already started.
+     */
+    private void awaitVideoModeration(ContentIngestionJob job, StringBuilder timings, long stageStart) {
+        String moderationJobId = job.getExternalJobId();
+        if (moderationJobId == null) {
+            moderationJobId = contentService.startVideoModeration(uploadBucket(job), job.getS3Key());
+            job.setExternalJobId(moderationJobId);
+        }
+        job.setCurrentStage("AWAIT_MODERATION");
+        jobRepository.save(job);
+
+        videoModerationTracker.track(moderationJobId).whenCompleteAsync((detections, error) -> {
+            try {
+                if (error != null) {
+                    // Failed or timed out: the next attempt starts a new moderation job
+                    job.setExternalJobId(null);
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+                }
+                if (contentDeleted(job)) {
+                    return;
+                }
+                ContentService.ValidationResult result = contentService.evaluateVideoModeration(detections);
+                recordTiming(timings, "VALIDATE", stageStart);
+
+                promoteAndPersist(job, timings, result);
+            } catch (Exception ex) {
+                handleFailure(job, timings, ex);
+            }
+        }, resumeOnWorkers(job));
+    }
+
+    // Keeps the pipeline off the tracker's poller and timer threads. With the worker queue
+    // full the job goes back to the dispatcher without spending an attempt
+    private Executor resumeOnWorkers(ContentIngestionJob job) {
+        return task -> {
+            try {
+                workers.execute(task);
+            } catch (RejectedExecutionException e) {
+                log.warn("Worker queue full, requeueing ingestion job {} to resume moderation", job.getId());
+                job.setAttempts(Math.max(0, job.getAttempts() - 1));
+                job.setStatus(IngestionJobStatus.QUEUED);
+                job.setNextAttemptAt(LocalDateTime.now().plusSeconds(RETRY_BASE_DELAY_SECONDS));
+                jobRepository.save(job);
+            }
+        };
+    }
+
+    private void promoteAndPersist(ContentIngestionJob job, StringBuilder timings,
+            ContentService.ValidationResult result) {
+        String key = job.getS3Key();
+
+        // C. Promote: flip the tag in place, or move legacy temp bucket uploads
+        long stageStart = startStage(job, "PROMOTE");
+        if (approvedBucket.equals(uploadBucket(job))) {
+            s3Service.tagObject(approvedBucket, key, VALIDATION_TAG, "approved");
+        } else {
+            s3Service.copyFile(tempBucket, key, approvedBucket, key);
+            s3Service.deleteFile(tempBucket, key);
+        }
+        recordTiming(timings, "PROMOTE", stageStart);
+
+        // D. Save to DB
+        stageStart = startStage(job, "PERSIST");
+        contentService.approveContent(job.getContentId(), result);
+        recordTiming(timings, "PERSIST", stageStart);
+
+        // E. Screen renditions + thumbnail. Best effort, the original is always served as a fallback
+        if (job.getContentType() == ContentType.IMAGE) {
+            stageStart = startStage(job, "RENDITIONS");
+            try {
+                imageRenditionService.generate(key);
+            } catch (Exception e) {
+                log.warn("Rendition generation failed for {}: {}", key, e.getMessage());
+            }
+            recordTiming(timings, "RENDITIONS", stageStart);
+        }
+
+        job.setStageTimings(timings.toString());
+        finish(job, IngestionJobStatus.SUCCEEDED, null);
+        log.info("Content {} approved [{}]", job.getContentId(), timings);
+    }
+
+    // Best effort: an unprobed creative is simply not checked against screens at booking time.
+    // Uploads that passed the local pre-screen already carry their probe.
+    private void probe(ContentIngestionJob job) {
+        Content content = contentRepository.findById(job.getContentId()).orElse(null);
+        if (content == null || content.getWidth() != null) {
+            return;
+        }
+        try {
+            CreativeProbeService.ProbeResult result = creativeProbeService.probe(uploadBucket(job), job.getS3Key());
+            content.setWidth(result.getWidth());
+            content.setHeight(result.getHeight());
+            content.setDurationMicros(result.getDurationMicros());
+            content.setCodec(result.getCodec());
+            contentRepository.save(content);
+        } catch (Exception e) {
+            log.warn("Could not probe {}: {}", job.getS3Key(), e.getMessage());
+        }
+    }
+
+    private void handleFailure(ContentIngestionJob job, StringBuilder timings, Exception ex) {
+        job.setStageTimings(timings.toString());
+
+        if (ex instanceof ContentService.ContentRejectedException) {
+            log.warn("Content {} rejected: {}", job.getContentId(), ex.getMessage());
+            contentService.cleanupSilently(uploadBucket(job), job.getS3Key());
+            contentService.rejectContent(job.getContentId(), ex.getMessage());
+            finish(job, IngestionJobStatus.FAILED, ex.getMessage());
+            return;
+        }
+
+        String error = job.getCurrentStage() + ": " + ex.getMessage();
+
+        if (ex instanceof InterruptedException || ex instanceof CancellationException) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            requeue(job.getId(), LocalDateTime.now(), error);
+            return;
+        }
+
+        // Throttling says nothing about the upload: requeue without spending an attempt,
+        // until the job has been waiting longer than the throttle deadline
+        if (isThrottled(ex) && job.getCreatedAt() != null
+                && job.getCreatedAt().plusMinutes(throttleDeadlineMinutes).isAfter(LocalDateTime.now())) {
+            long waitedSeconds = java.time.Duration.between(job.getCreatedAt(), LocalDateTime.now()).toSeconds();
+            // Grows with the length of the burst: half the time waited so far, 10s to 5min, with jitter
+            long delaySeconds = Math.min(THROTTLE_MAX_DELAY_SECONDS,
+                    Math.max(RETRY_BASE_DELAY_SECONDS, waitedSeconds / 2));
+            delaySeconds += java.util.concurrent.ThreadLocalRandom.current().nextLong(delaySeconds / 4 + 1);
+            log.warn("Ingestion job {} throttled by Rekognition ({}), retrying in {}s", job.getId(), error,
+                    delaySeconds);
+            job.setAttempts(Math.max(0, job.getAttempts() - 1));
+            job.setStatus(IngestionJobStatus.QUEUED);
+            job.setNextAttemptAt(LocalDateTime.now().plusSeconds(delaySeconds));
+            job.setLastError(error);
+            jobRepository.save(job);
+            return;
+        }
+
+        if (job.getAttempts() >= maxAttempts) {
+            log.error("Ingestion job {} failed after {} attempts", job.getId(), job.getAttempts(), ex);
+            contentService.cleanupSilently(uploadBucket(job), job.getS3Key());
+            contentService.rejectContent(job.getContentId(), "Validation failed after " + job.getAttempts()
+                    + " attempts, please upload again");
+            finish(job, IngestionJobStatus.FAILED, error);
+            return;
+        }
+
+        // Exponential backoff: 10s, 20s, 40s...
+        long delaySeconds = RETRY_BASE_DELAY_SECONDS << Math.max(0, job.getAttempts() - 1);
+        log.warn("Ingestion job {} attempt {} failed ({}), retrying in {}s", job.getId(), job.getAttempts(),
+                error, delaySeconds);
+        job.setStatus(IngestionJobStatus.QUEUED);
+        job.setNextAttemptAt(LocalDateTime.now().plusSeconds(delaySeconds));
+        job.setLastError(error);
+        jobRepository.save(job);
+    }
+
+    private static boolean isThrottled(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RekognitionThrottle.RekognitionThrottledException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Deleted by the advertiser while queued or in moderation. deleteContents removes the job
+    // row and queues the S3 object with the content; this catches a job loaded before that
+    // commit, which saving would otherwise write back
+    private boolean contentDeleted(ContentIngestionJob job) {
+        if (contentRepository.existsById(job.getContentId())) {
+            return false;
+        }
+        log.info("Content {} was deleted, dropping ingestion job {}", job.getContentId(), job.getId());
+        jobRepository.delete(job);
+        notifySubscribers(job.getContentId());
+        return true;
+    }
+
+    // Jobs recorded before single-write placement have no bucket and live in temp
+    private String uploadBucket(ContentIngestionJob job) {
+        return job.getS3Bucket() != null ? job.getS3Bucket() : tempBucket;
+    }
+
+    private void requeue(Long jobId, LocalDateTime nextAttemptAt, String error) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(IngestionJobStatus.QUEUED);
+            job.setNextAttemptAt(nextAttemptAt);
+            if (error != null) {
+                job.setLastError(error);
+            }
+            jobRepository.save(job);
+        });
+    }
+
+    private long startStage(ContentIngestionJob job, String stage) {
+        job.setCurrentStage(stage);
+        jobRepository.save(job);
+        return System.nanoTime();
+    }
+
+    private void finish(ContentIngestionJob job, IngestionJobStatus status, String error) {
+        job.setStatus(status);
+        job.setCurrentStage(status.name());
+        job.setCompletedAt(LocalDateTime.now());
+        job.setLastError(error);
+        jobRepository.save(job);
+        notifySubscribers(job.getContentId());
+    }
+
+    private static void recordTiming(StringBuilder timings, String stage, long stageStart) {
+        if (timings.length() > 0) {
+            timings.append(", ");
+        }
+        timings.append(stage).append('=').append(elapsedMs(stageStart)).append("ms");
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    // ================= STATUS / SUBSCRIPTIONS =================
+
+    public ContentIngestionStatusDTO getStatus(Long contentId, Long userId) {
+        Content content = contentRepository.findById(contentId)
+                .orElseThrow(() -> new RuntimeException("Content not found"));
+
+        if (!content.getUploaderId().equals(userId)) {
+            throw new RuntimeException("Unauthorized: You do not own this content");
+        }
+
+        ContentIngestionJob job = jobRepository.findByContentId(contentId).orElse(null);
+
+        return ContentIngestionStatusDTO.builder()
+                .contentId(content.getId())
+                .contentStatus(content.getStatus())
+                .validationDetails(content.getValidationDetails())
+                .s3Url(content.getStatus() == ContentStatus.APPROVED
+                        ? s3PresignService.presignApproved(content.getS3Key())
+                        : null)
+                .jobStatus(job != null ? job.getStatus() : null)
+                .currentStage(job != null ? job.getCurrentStage() : null)
+                .attempts(job != null ? job.getAttempts() : null)
+                .lastError(job != null ? job.getLastError() : null)
+                .stageTimings(job != null ? job.getStageTimings() : null)
+                .build();
+    }
+
+    /**
+     * Server-sent events stream that emits one "status" event when validation
+     * finishes, then completes. Driven by whenFinished, so it also completes
+     * for jobs that finish on another node.
+     */
+    public SseEmitter subscribe(Long contentId, Long userId) {
+        getStatus(contentId, userId); // Ownership check
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+
+        // Registered before whenFinished checks the status, so a job finishing in between
+        // still reaches this emitter. compute is atomic with the remove in sendToSubscribers
+        List<SseEmitter> emitters = subscribers.compute(contentId, (id, current) -> {
+            List<SseEmitter> list = current != null ? current : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        Runnable remove = () -> emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        whenFinished(contentId).thenRun(() -> sendToSubscribers(contentId));
+        return emitter;
+    }
+
+    /**
+     * Completes when validation of the content finishes (or right away if it
+     * already has). A job finished on this node completes it at once; one
+     * finished on another node is picked up by the status poll below.
+     */
+    public CompletableFuture<Void> whenFinished(Long contentId) {
+        Waiter waiter = completionWaiters.computeIfAbsent(contentId,
+                id -> new Waiter(new CompletableFuture<>(), LocalDateTime.now()));
+        // Covers a job that finished before the waiter was registered
+        boolean pending = contentRepository.findById(contentId)
+                .map(content -> content.getStatus() == ContentStatus.PENDING_VALIDATION)
+                .orElse(false);
+        if (!pending) {
+            completionWaiters.remove(contentId, waiter);
+            waiter.finished().complete(null);
+        }
+        return waiter.finished();
+    }
+
+    /**
+     * Completes waiters whose content is no longer pending, whichever node
+     * validated it, and drops waiters older than the stale job limit, whose
+     * callers have long since timed out. Keeps completionWaiters bounded.
+     */
+    @Scheduled(fixedDelayString = "${content.ingestion.waiter-poll-interval-ms:5000}")
+    public void pollCompletionWaiters() {
+        if (completionWaiters.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, ContentStatus> statuses = new java.util.HashMap<>();
+            contentRepository.findAllById(List.copyOf(completionWaiters.keySet()))
+                    .forEach(content -> statuses.put(content.getId(), content.getStatus()));
+
+            LocalDateTime expiry = LocalDateTime.now().minusMinutes(staleJobMinutes);
+            completionWaiters.forEach((contentId, waiter) -> {
+                // Deleted content has no status and finishes too
+                boolean finished = statuses.get(contentId) != ContentStatus.PENDING_VALIDATION;
+                if ((finished || waiter.registeredAt().isBefore(expiry))
+                        && completionWaiters.remove(contentId, waiter)) {
+                    waiter.finished().complete(null);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Polling completion waiters failed: {}", e.getMessage());
+        }
+    }
+
+    // Subscribers hang off the waiter, so this also reaches SSE streams
+    private void notifySubscribers(Long contentId) {
+        Waiter waiter = completionWaiters.remove(contentId);
+        if (waiter != null) {
+            waiter.finished().complete(null);
+        }
+    }
+
+    private void sendToSubscribers(Long contentId) {
+        List<SseEmitter> emitters = subscribers.remove(contentId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        try {
+            Content content = contentRepository.findById(contentId).orElse(null);
+            if (content == null) {
+                // Deleted while pending: nothing left to report
+                emitters.forEach(SseEmitter::complete);
+                return;
+            }
+            ContentIngestionStatusDTO status = getStatus(contentId, content.getUploaderId());
+            emitters.forEach(emitter -> sendAndComplete(emitter, status));
+        } catch (Exception e) {
+            log.warn("Could not send status of content {}: {}", contentId, e.getMessage());
+            emitters.forEach(emitter -> emitter.completeWithError(e));
+        }
+    }
+
+    private void sendAndComplete(SseEmitter emitter, ContentIngestionStatusDTO status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Jobs still running are picked up again by recoverStaleJobs on restart
+        workers.shutdownNow();
+    }
+}
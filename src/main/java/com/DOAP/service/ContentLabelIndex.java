@@ -0,0 +1,217 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.AdVisionMetadata;
+import com.DOAP.entity.ContentLabel;
+import com.DOAP.repository.AdVisionMetadataRepository;
+import com.DOAP.repository.ContentLabelRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalised vision labels of content: a (content_id, label, confidence) table
+ * and an in-memory map of each content id to its labels.
+ *
+ * Labels are parsed once when content is approved and stored as rows, so label
+ * queries and recommendation features never parse the TEXT column. Label
+ * queries run against the indexed table. Writes reach the map after their
+ * transaction commits. Until the first load, and for content the map does not
+ * hold, reads go to the table. Metadata stored before the table existed is
+ * backfilled on the first reconcile.
+ */
+@Service
+@Slf4j
+public class ContentLabelIndex {
+
+    private static final int BACKFILL_PAGE_SIZE = 500;
+
+    // "Food(93.2%)", as written by ContentService; the decimal separator follows the server locale
+    private static final Pattern LABEL = Pattern.compile("([^,(]+?)\\s*\\(\\s*([0-9]+(?:[.,][0-9]+)?)\\s*%\\s*\\)");
+
+    public record DetectedLabel(String label, double confidence) {
+    }
+
+    private final ContentLabelRepository contentLabelRepository;
+    private final AdVisionMetadataRepository adVisionMetadataRepository;
+
+    private volatile Map<Long, List<DetectedLabel>> labelsByContent = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile boolean backfilled;
+
+    public ContentLabelIndex(ContentLabelRepository contentLabelRepository,
+            AdVisionMetadataRepository adVisionMetadataRepository) {
+        this.contentLabelRepository = contentLabelRepository;
+        this.adVisionMetadataRepository = adVisionMetadataRepository;
+    }
+
+    // ================= QUERIES =================
+
+    /**
+     * Labels of one content item, highest confidence first.
+     */
+    public List<DetectedLabel> labelsOf(Long contentId) {
+        if (loaded) {
+            List<DetectedLabel> labels = labelsByContent.get(contentId);
+            if (labels != null) {
+                return labels;
+            }
+        }
+        // Not loaded yet, or stored on another node since the last reconcile
+        return contentLabelRepository.findByContentIdOrderByConfidenceDesc(contentId).stream()
+                .map(row -> new DetectedLabel(row.getLabel(), row.getConfidence()))
+                .toList();
+    }
+
+    // ================= WRITES =================
+
+    /**
+     * Parses and stores the labels of a content item in the caller's
+     * transaction.
+     */
+    public void store(Long contentId, String detectedLabels) {
+        store(contentId, parse(detectedLabels));
+    }
+
+    public void store(Long contentId, List<DetectedLabel> labels) {
+        if (labels.isEmpty()) {
+            return;
+        }
+        contentLabelRepository.saveAll(labels.stream()
+                .map(label -> ContentLabel.builder()
+                        .contentId(contentId)
+                        .label(label.label())
+                        .confidence(label.confidence())
+                        .build())
+                .toList());
+        afterCommit(() -> index(contentId, labels));
+    }
+
+    /**
+     * Deletes the labels of the given content in the caller's transaction.
+     */
+    public void delete(Collection<Long> contentIds) {
+        contentLabelRepository.deleteByContentIds(contentIds);
+        List<Long> ids = List.copyOf(contentIds);
+        afterCommit(() -> ids.forEach(this::unindex));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private synchronized void index(Long contentId, List<DetectedLabel> labels) {
+        labelsByContent.put(contentId, labels.stream()
+                .sorted(Comparator.comparingDouble(DetectedLabel::confidence).reversed())
+                .toList());
+    }
+
+    private synchronized void unindex(Long contentId) {
+        labelsByContent.remove(contentId);
+    }
+
+    // ================= LOADING =================
+
+    @Scheduled(fixedDelayString = "${content.labels.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        try {
+            if (!backfilled) {
+                backfill();
+                backfilled = true;
+            }
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Content label index reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads the whole index from the table.
+     */
+    public synchronized void rebuild() {
+        Map<Long, List<DetectedLabel>> byContent = new HashMap<>();
+        // Built aside and swapped in, so readers never see a half-loaded index
+        for (ContentLabel row : contentLabelRepository.findAll()) {
+            byContent.computeIfAbsent(row.getContentId(), id -> new ArrayList<>())
+                    .add(new DetectedLabel(row.getLabel(), row.getConfidence()));
+        }
+
+        Map<Long, List<DetectedLabel>> loadedLabels = new ConcurrentHashMap<>();
+        byContent.forEach((contentId, labels) -> loadedLabels.put(contentId, labels.stream()
+                .sorted(Comparator.comparingDouble(DetectedLabel::confidence).reversed())
+                .toList()));
+        labelsByContent = loadedLabels;
+        loaded = true;
+        log.info("Content label index loaded for {} content items", labelsByContent.size());
+    }
+
+    // Parses metadata stored before the label table existed
+    private void backfill() {
+        long afterId = 0;
+        int stored = 0;
+        List<AdVisionMetadata> page;
+        do {
+            page = adVisionMetadataRepository.findWithoutNormalisedLabels(afterId,
+                    PageRequest.of(0, BACKFILL_PAGE_SIZE));
+            for (AdVisionMetadata metadata : page) {
+                List<DetectedLabel> labels = parse(metadata.getDetectedLabels());
+                if (!labels.isEmpty() && !contentLabelRepository.existsByContentId(metadata.getContent().getId())) {
+                    store(metadata.getContent().getId(), labels);
+                    stored++;
+                }
+                afterId = metadata.getId();
+            }
+        } while (page.size() == BACKFILL_PAGE_SIZE);
+        if (stored > 0) {
+            log.info("Backfilled normalised labels for {} content items", stored);
+        }
+    }
+
+    /**
+     * Parses "Food(93.2%), Drink(81.0%)". Entries without a confidence ("None")
+     * are skipped; a label listed twice keeps its highest confidence.
+     */
+    public static List<DetectedLabel> parse(String detectedLabels) {
+        if (detectedLabels == null || detectedLabels.isBlank()) {
+            return List.of();
+        }
+        Map<String, DetectedLabel> labels = new LinkedHashMap<>();
+        Matcher matcher = LABEL.matcher(detectedLabels);
+        while (matcher.find()) {
+            String label = matcher.group(1).trim();
+            double confidence = Double.parseDouble(matcher.group(2).replace(',', '.'));
+            if (!label.isEmpty()) {
+                labels.merge(key(label), new DetectedLabel(label, confidence),
+                        (a, b) -> a.confidence() >= b.confidence() ? a : b);
+            }
+        }
+        return List.copyOf(labels.values());
+    }
+
+    private static String key(String label) {
+        return label.trim().toLowerCase(Locale.ROOT);
+    }
+}
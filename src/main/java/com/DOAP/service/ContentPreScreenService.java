@@ -0,0 +1,157 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.PreScreenStatsDTO;
+import com.DOAP.entity.enums.ContentType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local checks run on an upload before anything is sent to S3 or Rekognition.
+ *
+ * The file signature is sniffed from its header (see CreativeProbeService) and
+ * must match the extension and a format Rekognition accepts: JPEG or PNG
+ * images, H.264 MP4/MOV videos. Size, dimension and duration limits are
+ * enforced from the same header read.
+ */
+@Service
+@Slf4j
+public class ContentPreScreenService {
+
+    private static final Set<String> IMAGE_FORMATS = Set.of("jpeg", "png"); // Rekognition image formats
+    private static final Set<String> VIDEO_CODECS = Set.of("avc1", "avc3"); // Rekognition Video needs H.264
+    private static final int REKOGNITION_CALLS_PER_IMAGE = 2; // Moderation + labels
+    private static final int REKOGNITION_CALLS_PER_VIDEO = 1;
+
+    private final CreativeProbeService creativeProbeService;
+
+    private final long maxImageBytes;
+    private final long maxVideoBytes;
+    private final int minDimension;
+    private final int maxDimension;
+    private final long maxVideoMicros;
+
+    private final LongAdder screened = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bytesNotUploaded = new LongAdder();
+    private final LongAdder rekognitionCallsSaved = new LongAdder();
+    private final Map<String, LongAdder> rejectionsByReason = new ConcurrentHashMap<>();
+
+    public ContentPreScreenService(CreativeProbeService creativeProbeService,
+            @Value("${content.prescreen.max-image-mb:15}") long maxImageMb,
+            @Value("${content.prescreen.max-video-mb:500}") long maxVideoMb,
+            @Value("${content.prescreen.min-dimension:80}") int minDimension,
+            @Value("${content.prescreen.max-dimension:10000}") int maxDimension,
+            @Value("${content.prescreen.max-video-seconds:600}") long maxVideoSeconds) {
+        this.creativeProbeService = creativeProbeService;
+        this.maxImageBytes = maxImageMb * 1024 * 1024;
+        this.maxVideoBytes = maxVideoMb * 1024 * 1024;
+        this.minDimension = minDimension;
+        this.maxDimension = maxDimension;
+        this.maxVideoMicros = maxVideoSeconds * 1_000_000;
+    }
+
+    /**
+     * Largest file accepted for a content type.
+     */
+    public long maxBytes(ContentType contentType) {
+        return contentType == ContentType.VIDEO ? maxVideoBytes : maxImageBytes;
+    }
+
+    /**
+     * Screens an upload against its declared type. Returns the header probe so
+     * the caller can store it, or throws ContentRejectedException.
+     */
+    public CreativeProbeService.ProbeResult screen(MultipartFile file, ContentType contentType) throws IOException {
+        screened.increment();
+        long size = file.getSize();
+
+        if (size <= 0) {
+            throw reject("EMPTY_FILE", "File is empty", file, contentType);
+        }
+        long maxBytes = maxBytes(contentType);
+        if (size > maxBytes) {
+            throw reject("TOO_LARGE", "File exceeds the " + (maxBytes / (1024 * 1024)) + " MB limit", file,
+                    contentType);
+        }
+
+        CreativeProbeService.ProbeResult probe;
+        try {
+            probe = creativeProbeService.probe((offset, length) -> {
+                try (InputStream in = file.getInputStream()) {
+                    in.skipNBytes(offset);
+                    return in.readNBytes(length);
+                }
+            }, size);
+        } catch (IOException e) {
+            throw reject("CORRUPT", "File is corrupt: " + e.getMessage(), file, contentType);
+        }
+
+        if (contentType == ContentType.IMAGE) {
+            if (!IMAGE_FORMATS.contains(probe.getFormat())) {
+                throw reject("UNSUPPORTED_FORMAT", "Images must be JPEG or PNG", file, contentType);
+            }
+        } else {
+            if (!"mp4".equals(probe.getFormat())) {
+                throw reject("UNSUPPORTED_FORMAT", "Videos must be MP4 or MOV", file, contentType);
+            }
+            if (probe.getCodec() == null || !VIDEO_CODECS.contains(probe.getCodec())) {
+                throw reject("UNSUPPORTED_CODEC", "Videos must be H.264 encoded", file, contentType);
+            }
+            if (probe.getDurationMicros() != null && probe.getDurationMicros() > maxVideoMicros) {
+                throw reject("TOO_LONG", "Video exceeds " + (maxVideoMicros / 1_000_000) + " seconds", file,
+                        contentType);
+            }
+        }
+
+        Integer width = probe.getWidth();
+        Integer height = probe.getHeight();
+        if (width == null || height == null) {
+            throw reject("CORRUPT", "Could not read dimensions", file, contentType);
+        }
+        if (width < minDimension || height < minDimension) {
+            throw reject("TOO_SMALL", "Dimensions must be at least " + minDimension + "px", file, contentType);
+        }
+        if (width > maxDimension || height > maxDimension) {
+            throw reject("TOO_BIG", "Dimensions must be at most " + maxDimension + "px", file, contentType);
+        }
+
+        return probe;
+    }
+
+    private ContentService.ContentRejectedException reject(String reason, String message, MultipartFile file,
+            ContentType contentType) {
+        rejected.increment();
+        rejectionsByReason.computeIfAbsent(reason, r -> new LongAdder()).increment();
+        bytesNotUploaded.add(Math.max(0, file.getSize()));
+        rekognitionCallsSaved.add(contentType == ContentType.VIDEO
+                ? REKOGNITION_CALLS_PER_VIDEO
+                : REKOGNITION_CALLS_PER_IMAGE);
+
+        log.info("Pre-screen rejected {} ({}): {}", file.getOriginalFilename(), reason, message);
+        return new ContentService.ContentRejectedException(message);
+    }
+
+    public PreScreenStatsDTO getStats() {
+        Map<String, Long> reasons = new TreeMap<>();
+        rejectionsByReason.forEach((reason, count) -> reasons.put(reason, count.sum()));
+
+        return PreScreenStatsDTO.builder()
+                .filesScreened(screened.sum())
+                .filesRejected(rejected.sum())
+                .rejectionsByReason(reasons)
+                .s3UploadsSaved(rejected.sum())
+                .bytesNotUploaded(bytesNotUploaded.sum())
+                .rekognitionCallsSaved(rekognitionCallsSaved.sum())
+                .build();
+    }
+}
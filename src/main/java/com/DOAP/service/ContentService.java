@@ -1,7 +1,8 @@
 package com.DOAP.service;
 
+import com.DOAP.dto.BulkDeleteResultDTO;
 import com.DOAP.entity.Content;
-import com.DOAP.entity.Payment;
+import com.DOAP.entity.ContentRendition;
 import com.DOAP.entity.enums.ContentStatus;
 import com.DOAP.entity.enums.ContentType;
 import com.DOAP.repository.ContentRepository;
@@ -10,13 +11,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.services.rekognition.model.ModerationLabel;
 
-import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,114 +32,224 @@ import java.util.UUID;
 public class ContentService {
 
     private final S3Service s3Service;
+    private final S3PresignService s3PresignService;
+    private final ImageRenditionService imageRenditionService;
     private final RekognitionService rekognitionService;
     private final ContentRepository contentRepository;
     private final com.DOAP.repository.AdVisionMetadataRepository adVisionMetadataRepository;
+    private final ContentLabelIndex contentLabelIndex;
+    private final com.DOAP.repository.ContentLabelRepository contentLabelRepository;
     @Value("${aws.s3.bucket.temp}")
     private String tempBucket;
 
     @Value("${aws.s3.bucket.approved}")
     private String approvedBucket;
 
+    @Value("${rekognition.call-timeout-ms:15000}")
+    private long rekognitionCallTimeoutMs;
+
+    /**
+     * Runs the AI validation stage for an image in S3.
+     * Throws ContentRejectedException when the creative breaks content policy.
+     */
+    public ValidationResult validateImage(String bucketName, String key) throws InterruptedException {
+        log.info("Validating image in bucket: {}, key: {}", bucketName, key);
+        String[] results = validateImageAndExtractMetadata(bucketName, key);
+        return new ValidationResult(results[0], "", results[1]);
+    }
+
+    /**
+     * Starts asynchronous Rekognition moderation for a video and returns the
+     * Rekognition job id. Results are collected by VideoModerationTracker.
+     */
+    public String startVideoModeration(String bucketName, String key) {
+        log.info("Starting async video moderation for {}", key);
+        String jobId = rekognitionService.startVideoModeration(bucketName, key);
+        log.info("Video moderation job started: {}", jobId);
+        return jobId;
+    }
+
+    /**
+     * Lists an uploader's content with presigned preview URLs and thumbnails.
+     * Returns detached copies so the signed URLs are never written back to the
+     * database.
+     */
+    public List<Content> getUploaderContent(Long uploaderId) {
+        List<Content> contents = contentRepository.findByUploaderId(uploaderId);
+        List<String> keys = contents.stream()
+                .filter(content -> content.getStatus() != ContentStatus.REJECTED)
+                .map(Content::getS3Key)
+                .toList();
+        Map<String, String> signedUrls = s3PresignService.presignAllApproved(keys);
+        Map<String, List<ContentRendition>> renditions = imageRenditionService.findRenditions(keys);
+
+        return contents.stream()
+                .map(content -> {
+                    String signedUrl = signedUrls.get(content.getS3Key());
+                    List<ContentRendition> contentRenditions = renditions.get(content.getS3Key());
+                    return content.toBuilder()
+                            .s3Url(signedUrl != null ? signedUrl : content.getS3Url())
+                            .thumbnailUrl(contentRenditions != null
+                                    ? s3PresignService.presignApproved(
+                                            imageRenditionService.thumbnailKey(content.getS3Key(), contentRenditions))
+                                    : signedUrl)
+                            .build();
+                })
+                .toList();
+    }
+
+    public Content withSignedUrl(Content content) {
+        if (content.getStatus() == ContentStatus.REJECTED) {
+            return content;
+        }
+        return content.toBuilder().s3Url(s3PresignService.presignApproved(content.getS3Key())).build();
+    }
+
+    /**
+     * Marks validated content as APPROVED and stores its vision metadata.
+     * The object must already be in the approved bucket and tagged approved.
+     */
     @Transactional
-    public Content uploadAndValidateContent(MultipartFile file, Long uploaderId) throws IOException {
+    public Content approveContent(Long contentId, ValidationResult result) {
+        Content content = contentRepository.findById(contentId)
+                .orElseThrow(() -> new RuntimeException("Content not found"));
+
+        content.setS3Url(s3Service.generateUrl(approvedBucket, content.getS3Key()));
+        content.setStatus(ContentStatus.APPROVED);
+        content.setValidationDetails("Approved: Strict AI Validation Passed");
+        Content savedContent = contentRepository.save(content);
+
+        com.DOAP.entity.AdVisionMetadata metadata = com.DOAP.entity.AdVisionMetadata.builder()
+                .content(savedContent)
+                .detectedLabels(result.getDetectedLabels())
+                .detectedText(result.getDetectedText())
+                .moderationResult(result.getModerationResult())
+                .confidenceScores("See individual fields")
+                .build();
+        adVisionMetadataRepository.save(metadata);
+        contentLabelIndex.store(savedContent.getId(), result.getDetectedLabels());
+
+        return savedContent;
+    }
 
-        String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename != null && originalFilename.contains(".")
-                ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                : "";
+    /**
+     * Reuses an earlier approved upload with the same SHA-256: the new content
+     * points at the existing S3 object and gets a copy of its moderation and
+     * label results, so no upload or Rekognition call is needed.
+     */
+    @Transactional
+    public Optional<Content> approveFromDuplicate(String contentHash, Long uploaderId) {
+        return contentRepository.findFirstByContentHashAndStatusOrderByIdAsc(contentHash, ContentStatus.APPROVED)
+                .flatMap(original -> adVisionMetadataRepository.findByContent_Id(original.getId())
+                        .map(originalMetadata -> {
+                            Content content = contentRepository.save(Content.builder()
+                                    .s3Key(original.getS3Key())
+                                    .s3Url(original.getS3Url())
+                                    .contentType(original.getContentType())
+                                    .status(ContentStatus.APPROVED)
+                                    .uploaderId(uploaderId)
+                                    .fileSizeBytes(original.getFileSizeBytes())
+                                    .width(original.getWidth())
+                                    .height(original.getHeight())
+                                    .durationMicros(original.getDurationMicros())
+                                    .codec(original.getCodec())
+                                    .contentHash(contentHash)
+                                    .validationDetails("Approved: Matches previously validated content")
+                                    .build());
+
+                            adVisionMetadataRepository.save(com.DOAP.entity.AdVisionMetadata.builder()
+                                    .content(content)
+                                    .detectedLabels(originalMetadata.getDetectedLabels())
+                                    .detectedText(originalMetadata.getDetectedText())
+                                    .moderationResult(originalMetadata.getModerationResult())
+                                    .confidenceScores(originalMetadata.getConfidenceScores())
+                                    .build());
+                            contentLabelIndex.store(content.getId(), originalMetadata.getDetectedLabels());
+
+                            log.info("Content {} reuses object and moderation of content {}", content.getId(),
+                                    original.getId());
+                            return content;
+                        }));
+    }
 
-        String key = UUID.randomUUID() + extension;
-        ContentType contentType = determineContentType(originalFilename);
+    /**
+     * The uploader's content carrying a vision label, highest confidence
+     * first. One join over the label table scoped to the uploader, no
+     * metadata parsing.
+     */
+    public List<Content> getUploaderContentByLabel(Long uploaderId, String label, double minConfidence) {
+        return contentLabelRepository.findUploaderContentByLabel(uploaderId, label.trim(), minConfidence).stream()
+                .map(this::withSignedUrl)
+                .toList();
+    }
 
-        // 1. Upload to TEMP bucket
-        s3Service.uploadFile(tempBucket, key, file);
-        log.info("Uploaded {} to temp bucket {}", key, tempBucket);
+    @Transactional
+    public void rejectContent(Long contentId, String reason) {
+        contentRepository.findById(contentId).ifPresent(content -> {
+            content.setStatus(ContentStatus.REJECTED);
+            content.setValidationDetails("Rejected: " + reason);
+            contentRepository.save(content);
+        });
+    }
 
-        try {
-            // Small delay to ensure S3 consistency (rare but possible issue)
-            Thread.sleep(1000);
-
-            // ===== AI VALIDATION START =====
-            String detectedLabels = "";
-            String detectedText = "";
-            String moderationResult = "";
-
-            if (contentType == ContentType.IMAGE) {
-                log.info("Validating image in bucket: {}, key: {}", tempBucket, key);
-                String[] results = validateImageAndExtractMetadata(tempBucket, key);
-                detectedLabels = results[0];
-                moderationResult = results[1];
-            } else if (contentType == ContentType.VIDEO) {
-                log.info("Validating video in bucket: {}, key: {}", tempBucket, key);
-                moderationResult = validateVideo(tempBucket, key);
-            } else {
-                cleanupAndReject(key, "Unsupported content type");
-            }
-            // ===== AI VALIDATION PASSED =====
-
-            // 3. Move to APPROVED bucket
-            s3Service.copyFile(tempBucket, key, approvedBucket, key);
-            s3Service.deleteFile(tempBucket, key);
-
-            // 4. Save to DB
-            String s3Url = s3Service.generateUrl(approvedBucket, key);
-
-            Content content = Content.builder()
-                    .s3Key(key)
-                    .s3Url(s3Url)
-                    .contentType(contentType)
-                    .status(ContentStatus.APPROVED)
-                    .uploaderId(uploaderId)
-                    .validationDetails("Approved: Strict AI Validation Passed")
-                    .build();
-
-            Content savedContent = contentRepository.save(content);
-
-            // 5. Save AdVisionMetadata
-            com.DOAP.entity.AdVisionMetadata metadata = com.DOAP.entity.AdVisionMetadata.builder()
-                    .content(savedContent)
-                    .detectedLabels(detectedLabels)
-                    .detectedText(detectedText)
-                    .moderationResult(moderationResult)
-                    .confidenceScores("See individual fields")
-                    .build();
-            adVisionMetadataRepository.save(metadata);
-
-            return savedContent;
-
-        } catch (RuntimeException ex) {
-            log.warn("Content rejected: {}", ex.getMessage());
-            cleanupSilently(key);
-            throw ex;
-        } catch (Exception ex) {
-            log.error("Unexpected error during upload", ex);
-            cleanupSilently(key);
-            throw new RuntimeException("Upload failed due to server error");
+    /**
+     * Raised when a creative fails content policy. Not retried.
+     */
+    public static class ContentRejectedException extends RuntimeException {
+        public ContentRejectedException(String reason) {
+            super(reason);
         }
     }
 
+    @lombok.Value
+    public static class ValidationResult {
+        String detectedLabels;
+        String detectedText;
+        String moderationResult;
+    }
+
     // ================= HELPER METHODS =================
 
-    private String[] validateImageAndExtractMetadata(String bucketName, String key) {
-        // A. Adult / sexual / violence detection
-        System.out.println("\n\n\n\n\n\n\n\n\n\n\n\nValidating image in bucket: " + bucketName + ", key: " + key);
-        List<ModerationLabel> labels = rekognitionService.detectModerationLabels(bucketName, key);
-        System.out.println("\n\n\n\n\n\n\n\n\n\n\n\nModeration labels: " + labels);
-        boolean explicitUnsafe = labels.stream().anyMatch(label -> label.confidence() >= 70 &&
-                (label.name().toLowerCase().contains("nudity") ||
-                        label.name().toLowerCase().contains("sexual") ||
-                        label.name().toLowerCase().contains("violence") ||
-                        label.name().toLowerCase().contains("suggestive")));
-
-        if (explicitUnsafe) {
-            cleanupAndReject(key, "Adult / sexual / violent content not allowed");
-        }
+    private String[] validateImageAndExtractMetadata(String bucketName, String key)
+            throws InterruptedException {
+        // Moderation and label detection run concurrently, so validation takes as
+        // long as the slowest call instead of the sum of both
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(rekognitionCallTimeoutMs);
+        Future<List<ModerationLabel>> moderationCall = rekognitionService.detectModerationLabelsAsync(bucketName,
+                key);
+        Future<List<software.amazon.awssdk.services.rekognition.model.Label>> labelsCall = rekognitionService
+                .detectLabelsAsync(bucketName, key);
+
+        try {
+            // A. Adult / sexual / violence detection
+            List<ModerationLabel> labels = awaitRekognition(moderationCall, deadline, "DetectModerationLabels");
+            log.debug("Moderation labels for {}: {}", key, labels);
+            boolean explicitUnsafe = labels.stream().anyMatch(label -> label.confidence() >= 70 &&
+                    (label.name().toLowerCase().contains("nudity") ||
+                            label.name().toLowerCase().contains("sexual") ||
+                            label.name().toLowerCase().contains("violence") ||
+                            label.name().toLowerCase().contains("suggestive")));
+
+            if (explicitUnsafe) {
+                // No need to wait for labels, the image is rejected either way
+                labelsCall.cancel(true);
+                reject("Adult / sexual / violent content not allowed");
+            }
 
-        // B. Human detection using Labels
-        List<software.amazon.awssdk.services.rekognition.model.Label> imageLabels = rekognitionService
-                .detectLabels(bucketName, key);
+            // B. Labels for human / document detection
+            List<software.amazon.awssdk.services.rekognition.model.Label> imageLabels = awaitRekognition(labelsCall,
+                    deadline, "DetectLabels");
 
+            return checkImageLabels(labels, imageLabels);
+        } finally {
+            moderationCall.cancel(true);
+            labelsCall.cancel(true);
+        }
+    }
+
+    private String[] checkImageLabels(List<ModerationLabel> labels,
+            List<software.amazon.awssdk.services.rekognition.model.Label> imageLabels) {
+        // Human detection using Labels
         boolean containsHuman = imageLabels.stream().anyMatch(label -> label.confidence() >= 70 &&
                 (label.name().equalsIgnoreCase("Person") ||
                         label.name().equalsIgnoreCase("Human") ||
@@ -141,10 +259,10 @@ public class ContentService {
                         label.name().equalsIgnoreCase("Selfie")));
 
         if (containsHuman) {
-            cleanupAndReject(key, "Human images (selfies, people, portraits) are not allowed");
+            reject("Human images (selfies, people, portraits) are not allowed");
         }
 
-        // C. Document detection using Labels
+        // Document detection using Labels
         boolean isDocument = imageLabels.stream().anyMatch(label -> label.confidence() >= 70 &&
                 (label.name().equalsIgnoreCase("Document") ||
                         label.name().equalsIgnoreCase("Text") ||
@@ -154,7 +272,7 @@ public class ContentService {
                         label.name().equalsIgnoreCase("ID Cards")));
 
         if (isDocument) {
-            cleanupAndReject(key, "Document or text-based images not allowed");
+            reject("Document or text-based images not allowed");
         }
 
         // Extract metadata for storage
@@ -172,17 +290,29 @@ public class ContentService {
         return new String[] { detectedLabels, moderationResult };
     }
 
-    private String validateVideo(String bucketName, String key) throws InterruptedException {
-        log.info("Starting async video moderation for {}", key);
-
-        // Start async moderation job
-        String jobId = rekognitionService.startVideoModeration(bucketName, key);
-        log.info("Video moderation job started: {}", jobId);
-
-        // Wait for results (polls every 5 seconds, max 2 minutes)
-        List<software.amazon.awssdk.services.rekognition.model.ContentModerationDetection> detections = rekognitionService
-                .getVideoModerationResults(jobId);
+    // Waits for a Rekognition call until the shared deadline, cancelling it on
+    // timeout
+    private <T> T awaitRekognition(Future<T> call, long deadlineNanos, String operation)
+            throws InterruptedException {
+        try {
+            return call.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new RuntimeException(operation + " timed out after " + rekognitionCallTimeoutMs + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(operation + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
 
+    /**
+     * Evaluates the detections of a finished video moderation job.
+     * Throws ContentRejectedException when any frame breaks content policy.
+     */
+    public ValidationResult evaluateVideoModeration(
+            List<software.amazon.awssdk.services.rekognition.model.ContentModerationDetection> detections) {
         // Check for unsafe content in any frame
         boolean hasUnsafeContent = detections.stream()
                 .anyMatch(detection -> detection.moderationLabel().confidence() >= 70 &&
@@ -192,11 +322,9 @@ public class ContentService {
                                 detection.moderationLabel().name().toLowerCase().contains("suggestive")));
 
         if (hasUnsafeContent) {
-            cleanupAndReject(key, "Video contains adult / sexual / violent content");
+            reject("Video contains adult / sexual / violent content");
         }
 
-        log.info("Video validation passed for {}", key);
-
         // Return moderation summary
         String moderationSummary = detections.stream()
                 .map(d -> d.moderationLabel().name() + "(" + String.format("%.1f", d.moderationLabel().confidence())
@@ -205,78 +333,118 @@ public class ContentService {
                 .reduce((a, b) -> a + ", " + b)
                 .orElse("Safe");
 
-        return moderationSummary;
+        return new ValidationResult("", "", moderationSummary);
     }
 
     private final com.DOAP.repository.BookingRepository bookingRepository;
     private final com.DOAP.repository.PaymentRepository paymentRepository;
     private final com.DOAP.repository.AdBusinessDetailsRepository adBusinessDetailsRepository;
 
-    @Transactional
-    public void deleteContent(Long contentId, Long userId) {
-        // Log to debug
-        log.info("Deleting content {} for user {}", contentId, userId);
+    private final LoopInventoryService loopInventoryService;
+    private final S3DeletionQueue s3DeletionQueue;
+    private final com.DOAP.repository.ContentRecommendationRepository contentRecommendationRepository;
+    private final com.DOAP.repository.ContentIngestionJobRepository contentIngestionJobRepository;
 
-        Content content = contentRepository.findById(contentId)
-                .orElseThrow(() -> new RuntimeException("Content not found"));
+    @Value("${content.bulk-delete.max-ids:200}")
+    private int maxBulkDeleteIds;
 
-        if (!content.getUploaderId().equals(userId)) {
+    @Transactional
+    public void deleteContent(Long contentId, Long userId) {
+        BulkDeleteResultDTO result = deleteContents(List.of(contentId), userId);
+        if (!result.getNotFound().isEmpty()) {
+            throw new RuntimeException("Content not found");
+        }
+        if (!result.getUnauthorized().isEmpty()) {
             throw new RuntimeException("Unauthorized: You do not own this content");
         }
+    }
 
-        // 1. Delete AdVisionMetadata
-        adVisionMetadataRepository.findByContent_Id(contentId).ifPresent(metadata -> {
-            adVisionMetadataRepository.delete(metadata);
-            log.info("Deleted AdVisionMetadata for content {}", contentId);
-        });
-
-        // 2. Delete AdBusinessDetails
-        adBusinessDetailsRepository.findByContent_Id(contentId).ifPresent(details -> {
-            adBusinessDetailsRepository.delete(details);
-            log.info("Deleted AdBusinessDetails for content {}", contentId);
-        });
-
-        // 3. Delete Bookings and Payments
-        List<com.DOAP.entity.Booking> bookings = bookingRepository.findByContentId(contentId);
-        for (com.DOAP.entity.Booking booking : bookings) {
-            // Delete associated payments
-            List<Payment> payments = paymentRepository.findByBookingId(booking.getId());
-            if (!payments.isEmpty()) {
-                paymentRepository.deleteAll(payments);
-                log.info("Deleted {} payments for booking {}", payments.size(), booking.getId());
-            }
-            // Delete booking
-            bookingRepository.delete(booking);
-            log.info("Deleted booking {}", booking.getId());
+    /**
+     * Deletes the caller's content with set-based cascades in one transaction.
+     * Ids that do not exist or belong to someone else are reported and skipped.
+     * S3 objects are queued for background deletion, committed with the rows.
+     */
+    @Transactional
+    public BulkDeleteResultDTO deleteContents(Collection<Long> contentIds, Long userId) {
+        Set<Long> requested = new LinkedHashSet<>(contentIds);
+        if (requested.size() > maxBulkDeleteIds) {
+            throw new IllegalArgumentException("At most " + maxBulkDeleteIds + " items can be deleted at once");
         }
-
-        // 4. Delete from S3 (Approved Bucket)
-        try {
-            s3Service.deleteFile(approvedBucket, content.getS3Key());
-            log.info("Deleted file from S3: {}", content.getS3Key());
-        } catch (Exception e) {
-            log.error("Failed to delete file from S3: {}", content.getS3Key(), e);
+        log.info("Deleting {} content items for user {}", requested.size(), userId);
+
+        List<Content> found = contentRepository.findAllById(requested);
+        Set<Long> foundIds = found.stream().map(Content::getId).collect(Collectors.toSet());
+        List<Long> notFound = requested.stream().filter(id -> !foundIds.contains(id)).toList();
+        List<Long> unauthorized = found.stream()
+                .filter(c -> !c.getUploaderId().equals(userId))
+                .map(Content::getId)
+                .toList();
+        List<Content> owned = found.stream().filter(c -> c.getUploaderId().equals(userId)).toList();
+
+        BulkDeleteResultDTO.BulkDeleteResultDTOBuilder result = BulkDeleteResultDTO.builder()
+                .notFound(notFound)
+                .unauthorized(unauthorized);
+        if (owned.isEmpty()) {
+            return result.deleted(List.of()).bookingsDeleted(0).paymentsDeleted(0).s3ObjectsQueued(0).build();
         }
 
-        // 5. Delete Content from DB
-        contentRepository.delete(content);
-        log.info("Deleted content {}", contentId);
+        List<Long> ownedIds = owned.stream().map(Content::getId).toList();
+
+        // 1. Dependent rows, payments before the bookings they reference
+        adVisionMetadataRepository.deleteByContentIds(ownedIds);
+        contentLabelIndex.delete(ownedIds);
+        adBusinessDetailsRepository.deleteByContentIds(ownedIds);
+        contentRecommendationRepository.deleteByContentIds(ownedIds);
+        contentIngestionJobRepository.deleteByContentIds(ownedIds);
+        int payments = paymentRepository.deleteByContentIds(ownedIds);
+        bookingRepository.findActiveLoopBookingsByContentIds(ownedIds).forEach(loopInventoryService::release);
+        int bookings = bookingRepository.deleteByContentIds(ownedIds);
+
+        // 2. Queue S3 deletes, skipping objects a deduplicated upload outside this
+        // set still references. Unvalidated uploads live in the approved bucket
+        // tagged pending, or in the temp bucket for uploads made before
+        // single-write placement
+        Set<String> stillReferenced = new HashSet<>(contentRepository.findReferencedS3Keys(
+                owned.stream().map(Content::getS3Key).distinct().toList(), ownedIds));
+        Map<String, Boolean> approvedByKey = owned.stream()
+                .filter(c -> !stillReferenced.contains(c.getS3Key()))
+                .collect(Collectors.toMap(Content::getS3Key, c -> c.getStatus() == ContentStatus.APPROVED,
+                        (a, b) -> a || b));
+
+        List<String> approvedKeys = approvedByKey.entrySet().stream()
+                .filter(Map.Entry::getValue).map(Map.Entry::getKey).toList();
+        List<String> unvalidatedKeys = approvedByKey.entrySet().stream()
+                .filter(e -> !e.getValue()).map(Map.Entry::getKey).toList();
+
+        int queued = imageRenditionService.deleteRenditions(approvedKeys)
+                + s3DeletionQueue.enqueue(approvedBucket, approvedByKey.keySet())
+                + s3DeletionQueue.enqueue(tempBucket, unvalidatedKeys);
+
+        // 3. The content rows
+        contentRepository.deleteByIds(ownedIds);
+        log.info("Deleted {} content items ({} bookings, {} payments), {} S3 objects queued",
+                ownedIds.size(), bookings, payments, queued);
+
+        return result.deleted(ownedIds)
+                .bookingsDeleted(bookings)
+                .paymentsDeleted(payments)
+                .s3ObjectsQueued(queued)
+                .build();
     }
 
-    private void cleanupAndReject(String key, String reason) {
-        cleanupSilently(key);
-        throw new RuntimeException(reason);
+    private void reject(String reason) {
+        throw new ContentRejectedException(reason);
     }
 
-    private void cleanupSilently(String key) {
+    public void cleanupSilently(String bucketName, String key) {
         try {
-            s3Service.deleteFile(tempBucket, key);
+            s3Service.deleteFile(bucketName, key);
         } catch (Exception e) {
-            log.error("Failed to cleanup temp file {}", key, e);
+            log.error("Failed to cleanup file {}/{}", bucketName, key, e);
         }
     }
 
-    private ContentType determineContentType(String filename) {
+    public ContentType determineContentType(String filename) {
         if (filename == null)
             return ContentType.IMAGE;
 
@@ -0,0 +1,367 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.Content;
+import com.DOAP.entity.Screen;
+import com.DOAP.entity.enums.ScreenOrientation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads creative dimensions, duration and codec from file headers only.
+ *
+ * Images are probed from their PNG IHDR, JPEG SOF or WebP VP8/VP8L/VP8X
+ * header. MP4/MOV files are walked box by box to the video track's tkhd
+ * (dimensions as displayed, after its rotation matrix), mdhd (duration) and
+ * stsd (codec). The file is read in small
+ * blocks through ranged reads, so a probe costs a few KB even for large
+ * videos with the moov box at the end.
+ */
+@Service
+@Slf4j
+public class CreativeProbeService {
+
+    private static final int BLOCK_SIZE = 16 * 1024;
+    private static final int MAX_BLOCKS = 64; // Give up after 1 MB of headers
+
+    private final S3Service s3Service;
+    private final double aspectTolerance;
+
+    public CreativeProbeService(S3Service s3Service,
+            @Value("${booking.creative.aspect-tolerance:0.15}") double aspectTolerance) {
+        this.s3Service = s3Service;
+        this.aspectTolerance = aspectTolerance;
+    }
+
+    @lombok.Value
+    public static class ProbeResult {
+        String format; // png, jpeg, webp, mp4 or unknown
+        String codec;
+        Integer width;
+        Integer height;
+        Long durationMicros;
+
+        static ProbeResult unknown() {
+            return new ProbeResult("unknown", null, null, null, null);
+        }
+    }
+
+    /**
+     * Source of file bytes: returns up to length bytes starting at offset.
+     */
+    @FunctionalInterface
+    public interface RangeSource {
+        byte[] read(long offset, int length) throws IOException;
+    }
+
+    public ProbeResult probe(String bucketName, String key) throws IOException {
+        long size = s3Service.getObjectSize(bucketName, key);
+        HeaderReader reader = new HeaderReader(
+                (offset, length) -> s3Service.getObjectRange(bucketName, key, offset, length), size);
+        ProbeResult result = probe(reader);
+        log.info("Probed {} with {} ranged reads: {}", key, reader.fetches, result);
+        return result;
+    }
+
+    public ProbeResult probe(RangeSource source, long size) throws IOException {
+        return probe(new HeaderReader(source, size));
+    }
+
+    private ProbeResult probe(HeaderReader in) throws IOException {
+        if (in.size < 12) {
+            return ProbeResult.unknown();
+        }
+        if (in.u32be(0) == 0x89504E47L && in.u32be(4) == 0x0D0A1A0AL) {
+            return probePng(in);
+        }
+        if (in.u8(0) == 0xFF && in.u8(1) == 0xD8 && in.u8(2) == 0xFF) {
+            return probeJpeg(in);
+        }
+        if ("RIFF".equals(in.fourcc(0)) && "WEBP".equals(in.fourcc(8))) {
+            return probeWebp(in);
+        }
+        if ("ftyp".equals(in.fourcc(4))) {
+            return probeMp4(in);
+        }
+        return ProbeResult.unknown();
+    }
+
+    // ================= IMAGES =================
+
+    private ProbeResult probePng(HeaderReader in) throws IOException {
+        if (!"IHDR".equals(in.fourcc(12))) {
+            throw new IOException("Corrupt PNG: missing IHDR");
+        }
+        return new ProbeResult("png", "png", (int) in.u32be(16), (int) in.u32be(20), null);
+    }
+
+    private ProbeResult probeJpeg(HeaderReader in) throws IOException {
+        long pos = 2;
+        while (pos + 4 <= in.size) {
+            if (in.u8(pos) != 0xFF) {
+                throw new IOException("Corrupt JPEG: bad marker at " + pos);
+            }
+            int marker = in.u8(pos + 1);
+            if (marker == 0xFF) {
+                pos++; // Fill byte
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                pos += 2; // Markers without a length
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                break; // End of image or start of scan before any frame header
+            }
+
+            int length = in.u16be(pos + 2);
+            boolean startOfFrame = marker >= 0xC0 && marker <= 0xCF
+                    && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+            if (startOfFrame) {
+                int height = in.u16be(pos + 5);
+                int width = in.u16be(pos + 7);
+                return new ProbeResult("jpeg", marker == 0xC2 ? "jpeg-progressive" : "jpeg", width, height, null);
+            }
+            pos += 2 + length;
+        }
+        throw new IOException("Corrupt JPEG: no frame header");
+    }
+
+    private ProbeResult probeWebp(HeaderReader in) throws IOException {
+        String chunk = in.fourcc(12);
+        switch (chunk) {
+            case "VP8X":
+                return new ProbeResult("webp", "vp8x", 1 + in.u24le(24), 1 + in.u24le(27), null);
+            case "VP8 ":
+                if (in.u8(23) != 0x9D || in.u8(24) != 0x01 || in.u8(25) != 0x2A) {
+                    throw new IOException("Corrupt WebP: bad VP8 start code");
+                }
+                return new ProbeResult("webp", "vp8", in.u16le(26) & 0x3FFF, in.u16le(28) & 0x3FFF, null);
+            case "VP8L":
+                if (in.u8(20) != 0x2F) {
+                    throw new IOException("Corrupt WebP: bad VP8L signature");
+                }
+                int b0 = in.u8(21), b1 = in.u8(22), b2 = in.u8(23), b3 = in.u8(24);
+                int width = 1 + (((b1 & 0x3F) << 8) | b0);
+                int height = 1 + (((b3 & 0x0F) << 10) | (b2 << 2) | ((b1 & 0xC0) >> 6));
+                return new ProbeResult("webp", "vp8l", width, height, null);
+            default:
+                throw new IOException("Corrupt WebP: unexpected chunk " + chunk);
+        }
+    }
+
+    // ================= MP4 / MOV =================
+
+    private record Box(String type, long start, long end) {
+    }
+
+    private ProbeResult probeMp4(HeaderReader in) throws IOException {
+        Box moov = findChild(in, 0, in.size, "moov");
+        if (moov == null) {
+            throw new IOException("Corrupt MP4: no moov box");
+        }
+
+        for (Box trak : children(in, moov.start(), moov.end())) {
+            if (!"trak".equals(trak.type())) {
+                continue;
+            }
+            Box mdia = findChild(in, trak.start(), trak.end(), "mdia");
+            Box hdlr = mdia != null ? findChild(in, mdia.start(), mdia.end(), "hdlr") : null;
+            if (hdlr == null || !"vide".equals(in.fourcc(hdlr.start() + 8))) {
+                continue;
+            }
+
+            // tkhd ends with the display matrix {a b u, c d v, x y w}, then 16.16 fixed point width and height
+            Box tkhd = findChild(in, trak.start(), trak.end(), "tkhd");
+            Integer width = null;
+            Integer height = null;
+            if (tkhd != null) {
+                width = (int) (in.u32be(tkhd.end() - 8) >> 16);
+                height = (int) (in.u32be(tkhd.end() - 4) >> 16);
+                // a = cos and b = sin of the rotation; a quarter turn (e.g. a phone held upright) plays
+                // the track with width and height swapped
+                int a = (int) in.u32be(tkhd.end() - 44);
+                int b = (int) in.u32be(tkhd.end() - 40);
+                if (Math.abs(b) > Math.abs(a)) {
+                    Integer displayWidth = height;
+                    height = width;
+                    width = displayWidth;
+                }
+            }
+
+            Long durationMicros = null;
+            Box mdhd = findChild(in, mdia.start(), mdia.end(), "mdhd");
+            if (mdhd != null) {
+                boolean version1 = in.u8(mdhd.start()) == 1;
+                long timescale = version1 ? in.u32be(mdhd.start() + 20) : in.u32be(mdhd.start() + 12);
+                long duration = version1 ? in.u64be(mdhd.start() + 24) : in.u32be(mdhd.start() + 16);
+                if (timescale > 0) {
+                    durationMicros = duration * 1_000_000 / timescale;
+                }
+            }
+
+            String codec = null;
+            Box minf = findChild(in, mdia.start(), mdia.end(), "minf");
+            Box stbl = minf != null ? findChild(in, minf.start(), minf.end(), "stbl") : null;
+            Box stsd = stbl != null ? findChild(in, stbl.start(), stbl.end(), "stsd") : null;
+            if (stsd != null && in.u32be(stsd.start() + 4) > 0) {
+                codec = in.fourcc(stsd.start() + 12); // First sample entry type, e.g. avc1, hvc1
+            }
+
+            return new ProbeResult("mp4", codec, width, height, durationMicros);
+        }
+
+        return new ProbeResult("mp4", null, null, null, null); // Audio only
+    }
+
+    private Box findChild(HeaderReader in, long start, long end, String type) throws IOException {
+        long pos = start;
+        while (pos + 8 <= end) {
+            Box box = readBox(in, pos, end);
+            if (type.equals(box.type())) {
+                return box;
+            }
+            pos = box.end();
+        }
+        return null;
+    }
+
+    private List<Box> children(HeaderReader in, long start, long end) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        long pos = start;
+        while (pos + 8 <= end) {
+            Box box = readBox(in, pos, end);
+            boxes.add(box);
+            pos = box.end();
+        }
+        return boxes;
+    }
+
+    private Box readBox(HeaderReader in, long pos, long parentEnd) throws IOException {
+        long size = in.u32be(pos);
+        String type = in.fourcc(pos + 4);
+        int header = 8;
+        if (size == 1) {
+            size = in.u64be(pos + 8);
+            header = 16;
+        } else if (size == 0) {
+            size = parentEnd - pos; // Extends to the end of the parent
+        }
+        if (size < header || pos + size > parentEnd) {
+            throw new IOException("Corrupt MP4: bad " + type + " box size " + size);
+        }
+        return new Box(type, pos + header, pos + size);
+    }
+
+    // ================= COMPATIBILITY =================
+
+    /**
+     * Checks a probed creative against a screen. Returns the reason it does not
+     * fit, or null when it fits or the creative was never probed.
+     */
+    public String checkScreenCompatibility(Content content, Screen screen) {
+        Integer width = content.getWidth();
+        Integer height = content.getHeight();
+        if (width == null || height == null || width <= 0 || height <= 0) {
+            return null;
+        }
+
+        Integer screenWidth = screen.getResolutionWidth();
+        Integer screenHeight = screen.getResolutionHeight();
+        ScreenOrientation orientation = screen.getOrientation();
+        if (orientation == null && screenWidth != null && screenHeight != null) {
+            orientation = screenWidth >= screenHeight ? ScreenOrientation.LANDSCAPE : ScreenOrientation.PORTRAIT;
+        }
+
+        // Square creatives fit either orientation
+        if (orientation == ScreenOrientation.LANDSCAPE && width < height) {
+            return "Creative is portrait (" + width + "x" + height + ") but the screen is landscape";
+        }
+        if (orientation == ScreenOrientation.PORTRAIT && width > height) {
+            return "Creative is landscape (" + width + "x" + height + ") but the screen is portrait";
+        }
+
+        if (screenWidth != null && screenHeight != null && screenWidth > 0 && screenHeight > 0) {
+            double creativeAspect = (double) width / height;
+            double screenAspect = (double) screenWidth / screenHeight;
+            if (Math.abs(creativeAspect - screenAspect) / screenAspect > aspectTolerance) {
+                return String.format("Creative aspect ratio %dx%d does not match screen resolution %dx%d",
+                        width, height, screenWidth, screenHeight);
+            }
+        }
+        return null;
+    }
+
+    // ================= BLOCK READER =================
+
+    /**
+     * Big-endian/little-endian field reader over a RangeSource. Bytes are fetched
+     * in aligned blocks and cached, so walking nearby headers costs one read.
+     */
+    private static class HeaderReader {
+        final RangeSource source;
+        final long size;
+        final Map<Long, byte[]> blocks = new HashMap<>();
+        int fetches;
+
+        HeaderReader(RangeSource source, long size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        int u8(long pos) throws IOException {
+            if (pos < 0 || pos >= size) {
+                throw new EOFException("Header read past end of file at " + pos);
+            }
+            long index = pos / BLOCK_SIZE;
+            byte[] block = blocks.get(index);
+            if (block == null) {
+                if (blocks.size() >= MAX_BLOCKS) {
+                    throw new IOException("Header too large to probe");
+                }
+                long start = index * BLOCK_SIZE;
+                block = source.read(start, (int) Math.min(BLOCK_SIZE, size - start));
+                blocks.put(index, block);
+                fetches++;
+            }
+            int offset = (int) (pos - index * BLOCK_SIZE);
+            if (offset >= block.length) {
+                throw new EOFException("Short read at " + pos);
+            }
+            return block[offset] & 0xFF;
+        }
+
+        int u16be(long pos) throws IOException {
+            return (u8(pos) << 8) | u8(pos + 1);
+        }
+
+        int u16le(long pos) throws IOException {
+            return u8(pos) | (u8(pos + 1) << 8);
+        }
+
+        int u24le(long pos) throws IOException {
+            return u8(pos) | (u8(pos + 1) << 8) | (u8(pos + 2) << 16);
+        }
+
+        long u32be(long pos) throws IOException {
+            return ((long) u16be(pos) << 16) | u16be(pos + 2);
+        }
+
+        long u64be(long pos) throws IOException {
+            return (u32be(pos) << 32) | u32be(pos + 4);
+        }
+
+        String fourcc(long pos) throws IOException {
+            byte[] chars = { (byte) u8(pos), (byte) u8(pos + 1), (byte) u8(pos + 2), (byte) u8(pos + 3) };
+            return new String(chars, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -33,6 +33,10 @@ public class EarningsService {
 
         Double ownerAmount = pricingService.calculateOwnerEarning(screen, booking.getStartDatetime(),
                 booking.getEndDatetime());
+        if (booking.getSpots() != null && booking.getLoopSize() != null) {
+            // A loop booking pays for its share of the loop
+            ownerAmount = ownerAmount * booking.getSpots() / booking.getLoopSize();
+        }
         Double platformCommission = booking.getPriceAmount() - ownerAmount;
 
         // Calculate Week Window (Monday to Sunday)
@@ -0,0 +1,310 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.ContentRendition;
+import com.DOAP.entity.enums.RenditionType;
+import com.DOAP.repository.ContentRenditionRepository;
+import com.DOAP.repository.ScreenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Produces downscaled renditions of approved images with plain Java ImageIO.
+ *
+ * One rendition is made per distinct active screen resolution class (fitted
+ * inside the screen, aspect ratio kept) plus a dashboard thumbnail. Sizes are
+ * planned from the image header, and the original is decoded once, subsampled
+ * to no less than twice the largest rendition, so the bitmap held in memory is
+ * bounded by the renditions rather than the upload. Larger renditions are
+ * produced first and each smaller one is scaled from the previous.
+ */
+@Service
+@Slf4j
+public class ImageRenditionService {
+
+    private final S3Service s3Service;
+    private final ContentRenditionRepository renditionRepository;
+    private final ScreenRepository screenRepository;
+    private final S3DeletionQueue s3DeletionQueue;
+
+    private final String approvedBucket;
+    private final int maxResolutionClasses;
+    private final int thumbnailWidth;
+    private final float jpegQuality;
+    private final long maxSourcePixels;
+    private final long maxDecodedPixels;
+
+    public ImageRenditionService(S3Service s3Service,
+            ContentRenditionRepository renditionRepository,
+            ScreenRepository screenRepository,
+            S3DeletionQueue s3DeletionQueue,
+            @Value("${aws.s3.bucket.approved}") String approvedBucket,
+            @Value("${content.renditions.max-resolution-classes:12}") int maxResolutionClasses,
+            @Value("${content.renditions.thumbnail-width:320}") int thumbnailWidth,
+            @Value("${content.renditions.jpeg-quality:0.85}") float jpegQuality,
+            @Value("${content.renditions.max-source-megapixels:50}") long maxSourceMegapixels,
+            @Value("${content.renditions.max-decoded-megapixels:16}") long maxDecodedMegapixels) {
+        this.s3Service = s3Service;
+        this.renditionRepository = renditionRepository;
+        this.screenRepository = screenRepository;
+        this.s3DeletionQueue = s3DeletionQueue;
+        this.approvedBucket = approvedBucket;
+        this.maxResolutionClasses = maxResolutionClasses;
+        this.thumbnailWidth = thumbnailWidth;
+        this.jpegQuality = jpegQuality;
+        this.maxSourcePixels = maxSourceMegapixels * 1_000_000;
+        this.maxDecodedPixels = maxDecodedMegapixels * 1_000_000;
+    }
+
+    private record Target(int width, int height, RenditionType type) {
+    }
+
+    // Subsampled bitmap of the original and the renditions to make from it, largest first
+    private record Decoded(BufferedImage image, List<Target> targets) {
+    }
+
+    /**
+     * Generates renditions for an approved image. Does nothing if the object
+     * already has renditions (e.g. a deduplicated upload).
+     */
+    public List<ContentRendition> generate(String sourceKey) throws IOException {
+        if (renditionRepository.existsBySourceS3Key(sourceKey)) {
+            return renditionRepository.findBySourceS3Key(sourceKey);
+        }
+
+        byte[] original = s3Service.getObjectBytes(approvedBucket, sourceKey);
+        Decoded decoded = decode(original);
+        if (decoded == null) {
+            log.warn("No ImageIO decoder for {}, skipping renditions", sourceKey);
+            return List.of();
+        }
+        if (decoded.targets().isEmpty()) {
+            return List.of();
+        }
+
+        boolean alpha = decoded.image().getColorModel().hasAlpha();
+        String extension = alpha ? "png" : "jpg";
+
+        List<ContentRendition> renditions = new ArrayList<>();
+        BufferedImage current = decoded.image();
+        for (Target target : decoded.targets()) {
+            current = scale(current, target.width(), target.height(), alpha);
+            byte[] encoded = alpha ? encodePng(current) : encodeJpeg(current);
+
+            String key = "renditions/" + sourceKey + "/" + target.width() + "x" + target.height() + "." + extension;
+            s3Service.upload(approvedBucket, key, new ByteArrayInputStream(encoded), encoded.length,
+                    alpha ? "image/png" : "image/jpeg", "validation=approved");
+
+            renditions.add(ContentRendition.builder()
+                    .sourceS3Key(sourceKey)
+                    .s3Key(key)
+                    .renditionType(target.type())
+                    .width(target.width())
+                    .height(target.height())
+                    .fileSizeBytes((long) encoded.length)
+                    .build());
+        }
+
+        log.info("Generated {} renditions for {}", renditions.size(), sourceKey);
+        return renditionRepository.saveAll(renditions);
+    }
+
+    /**
+     * Rendition sizes for a source image, largest first. Only sizes smaller than
+     * the original are produced.
+     */
+    private List<Target> planTargets(int sourceWidth, int sourceHeight) {
+        Set<Target> targets = new LinkedHashSet<>();
+
+        List<Object[]> classes = screenRepository.findActiveResolutionClasses();
+        for (Object[] row : classes.subList(0, Math.min(maxResolutionClasses, classes.size()))) {
+            int[] fitted = fit(sourceWidth, sourceHeight, ((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            if (fitted[0] < sourceWidth) {
+                targets.add(new Target(fitted[0], fitted[1], RenditionType.SCREEN));
+            }
+        }
+
+        if (thumbnailWidth < sourceWidth) {
+            int height = Math.max(1, Math.round((float) sourceHeight * thumbnailWidth / sourceWidth));
+            targets.add(new Target(thumbnailWidth, height, RenditionType.THUMBNAIL));
+        }
+
+        return targets.stream()
+                .collect(Collectors.toMap(t -> t.width() + "x" + t.height(), t -> t, (a, b) -> a))
+                .values().stream()
+                .sorted(Comparator.comparingInt(Target::width).reversed())
+                .toList();
+    }
+
+    // Largest size with the source aspect ratio that fits inside the box
+    private static int[] fit(int sourceWidth, int sourceHeight, int boxWidth, int boxHeight) {
+        double scale = Math.min((double) boxWidth / sourceWidth, (double) boxHeight / sourceHeight);
+        return new int[] {
+                Math.max(1, (int) Math.round(sourceWidth * scale)),
+                Math.max(1, (int) Math.round(sourceHeight * scale)) };
+    }
+
+    private Decoded decode(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Plan from the header before allocating any bitmap
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                long pixels = (long) width * height;
+                if (pixels > maxSourcePixels) {
+                    throw new IOException("Image too large for renditions: " + pixels + " pixels");
+                }
+                List<Target> targets = planTargets(width, height);
+                if (targets.isEmpty()) {
+                    return new Decoded(null, targets); // Nothing smaller to make
+                }
+
+                // Keep every nth pixel while decoding, staying at least twice the largest rendition,
+                // then subsample further past the memory cap as long as the largest still fits
+                Target largest = targets.get(0);
+                int factor = Math.max(1, Math.min(width / (2 * largest.width()), height / (2 * largest.height())));
+                factor = Math.max(factor, (int) Math.ceil(Math.sqrt((double) pixels / maxDecodedPixels)));
+                if (Math.ceilDiv(width, factor) < largest.width() || Math.ceilDiv(height, factor) < largest.height()) {
+                    throw new IOException("Image too large for renditions: " + pixels + " pixels");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return new Decoded(reader.read(0, param), targets);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halve repeatedly, then a final bilinear step, for clean downscaling
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    // ================= SERVING =================
+
+    public Map<String, List<ContentRendition>> findRenditions(Collection<String> sourceKeys) {
+        if (sourceKeys.isEmpty()) {
+            return Map.of();
+        }
+        return renditionRepository.findBySourceS3KeyIn(sourceKeys).stream()
+                .collect(Collectors.groupingBy(ContentRendition::getSourceS3Key));
+    }
+
+    /**
+     * Picks the key to serve on a screen: the smallest screen rendition that
+     * still fills the screen's fitted size, otherwise the original.
+     */
+    public String selectForScreen(String sourceKey, List<ContentRendition> renditions, Integer screenWidth,
+            Integer screenHeight) {
+        if (renditions == null || renditions.isEmpty() || screenWidth == null || screenHeight == null) {
+            return sourceKey;
+        }
+
+        return renditions.stream()
+                .filter(r -> r.getRenditionType() == RenditionType.SCREEN)
+                .filter(r -> r.getWidth() >= fit(r.getWidth(), r.getHeight(), screenWidth, screenHeight)[0])
+                .min(Comparator.comparingInt(ContentRendition::getWidth))
+                .map(ContentRendition::getS3Key)
+                .orElse(sourceKey);
+    }
+
+    // The thumbnail, or the smallest rendition when a screen class took its size
+    public String thumbnailKey(String sourceKey, List<ContentRendition> renditions) {
+        if (renditions == null) {
+            return sourceKey;
+        }
+        return renditions.stream()
+                .min(Comparator.comparingInt(ContentRendition::getWidth))
+                .map(ContentRendition::getS3Key)
+                .orElse(sourceKey);
+    }
+
+    /**
+     * Deletes the renditions of originals that are being removed. The objects go
+     * through the S3 delete queue; returns how many were queued.
+     */
+    public int deleteRenditions(Collection<String> sourceKeys) {
+        if (sourceKeys.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = renditionRepository.findBySourceS3KeyIn(sourceKeys).stream()
+                .map(ContentRendition::getS3Key)
+                .toList();
+        renditionRepository.deleteBySourceS3Keys(sourceKeys);
+        return s3DeletionQueue.enqueue(approvedBucket, keys);
+    }
+}
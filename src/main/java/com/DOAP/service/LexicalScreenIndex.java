@@ -0,0 +1,296 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.Screen;
+import com.DOAP.entity.enums.FootfallCategory;
+import com.DOAP.entity.enums.ScreenStatus;
+import com.DOAP.entity.enums.VisibilityLevel;
+import com.DOAP.repository.ScreenRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process BM25 index over ACTIVE screens, for ranking without the ML
+ * service.
+ *
+ * Each screen is indexed from its description, category, city, zone,
+ * footfall and visibility, with the short structured fields weighted higher
+ * than free text. Words are lower-cased, lightly stemmed and mapped through a
+ * synonym table to one canonical term, so "cafe" in an advert matches
+ * "restaurant" on a screen. Scores are normalised by the query's BM25 upper
+ * bound to a 0..1 range.
+ *
+ * Used as the fallback when the ML service is unavailable and as an optional
+ * first-stage candidate filter before the neural ranking.
+ */
+@Service
+@Slf4j
+public class LexicalScreenIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double FIELD_WEIGHT = 2.0;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it", "of", "on",
+            "or", "our", "the", "this", "to", "we", "with", "your", "you", "all", "near", "time", "preferred",
+            "advertisement", "related", "terms", "text", "screen", "display", "am", "pm");
+
+    // Canonical term -> words that mean the same thing for ad placement
+    private static final Map<String, List<String>> SYNONYM_GROUPS = Map.ofEntries(
+            Map.entry("food", List.of("restaurant", "cafe", "eatery", "dining", "dine", "diner", "foodcourt",
+                    "bakery", "snack", "pizza", "burger", "coffee", "kitchen", "canteen")),
+            Map.entry("hotel", List.of("hospitality", "resort", "lodge", "lodging", "stay", "inn", "hostel")),
+            Map.entry("education", List.of("coaching", "tuition", "school", "college", "university", "institute",
+                    "student", "academy", "class", "campus", "exam")),
+            Map.entry("event", List.of("concert", "festival", "wedding", "exhibition", "show", "expo", "party")),
+            Map.entry("retail", List.of("shop", "shopping", "store", "mall", "market", "boutique", "showroom",
+                    "outlet", "supermarket", "fashion", "apparel", "clothing")),
+            Map.entry("health", List.of("healthcare", "hospital", "clinic", "pharmacy", "medical", "doctor",
+                    "wellness", "gym", "fitness", "dental")),
+            Map.entry("property", List.of("realestate", "estate", "apartment", "housing", "flat", "villa",
+                    "builder", "realty", "plot")),
+            Map.entry("auto", List.of("automotive", "car", "vehicle", "bike", "motorcycle", "dealership",
+                    "garage", "petrol", "fuel")),
+            Map.entry("tech", List.of("technology", "electronic", "gadget", "software", "mobile", "phone",
+                    "laptop", "computer", "it")),
+            Map.entry("transit", List.of("metro", "station", "railway", "train", "bus", "airport", "commuter",
+                    "highway", "junction", "toll")),
+            Map.entry("office", List.of("corporate", "business", "professional", "workplace", "techpark",
+                    "cowork", "coworking")),
+            Map.entry("busy", List.of("crowd", "crowded", "footfall", "traffic", "popular", "bustling",
+                    "heavy")),
+            Map.entry("visible", List.of("visibility", "prominent", "eyecatching", "highlighted", "facing")));
+
+    private static final Map<String, String> CANONICAL = new HashMap<>();
+
+    static {
+        SYNONYM_GROUPS.forEach((canonical, words) -> {
+            CANONICAL.put(canonical, canonical);
+            words.forEach(word -> CANONICAL.put(word, canonical));
+        });
+    }
+
+    private record Postings(int[] docs, float[] termFrequencies, double idf) {
+    }
+
+    private record Snapshot(long[] screenIds, float[] docLengths, double avgDocLength, Map<String, Postings> terms) {
+        int size() {
+            return screenIds.length;
+        }
+    }
+
+    private final ScreenRepository screenRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new float[0], 0, Map.of());
+
+    // Rebuilds triggered by catalog changes run one at a time off the caller's thread
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "lexical-screen-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LexicalScreenIndex(ScreenRepository screenRepository) {
+        this.screenRepository = screenRepository;
+    }
+
+    public boolean isReady() {
+        return snapshot.size() > 0;
+    }
+
+    public void rebuildAsync() {
+        rebuildExecutor.execute(this::rebuildSafely);
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.lexical.reconcile-interval-ms:300000}")
+    public void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Lexical screen index rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        List<Screen> active = screenRepository.findByStatus(ScreenStatus.ACTIVE);
+
+        long[] ids = new long[active.size()];
+        float[] lengths = new float[active.size()];
+        Map<String, Map<Integer, Float>> termDocs = new HashMap<>();
+
+        for (int doc = 0; doc < active.size(); doc++) {
+            Screen screen = active.get(doc);
+            ids[doc] = screen.getId();
+
+            Map<String, Float> frequencies = new HashMap<>();
+            addTerms(frequencies, screen.getDescription(), DESCRIPTION_WEIGHT);
+            addTerms(frequencies, screen.getCategory(), FIELD_WEIGHT);
+            addTerms(frequencies, screen.getCity(), FIELD_WEIGHT);
+            addTerms(frequencies, screen.getZone(), FIELD_WEIGHT);
+            if (screen.getFootfallCategory() == FootfallCategory.HIGH
+                    || screen.getFootfallCategory() == FootfallCategory.VERY_HIGH) {
+                frequencies.merge("busy", (float) FIELD_WEIGHT, Float::sum);
+            }
+            if (screen.getVisibilityLevel() == VisibilityLevel.HIGH) {
+                frequencies.merge("visible", (float) FIELD_WEIGHT, Float::sum);
+            }
+
+            float length = 0;
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                termDocs.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(doc, entry.getValue());
+                length += entry.getValue();
+            }
+            lengths[doc] = length;
+        }
+
+        double avgLength = 0;
+        for (float length : lengths) {
+            avgLength += length;
+        }
+        avgLength = lengths.length == 0 ? 0 : avgLength / lengths.length;
+
+        int n = active.size();
+        Map<String, Postings> terms = new HashMap<>(termDocs.size() * 2);
+        termDocs.forEach((term, docs) -> {
+            int[] docIds = new int[docs.size()];
+            float[] tfs = new float[docs.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> entry : docs.entrySet()) {
+                docIds[i] = entry.getKey();
+                tfs[i] = entry.getValue();
+                i++;
+            }
+            // BM25 idf, floored at a small positive value for very common terms
+            double idf = Math.max(0.01, Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5)));
+            terms.put(term, new Postings(docIds, tfs, idf));
+        });
+
+        snapshot = new Snapshot(ids, lengths, avgLength, terms);
+        log.info("Lexical screen index rebuilt: {} screens, {} terms", n, terms.size());
+    }
+
+    /**
+     * Best k screens for a text with a normalised score of at least minScore,
+     * highest first.
+     */
+    public List<ScoredScreen> topK(String text, int k, double minScore) {
+        Snapshot current = snapshot;
+        Set<String> queryTerms = analyze(text);
+        if (current.size() == 0 || queryTerms.isEmpty() || k <= 0) {
+            return List.of();
+        }
+
+        double[] scores = new double[current.size()];
+        double upperBound = 0;
+        for (String term : queryTerms) {
+            Postings postings = current.terms().get(term);
+            if (postings == null) {
+                continue;
+            }
+            upperBound += postings.idf() * (K1 + 1);
+            for (int i = 0; i < postings.docs().length; i++) {
+                int doc = postings.docs()[i];
+                double tf = postings.termFrequencies()[i];
+                double norm = K1 * (1 - B + B * current.docLengths()[doc] / current.avgDocLength());
+                scores[doc] += postings.idf() * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+        if (upperBound == 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(scores[a], scores[b]));
+        for (int doc = 0; doc < scores.length; doc++) {
+            scores[doc] /= upperBound;
+            if (scores[doc] <= 0 || scores[doc] < minScore) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(doc);
+            } else if (scores[doc] > scores[heap.peek()]) {
+                heap.poll();
+                heap.add(doc);
+            }
+        }
+
+        List<ScoredScreen> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int doc = heap.poll();
+            result.add(new ScoredScreen(current.screenIds()[doc], scores[doc]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static void addTerms(Map<String, Float> frequencies, String text, double weight) {
+        if (text == null) {
+            return;
+        }
+        for (String term : tokens(text)) {
+            frequencies.merge(term, (float) weight, Float::sum);
+        }
+    }
+
+    // Distinct canonical terms; query term frequency is ignored
+    static Set<String> analyze(String text) {
+        return text == null ? Set.of() : new LinkedHashSet<>(tokens(text));
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        // "real estate", "food court" and similar pairs are joined before splitting
+        String normalized = text.toLowerCase(Locale.ROOT)
+                .replace("real estate", "realestate")
+                .replace("food court", "foodcourt")
+                .replace("tech park", "techpark")
+                .replace("eye-catching", "eyecatching")
+                .replace("eye catching", "eyecatching");
+        for (String word : normalized.split("[^a-z0-9]+")) {
+            if (word.length() < 2 || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            String canonical = CANONICAL.get(word);
+            if (canonical == null) {
+                String stemmed = stem(word);
+                canonical = CANONICAL.getOrDefault(stemmed, stemmed);
+            }
+            tokens.add(canonical);
+        }
+        return tokens;
+    }
+
+    // Plural stripping only; anything more aggressive merges unrelated place names
+    private static String stem(String word) {
+        if (word.length() > 4 && word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("sses") || word.endsWith("xes") || word.endsWith("ches") || word.endsWith("shes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
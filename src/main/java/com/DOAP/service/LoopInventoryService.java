@@ -0,0 +1,153 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.Booking;
+import com.DOAP.entity.Screen;
+import com.DOAP.entity.ScreenHourInventory;
+import com.DOAP.repository.BookingRepository;
+import com.DOAP.repository.ScreenHourInventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-spot inventory of loop screens.
+ *
+ * A loop screen plays each hour as a loop of loopSpots spots, and a booking
+ * holds some of them in every hour it covers. Admission is a conditional
+ * increment of one counter row per (screen, hour) instead of an overlap scan
+ * under a screen lock, so bookings only contend when they share an hour. A
+ * counter row is created by the first booking of its hour, counting whatever
+ * bookings already overlap it (an exclusive booking fills the loop), which
+ * is how an exclusive screen that becomes a loop screen keeps its bookings.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoopInventoryService {
+
+    private final ScreenHourInventoryRepository inventoryRepository;
+    private final BookingRepository bookingRepository;
+
+    public boolean isLoopScreen(Screen screen) {
+        return screen.getLoopSpots() != null && screen.getLoopSpots() > 1;
+    }
+
+    /**
+     * Takes spots in every hour of [start, end) in the caller's transaction,
+     * or throws if any hour has fewer left; the caller's rollback then undoes
+     * the hours already taken.
+     */
+    public void admit(Long screenId, int capacity, LocalDateTime start, LocalDateTime end, int spots) {
+        if (spots < 1 || spots > capacity) {
+            throw new IllegalArgumentException("Spots must be between 1 and " + capacity);
+        }
+        List<LocalDateTime> hours = hoursOf(start, end);
+        createMissingCounters(screenId, capacity, hours);
+
+        int admitted = inventoryRepository.admit(screenId, hours, spots);
+        if (admitted < hours.size()) {
+            throw new RuntimeException("Slot unavailable: fewer than " + spots
+                    + " spots left in at least one hour of the loop");
+        }
+    }
+
+    /**
+     * Gives back the spots of a loop booking that is no longer active.
+     */
+    public void release(Booking booking) {
+        if (booking.getSpots() == null) {
+            return;
+        }
+        List<LocalDateTime> hours = hoursOf(booking.getStartDatetime(), booking.getEndDatetime());
+        int released = inventoryRepository.release(booking.getScreenId(), hours, booking.getSpots());
+        if (released < hours.size()) {
+            log.warn("Released {} of {} loop hours for booking {}", released, hours.size(), booking.getId());
+        }
+    }
+
+    /**
+     * Checks that a screen, locked by the caller, can change to a loop of
+     * loopSpots: no hour still to play may have more spots sold than that.
+     */
+    public void checkLoopSize(Long screenId, int loopSpots) {
+        int sold = inventoryRepository.findMaxSoldSpotsFrom(screenId,
+                LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+        if (sold > loopSpots) {
+            throw new IllegalArgumentException("Cannot shrink the loop to " + loopSpots + " spots: "
+                    + sold + " spots are already sold in an upcoming hour");
+        }
+    }
+
+    /**
+     * Spots left per hour starting at from, for count hours.
+     */
+    public int[] spotsLeft(Screen screen, LocalDateTime from, int count) {
+        int[] left = new int[count];
+        Arrays.fill(left, screen.getLoopSpots());
+        List<ScreenHourInventory> counters = inventoryRepository.findByScreenIdAndHourStartBetween(screen.getId(),
+                from, from.plusHours(count - 1));
+        for (ScreenHourInventory counter : counters) {
+            int at = (int) ChronoUnit.HOURS.between(from, counter.getHourStart());
+            left[at] = Math.max(0, screen.getLoopSpots() - counter.getSoldSpots());
+        }
+        return left;
+    }
+
+    /**
+     * Hour starts of a loop booking, which has to cover whole hours.
+     */
+    public static List<LocalDateTime> hoursOf(LocalDateTime start, LocalDateTime end) {
+        if (!start.equals(start.truncatedTo(ChronoUnit.HOURS)) || !end.equals(end.truncatedTo(ChronoUnit.HOURS))) {
+            throw new IllegalArgumentException("Loop bookings must start and end on the hour");
+        }
+        List<LocalDateTime> hours = new ArrayList<>();
+        for (LocalDateTime hour = start; hour.isBefore(end); hour = hour.plusHours(1)) {
+            hours.add(hour);
+        }
+        return hours;
+    }
+
+    /**
+     * First hour start at or after time, where a loop booking there could begin.
+     */
+    public static LocalDateTime hourAtOrAfter(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+
+    // One booking scan covers all missing hours; rows that exist are never rescanned
+    private void createMissingCounters(Long screenId, int capacity, List<LocalDateTime> hours) {
+        Set<LocalDateTime> existing = new HashSet<>(inventoryRepository.findExistingHours(screenId, hours));
+        List<LocalDateTime> missing = hours.stream().filter(hour -> !existing.contains(hour)).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        List<Booking> overlapping = bookingRepository.findActiveOverlapping(List.of(screenId), missing.get(0),
+                missing.get(missing.size() - 1).plusHours(1));
+        Map<LocalDateTime, Integer> sold = missing.stream()
+                .collect(Collectors.toMap(Function.identity(), hour -> 0));
+        for (Booking booking : overlapping) {
+            int taken = booking.getSpots() != null ? booking.getSpots() : capacity;
+            for (LocalDateTime hour : missing) {
+                if (booking.getStartDatetime().isBefore(hour.plusHours(1)) && booking.getEndDatetime().isAfter(hour)) {
+                    sold.merge(hour, taken, (a, b) -> Math.min(capacity, a + b));
+                }
+            }
+        }
+        for (LocalDateTime hour : missing) {
+            inventoryRepository.insertIfAbsent(screenId, hour, sold.get(hour));
+        }
+    }
+}
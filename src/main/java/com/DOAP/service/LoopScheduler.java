@@ -0,0 +1,104 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.ScreenLoopDTO;
+import com.DOAP.entity.Booking;
+import com.DOAP.entity.Screen;
+import com.DOAP.entity.enums.BookingStatus;
+import com.DOAP.repository.BookingRepository;
+import com.DOAP.repository.ScreenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Packs the confirmed bookings of one screen hour into its loop.
+ *
+ * Spots are handed out by smooth weighted round-robin, each booking weighted
+ * by the spots it bought and unsold spots by what is left, so a booking gets
+ * exactly its spots and they are spread out rather than played back to back.
+ * The loop is rotated by the hour, so no creative always plays first. An
+ * exclusive booking, or a screen without loop inventory, fills the loop.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoopScheduler {
+
+    private final ScreenRepository screenRepository;
+    private final BookingRepository bookingRepository;
+    private final LoopInventoryService loopInventoryService;
+
+    public ScreenLoopDTO buildLoop(Long screenId, LocalDateTime hour) {
+        Screen screen = screenRepository.findById(screenId)
+                .orElseThrow(() -> new RuntimeException("Screen not found"));
+        LocalDateTime hourStart = hour.truncatedTo(ChronoUnit.HOURS);
+        boolean loop = loopInventoryService.isLoopScreen(screen);
+        int loopSpots = loop ? screen.getLoopSpots() : 1;
+        int spotSeconds = loop ? screen.getSpotSeconds() : 3600;
+
+        List<Booking> bookings = bookingRepository
+                .findActiveOverlapping(List.of(screenId), hourStart, hourStart.plusHours(1)).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.CONFIRMED)
+                .sorted(Comparator.comparing(Booking::getId))
+                .toList();
+
+        // Last weight is the unsold remainder
+        int[] weights = new int[bookings.size() + 1];
+        int sold = 0;
+        for (int i = 0; i < bookings.size() && sold < loopSpots; i++) {
+            Integer spots = bookings.get(i).getSpots();
+            weights[i] = Math.min(loopSpots - sold, spots != null && loop ? spots : loopSpots);
+            sold += weights[i];
+        }
+        weights[bookings.size()] = loopSpots - sold;
+
+        int[] order = interleave(weights, loopSpots);
+        long hourIndex = hourStart.toLocalDate().toEpochDay() * 24 + hourStart.getHour();
+        int rotation = (int) Math.floorMod(hourIndex, (long) loopSpots);
+
+        List<ScreenLoopDTO.Spot> spots = new ArrayList<>(loopSpots);
+        for (int position = 0; position < loopSpots; position++) {
+            int pick = order[(position + rotation) % loopSpots];
+            Booking booking = pick < bookings.size() ? bookings.get(pick) : null;
+            spots.add(ScreenLoopDTO.Spot.builder()
+                    .position(position)
+                    .offsetSeconds(position * spotSeconds)
+                    .bookingId(booking != null ? booking.getId() : null)
+                    .contentId(booking != null ? booking.getContentId() : null)
+                    .build());
+        }
+
+        return ScreenLoopDTO.builder()
+                .screenId(screenId)
+                .hourStart(hourStart)
+                .spotSeconds(spotSeconds)
+                .spots(spots)
+                .build();
+    }
+
+    /**
+     * Smooth weighted round-robin over weights summing to total: every step
+     * credits each entry its weight and picks the most credited, which then
+     * pays total. Entry i is picked exactly weights[i] times.
+     */
+    static int[] interleave(int[] weights, int total) {
+        int[] order = new int[total];
+        int[] credit = new int[weights.length];
+        for (int step = 0; step < total; step++) {
+            int pick = -1;
+            for (int i = 0; i < weights.length; i++) {
+                credit[i] += weights[i];
+                if (weights[i] > 0 && (pick < 0 || credit[i] > credit[pick])) {
+                    pick = i;
+                }
+            }
+            credit[pick] -= total;
+            order[step] = pick;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,267 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.MLBatchRecommendationRequest;
+import com.DOAP.dto.MLBatchRecommendationWrapper;
+import com.DOAP.dto.MLEmbeddingRequest;
+import com.DOAP.dto.MLEmbeddingResponse;
+import com.DOAP.dto.MLRecommendationRequest;
+import com.DOAP.dto.MLRecommendationResponse;
+import com.DOAP.dto.MLRecommendationWrapper;
+import com.DOAP.dto.MlClientStatsDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces concurrent per-advertiser ML calls into batched requests.
+ *
+ * Requests arriving within max-wait-ms of the first one (up to max-size) go
+ * out as one call: query embeddings as one /embed call, remote rankings as one
+ * /recommend/batch call with every advertiser text against a single shared
+ * screen list. Each caller blocks until its own slice of the result is back.
+ * A batch of one uses the plain single-text request, so a quiet system pays
+ * only the wait.
+ */
+@Service
+@Slf4j
+public class MlRequestBatcher {
+
+    private final MlServiceClient mlServiceClient;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    private final Lane<String, float[]> embedLane;
+    private final Lane<RankingQuery, List<MLRecommendationResponse>> recommendLane;
+
+    // Batches block on HTTP I/O, so each runs on its own virtual thread
+    private final ExecutorService dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record RankingQuery(String advertiserText, List<MLRecommendationRequest.MLScreenData> screens) {
+    }
+
+    public MlRequestBatcher(MlServiceClient mlServiceClient,
+            @Value("${ml.batch.enabled:true}") boolean enabled,
+            @Value("${ml.batch.max-size:16}") int maxBatchSize,
+            @Value("${ml.batch.max-wait-ms:5}") long maxWaitMs) {
+        this.mlServiceClient = mlServiceClient;
+        this.enabled = enabled && maxBatchSize > 1;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.embedLane = new Lane<>("EMBED", this::embedBatch);
+        this.recommendLane = new Lane<>("RECOMMEND", this::recommendBatch);
+    }
+
+    /**
+     * Embedding of one query text as returned by the ML service.
+     */
+    public float[] embed(String text) {
+        return embedLane.submit(text);
+    }
+
+    /**
+     * Scores of the given screens for one advertiser text, highest first.
+     */
+    public List<MLRecommendationResponse> recommend(String advertiserText,
+            List<MLRecommendationRequest.MLScreenData> screens) {
+        return recommendLane.submit(new RankingQuery(advertiserText, screens));
+    }
+
+    public List<MlClientStatsDTO.BatchStats> getStats() {
+        return List.of(embedLane.toStats(), recommendLane.toStats());
+    }
+
+    // ================= BATCH CALLS =================
+
+    private List<float[]> embedBatch(List<String> texts) {
+        MLEmbeddingResponse response = mlServiceClient.post(MlServiceClient.Endpoint.EMBED,
+                new MLEmbeddingRequest(texts), MLEmbeddingResponse.class);
+
+        if (response == null || response.getEmbeddings() == null
+                || response.getEmbeddings().size() != texts.size()) {
+            throw new IllegalStateException("ML service returned no embeddings"
+                    + (response != null && response.getError() != null ? ": " + response.getError() : ""));
+        }
+        return response.getEmbeddings();
+    }
+
+    private List<List<MLRecommendationResponse>> recommendBatch(List<RankingQuery> queries) {
+        if (queries.size() == 1) {
+            RankingQuery query = queries.get(0);
+            MLRecommendationWrapper wrapper = mlServiceClient.post(MlServiceClient.Endpoint.RECOMMEND,
+                    new MLRecommendationRequest(query.advertiserText(), query.screens()),
+                    MLRecommendationWrapper.class);
+            if (wrapper != null && wrapper.getError() != null) {
+                log.error("ML service error: {}", wrapper.getError());
+            }
+            return List.of(wrapper == null || wrapper.getResults() == null ? List.of() : wrapper.getResults());
+        }
+
+        // Callers usually send the same catalog; the union covers candidate-filtered lists too
+        Map<Long, MLRecommendationRequest.MLScreenData> shared = new LinkedHashMap<>();
+        for (RankingQuery query : queries) {
+            query.screens().forEach(screen -> shared.putIfAbsent(screen.getId(), screen));
+        }
+
+        MLBatchRecommendationWrapper wrapper = mlServiceClient.post(MlServiceClient.Endpoint.RECOMMEND_BATCH,
+                new MLBatchRecommendationRequest(queries.stream().map(RankingQuery::advertiserText).toList(),
+                        new ArrayList<>(shared.values())),
+                MLBatchRecommendationWrapper.class);
+
+        if (wrapper == null || wrapper.getResults() == null || wrapper.getResults().size() != queries.size()) {
+            throw new IllegalStateException("ML service returned no batch rankings"
+                    + (wrapper != null && wrapper.getError() != null ? ": " + wrapper.getError() : ""));
+        }
+
+        List<List<MLRecommendationResponse>> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            if (queries.get(i).screens().size() == shared.size()) {
+                results.add(wrapper.getResults().get(i));
+                continue;
+            }
+            Set<Long> own = queries.get(i).screens().stream()
+                    .map(MLRecommendationRequest.MLScreenData::getId)
+                    .collect(Collectors.toSet());
+            results.add(wrapper.getResults().get(i).stream()
+                    .filter(response -> own.contains(response.getScreenId()))
+                    .sorted(Comparator.comparing(MLRecommendationResponse::getScore).reversed())
+                    .toList());
+        }
+        return results;
+    }
+
+    // ================= LANES =================
+
+    private record Pending<T, R>(T item, CompletableFuture<R> result) {
+    }
+
+    /**
+     * One queue of waiting callers and the collector thread that cuts it into
+     * batches.
+     */
+    private final class Lane<T, R> {
+        private final String name;
+        private final Function<List<T>, List<R>> batchCall;
+        private final LinkedBlockingQueue<Pending<T, R>> queue = new LinkedBlockingQueue<>();
+        private final Thread collector;
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+
+        Lane(String name, Function<List<T>, List<R>> batchCall) {
+            this.name = name;
+            this.batchCall = batchCall;
+            this.collector = new Thread(this::collect, "ml-batch-" + name.toLowerCase());
+            this.collector.setDaemon(true);
+            if (enabled) {
+                this.collector.start();
+            }
+        }
+
+        R submit(T item) {
+            requests.increment();
+            if (!enabled) {
+                batches.increment();
+                return batchCall.apply(List.of(item)).get(0);
+            }
+
+            Pending<T, R> pending = new Pending<>(item, new CompletableFuture<>());
+            queue.add(pending);
+            try {
+                return pending.result().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for ML batch", e);
+            } catch (ExecutionException e) {
+                // Callers see the same exceptions as an unbatched call
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        private void collect() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+                    batch.add(queue.take());
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatchSize) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= maxBatchSize || remaining <= 0) {
+                            break;
+                        }
+                        Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    dispatchExecutor.execute(() -> dispatch(batch));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            failAll(queue, new IllegalStateException("ML request batcher stopped"));
+        }
+
+        private void dispatch(List<Pending<T, R>> batch) {
+            batches.increment();
+            try {
+                List<R> results = batchCall.apply(batch.stream().map(Pending::item).toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result().complete(results.get(i));
+                }
+            } catch (RuntimeException e) {
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+        }
+
+        private void failAll(LinkedBlockingQueue<Pending<T, R>> waiting, RuntimeException e) {
+            List<Pending<T, R>> left = new ArrayList<>();
+            waiting.drainTo(left);
+            left.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+
+        void stop() {
+            collector.interrupt();
+        }
+
+        MlClientStatsDTO.BatchStats toStats() {
+            long requestCount = requests.sum();
+            long batchCount = batches.sum();
+            return MlClientStatsDTO.BatchStats.builder()
+                    .lane(name)
+                    .requests(requestCount)
+                    .batches(batchCount)
+                    .averageBatchSize(batchCount == 0 ? 0.0 : (double) requestCount / batchCount)
+                    .build();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        embedLane.stop();
+        recommendLane.stop();
+        dispatchExecutor.shutdownNow();
+    }
+}
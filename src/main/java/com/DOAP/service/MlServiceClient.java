@@ -0,0 +1,439 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.MlClientStatsDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Client for the Python ML service.
+ *
+ * All calls go through one circuit breaker: when too many recent calls fail
+ * or time out the circuit opens and calls fail fast with
+ * MlServiceUnavailableException, so callers can fall back to cached results.
+ * After a cool-down a single probe is let through (half-open); its outcome
+ * closes or re-opens the circuit.
+ *
+ * While the circuit is closed, a call that has not answered by the endpoint's
+ * observed p95 latency gets a second (hedged) request and the first success
+ * wins. Hedges are capped to a fraction of calls so a slow service is not
+ * doubled in load. Per-endpoint latency histograms feed the hedge delay and
+ * /api/admin/metrics/ml.
+ */
+@Service
+@Slf4j
+public class MlServiceClient {
+
+    public enum Endpoint {
+        EMBED("/embed"),
+        RECOMMEND("/recommend"),
+        RECOMMEND_BATCH("/recommend/batch");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    public static class MlServiceUnavailableException extends RuntimeException {
+        public MlServiceUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    // Hedge delay is only trusted once an endpoint has this many samples
+    private static final long MIN_SAMPLES_FOR_HEDGING = 50;
+
+    private final RestTemplate restTemplate;
+    private final String mlServiceUrl;
+    private final boolean hedgingEnabled;
+    private final long minHedgeDelayMs;
+    private final double maxHedgeRatio;
+    private final long callTimeoutMs;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    // Attempts block on HTTP I/O, so each runs on its own virtual thread
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MlServiceClient(RestTemplate restTemplate,
+            @Value("${ml.service.url:http://localhost:5000}") String mlServiceUrl,
+            @Value("${ml.client.hedge.enabled:true}") boolean hedgingEnabled,
+            @Value("${ml.client.hedge.min-delay-ms:20}") long minHedgeDelayMs,
+            @Value("${ml.client.hedge.max-ratio:0.1}") double maxHedgeRatio,
+            @Value("${ml.client.connect-timeout-ms:500}") long connectTimeoutMs,
+            @Value("${ml.client.read-timeout-ms:5000}") long readTimeoutMs,
+            @Value("${ml.client.circuit.window-size:20}") int windowSize,
+            @Value("${ml.client.circuit.min-calls:10}") int minCalls,
+            @Value("${ml.client.circuit.failure-rate:0.5}") double failureRate,
+            @Value("${ml.client.circuit.open-ms:10000}") long openMs) {
+        this.restTemplate = restTemplate;
+        this.mlServiceUrl = mlServiceUrl;
+        this.hedgingEnabled = hedgingEnabled;
+        this.minHedgeDelayMs = minHedgeDelayMs;
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.callTimeoutMs = connectTimeoutMs + readTimeoutMs;
+        this.circuitBreaker = new CircuitBreaker(windowSize, minCalls, failureRate, openMs);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    /**
+     * POSTs to the ML service. Throws MlServiceUnavailableException when the
+     * circuit is open or the call fails with a timeout, connection error or
+     * 5xx. Client errors (4xx) are rethrown as-is and do not count against the
+     * circuit.
+     */
+    public <T> T post(Endpoint endpoint, Object body, Class<T> responseType) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new MlServiceUnavailableException("ML service circuit is open", null);
+        }
+
+        EndpointStats endpointStats = stats.get(endpoint);
+        endpointStats.calls.increment();
+        Supplier<T> attempt = () -> timed(endpointStats,
+                () -> restTemplate.postForObject(mlServiceUrl + endpoint.path, body, responseType));
+
+        try {
+            T result = shouldHedge(endpointStats) ? callHedged(endpointStats, attempt) : callOnce(attempt);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (ResourceAccessException | HttpServerErrorException | TimeoutException e) {
+            endpointStats.failures.increment();
+            circuitBreaker.onFailure();
+            throw new MlServiceUnavailableException("ML service " + endpoint.path + " failed: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            // Bad request etc: the service is up, the call was wrong
+            circuitBreaker.onSuccess();
+            throw e;
+        }
+    }
+
+    private boolean shouldHedge(EndpointStats endpointStats) {
+        return hedgingEnabled
+                && circuitBreaker.isClosed()
+                && endpointStats.histogram.count() >= MIN_SAMPLES_FOR_HEDGING
+                && endpointStats.hedges.sum() < endpointStats.calls.sum() * maxHedgeRatio;
+    }
+
+    private <T> T callOnce(Supplier<T> attempt) throws TimeoutException {
+        return await(CompletableFuture.supplyAsync(attempt, executor), callTimeoutMs);
+    }
+
+    private <T> T callHedged(EndpointStats endpointStats, Supplier<T> attempt) throws TimeoutException {
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(attempt, executor);
+        long hedgeDelayMs = Math.max(minHedgeDelayMs, endpointStats.histogram.percentile(0.95));
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Slower than p95: send a second request and take whichever succeeds first
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ML service call interrupted", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+
+        endpointStats.hedges.increment();
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync(attempt, executor);
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        for (CompletableFuture<T> candidate : List.of(primary, hedge)) {
+            candidate.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (winner.complete(value) && candidate == hedge) {
+                        endpointStats.hedgeWins.increment();
+                    }
+                } else if (failed.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+
+        try {
+            return await(winner, callTimeoutMs);
+        } finally {
+            primary.cancel(true);
+            hedge.cancel(true);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future, long timeoutMs) throws TimeoutException {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ML service call interrupted", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof java.util.concurrent.CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    private static <T> T timed(EndpointStats endpointStats, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            endpointStats.histogram.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    public boolean isCircuitOpen() {
+        return !circuitBreaker.isClosed();
+    }
+
+    public MlClientStatsDTO getStats() {
+        return MlClientStatsDTO.builder()
+                .circuitState(circuitBreaker.state().name())
+                .circuitOpenings(circuitBreaker.openings.sum())
+                .shortCircuited(circuitBreaker.shortCircuited.sum())
+                .endpoints(Arrays.stream(Endpoint.values())
+                        .map(endpoint -> stats.get(endpoint).toStats(endpoint))
+                        .toList())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class EndpointStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        MlClientStatsDTO.EndpointStats toStats(Endpoint endpoint) {
+            return MlClientStatsDTO.EndpointStats.builder()
+                    .endpoint(endpoint.path)
+                    .calls(calls.sum())
+                    .failures(failures.sum())
+                    .hedges(hedges.sum())
+                    .hedgeWins(hedgeWins.sum())
+                    .p50Ms(histogram.percentile(0.50))
+                    .p95Ms(histogram.percentile(0.95))
+                    .p99Ms(histogram.percentile(0.99))
+                    .latencyHistogram(histogram.snapshot())
+                    .build();
+        }
+    }
+
+    /**
+     * Lock-free latency histogram with buckets growing by 25% from 1 ms to
+     * about 60 s. Percentiles are reported as the bucket's upper bound, so
+     * they are accurate to within one bucket.
+     */
+    static final class LatencyHistogram {
+        private static final long[] UPPER_BOUNDS_MS;
+
+        static {
+            List<Long> bounds = new java.util.ArrayList<>();
+            for (double bound = 1; bound < 60_000; bound *= 1.25) {
+                long rounded = Math.round(bound);
+                if (bounds.isEmpty() || rounded > bounds.get(bounds.size() - 1)) {
+                    bounds.add(rounded);
+                }
+            }
+            bounds.add(Long.MAX_VALUE);
+            UPPER_BOUNDS_MS = bounds.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS_MS.length);
+
+        void record(long millis) {
+            int index = Arrays.binarySearch(UPPER_BOUNDS_MS, millis);
+            counts.incrementAndGet(index >= 0 ? index : -index - 1);
+        }
+
+        long count() {
+            long total = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                total += counts.get(i);
+            }
+            return total;
+        }
+
+        long percentile(double quantile) {
+            long[] snapshot = new long[counts.length()];
+            long total = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    // The overflow bucket reports the largest finite bound
+                    return UPPER_BOUNDS_MS[Math.min(i, UPPER_BOUNDS_MS.length - 2)];
+                }
+            }
+            return UPPER_BOUNDS_MS[UPPER_BOUNDS_MS.length - 2];
+        }
+
+        Map<String, Long> snapshot() {
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length(); i++) {
+                long count = counts.get(i);
+                if (count > 0) {
+                    buckets.put(i == UPPER_BOUNDS_MS.length - 1 ? "+Inf" : String.valueOf(UPPER_BOUNDS_MS[i]), count);
+                }
+            }
+            return buckets;
+        }
+    }
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Failure-rate circuit breaker over a sliding window of the last calls.
+     */
+    private static final class CircuitBreaker {
+        private final boolean[] window;
+        private final int minCalls;
+        private final double failureRate;
+        private final long openNanos;
+
+        private int next;
+        private int recorded;
+        private int failures;
+
+        private State state = State.CLOSED;
+        private long openedAtNanos;
+        private boolean probeInFlight;
+
+        final LongAdder openings = new LongAdder();
+        final LongAdder shortCircuited = new LongAdder();
+
+        CircuitBreaker(int windowSize, int minCalls, double failureRate, long openMs) {
+            this.window = new boolean[windowSize];
+            this.minCalls = minCalls;
+            this.failureRate = failureRate;
+            this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        synchronized boolean isClosed() {
+            return state == State.CLOSED;
+        }
+
+        synchronized boolean tryAcquire() {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAtNanos < openNanos) {
+                        shortCircuited.increment();
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    log.info("ML service circuit half-open, sending probe");
+                    return true;
+                default:
+                    if (probeInFlight) {
+                        shortCircuited.increment();
+                        return false;
+                    }
+                    probeInFlight = true;
+                    return true;
+            }
+        }
+
+        synchronized void onSuccess() {
+            if (state == State.HALF_OPEN) {
+                log.info("ML service probe succeeded, circuit closed");
+                state = State.CLOSED;
+                probeInFlight = false;
+                resetWindow();
+                return;
+            }
+            record(false);
+        }
+
+        synchronized void onFailure() {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && recorded >= minCalls && failures >= failureRate * recorded) {
+                open();
+            }
+        }
+
+        private void record(boolean failed) {
+            if (recorded == window.length) {
+                if (window[next]) {
+                    failures--;
+                }
+            } else {
+                recorded++;
+            }
+            window[next] = failed;
+            if (failed) {
+                failures++;
+            }
+            next = (next + 1) % window.length;
+        }
+
+        private void open() {
+            log.warn("ML service circuit opened ({} of {} recent calls failed)", failures, recorded);
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            probeInFlight = false;
+            openings.increment();
+            resetWindow();
+        }
+
+        private void resetWindow() {
+            Arrays.fill(window, false);
+            next = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+}
@@ -36,6 +36,7 @@ public class PaymentService {
     private final com.DOAP.service.EmailService emailService;
     private final com.DOAP.repository.ScreenRepository screenRepository;
     private final com.DOAP.repository.UserRepository userRepository;
+    private final LoopInventoryService loopInventoryService;
 
     private RazorpayClient razorpayClient;
 
@@ -105,10 +106,21 @@ public class PaymentService {
                 // If booking status is EXPIRED, double check availability before confirming
                 if (booking.getStatus() == BookingStatus.EXPIRED) {
                     log.warn("Payment received for EXPIRED booking ID: {}. Checking for conflicts...", bookingId);
-                    int conflicts = bookingRepository.countConflictingBookings(
-                            booking.getScreenId(),
-                            booking.getStartDatetime(),
-                            booking.getEndDatetime());
+                    int conflicts = 0;
+                    if (booking.getSpots() != null) {
+                        // Loop booking: take its spots back if they are still free
+                        try {
+                            loopInventoryService.admit(booking.getScreenId(), booking.getLoopSize(),
+                                    booking.getStartDatetime(), booking.getEndDatetime(), booking.getSpots());
+                        } catch (RuntimeException e) {
+                            conflicts = 1;
+                        }
+                    } else {
+                        conflicts = bookingRepository.countConflictingBookings(
+                                booking.getScreenId(),
+                                booking.getStartDatetime(),
+                                booking.getEndDatetime());
+                    }
 
                     if (conflicts > 0) {
                         log.error("Slot already taken for EXPIRED booking ID: {}", bookingId);
@@ -1,37 +1,51 @@
 package com.DOAP.service;
 
 import com.DOAP.dto.PlatformSettingsDTO;
+import com.DOAP.dto.PlatformSettingsSnapshot;
 import com.DOAP.entity.PlatformSettings;
 import com.DOAP.repository.PlatformSettingsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PlatformSettingsService {
 
+    private static final Long SETTINGS_ID = 1L;
+
     private final PlatformSettingsRepository platformSettingsRepository;
 
-    public PlatformSettingsDTO getSettings() {
-        PlatformSettings settings = platformSettingsRepository.findById(1L)
-                .orElseGet(() -> createDefaultSettings());
+    // Current settings; replaced as a whole, never mutated
+    private volatile PlatformSettingsSnapshot snapshot;
 
-        return PlatformSettingsDTO.builder()
-                .commissionPercentage(settings.getCommissionPercentage())
-                .minimumBookingDurationMinutes(settings.getMinimumBookingDurationMinutes())
-                .maintenanceMode(settings.getMaintenanceMode())
-                .autoApproveScreens(settings.getAutoApproveScreens())
-                .build();
+    /**
+     * Returns the in-memory settings snapshot (single volatile read).
+     * Loaded from the DB only on first access or when another node bumps the
+     * version.
+     */
+    public PlatformSettingsSnapshot getSnapshot() {
+        PlatformSettingsSnapshot current = snapshot;
+        if (current == null) {
+            current = reload();
+        }
+        return current;
+    }
+
+    public PlatformSettingsDTO getSettings() {
+        return getSnapshot().toDTO();
     }
 
     @Transactional
     public PlatformSettingsDTO updateSettings(PlatformSettingsDTO dto) {
         log.info("Updating platform settings");
 
-        PlatformSettings settings = platformSettingsRepository.findById(1L)
+        PlatformSettings settings = platformSettingsRepository.findById(SETTINGS_ID)
                 .orElseGet(() -> createDefaultSettings());
 
         if (dto.getCommissionPercentage() != null) {
@@ -47,8 +61,64 @@ public class PlatformSettingsService {
             settings.setAutoApproveScreens(dto.getAutoApproveScreens());
         }
 
-        platformSettingsRepository.save(settings);
-        return getSettings();
+        long currentVersion = settings.getSettingsVersion() != null ? settings.getSettingsVersion() : 0L;
+        settings.setSettingsVersion(currentVersion + 1);
+
+        PlatformSettingsSnapshot updated = PlatformSettingsSnapshot.from(platformSettingsRepository.save(settings));
+        publishAfterCommit(updated);
+        return updated.toDTO();
+    }
+
+    /**
+     * Polls the settings version so updates made on other nodes are picked up.
+     * Only reloads the full row when the version has changed.
+     */
+    @Scheduled(fixedDelayString = "${platform.settings.refresh-interval-ms:15000}")
+    public void refreshIfStale() {
+        PlatformSettingsSnapshot current = snapshot;
+        if (current == null) {
+            return; // Not loaded yet, first reader will load it
+        }
+
+        try {
+            Long latestVersion = platformSettingsRepository.findSettingsVersionById(SETTINGS_ID).orElse(null);
+            if (latestVersion != null && latestVersion != current.getVersion()) {
+                log.info("Platform settings version changed {} -> {}, reloading", current.getVersion(),
+                        latestVersion);
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("Platform settings version poll failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized PlatformSettingsSnapshot reload() {
+        PlatformSettings settings = platformSettingsRepository.findById(SETTINGS_ID)
+                .orElseGet(() -> createDefaultSettings());
+        PlatformSettingsSnapshot loaded = PlatformSettingsSnapshot.from(settings);
+        publish(loaded);
+        return snapshot;
+    }
+
+    private void publishAfterCommit(PlatformSettingsSnapshot updated) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(updated);
+                }
+            });
+        } else {
+            publish(updated);
+        }
+    }
+
+    // Versions only move forward, so a slow poll cannot overwrite a newer update
+    private synchronized void publish(PlatformSettingsSnapshot candidate) {
+        PlatformSettingsSnapshot current = snapshot;
+        if (current == null || candidate.getVersion() >= current.getVersion()) {
+            snapshot = candidate;
+        }
     }
 
     private PlatformSettings createDefaultSettings() {
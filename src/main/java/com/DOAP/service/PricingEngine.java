@@ -0,0 +1,161 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.Screen;
+import lombok.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled pricing engine.
+ * Each screen's static multipliers (base rate, quality, size) are folded into a
+ * single hourly rate once, and time-of-week multipliers live in a flat table,
+ * so quoting screens x windows is one primitive multiply per cell.
+ */
+@Service
+public class PricingEngine {
+
+    static final double DEFAULT_BASE_RATE = 500.0;
+
+    private static final int HOURS_PER_WEEK = 7 * 24;
+
+    // Indexed by (dayOfWeek - 1) * 24 + hour
+    private final double[] hourOfWeekMultipliers = buildHourOfWeekMultipliers();
+
+    private final ConcurrentHashMap<Long, RateCard> rateCards = new ConcurrentHashMap<>();
+
+    @Value
+    public static class RateCard {
+        Long screenId;
+        double hourlyRate; // base * quality * size
+        LocalDateTime sourceUpdatedAt; // Screen.updatedAt the card was compiled from
+    }
+
+    /**
+     * Returns the compiled rate card for a screen, recompiling only when the
+     * screen row has changed since the card was built.
+     */
+    public RateCard rateCard(Screen screen) {
+        if (screen.getId() == null) {
+            return compile(screen);
+        }
+        RateCard card = rateCards.get(screen.getId());
+        if (card == null || !Objects.equals(card.getSourceUpdatedAt(), screen.getUpdatedAt())) {
+            card = compile(screen);
+            rateCards.put(screen.getId(), card);
+        }
+        return card;
+    }
+
+    public void evict(Long screenId) {
+        rateCards.remove(screenId);
+    }
+
+    /**
+     * Quotes a single window.
+     * Formula: (BaseRate * TimeMultiplier * QualityMultiplier * SizeMultiplier) *
+     * Duration
+     */
+    public double quote(Screen screen, LocalDateTime start, LocalDateTime end) {
+        return rateCard(screen).getHourlyRate() * windowFactor(start, end);
+    }
+
+    /**
+     * Quotes many windows for one screen (e.g. an availability grid).
+     */
+    public double[] quote(Screen screen, LocalDateTime[] starts, LocalDateTime[] ends) {
+        double hourlyRate = rateCard(screen).getHourlyRate();
+        double[] factors = windowFactors(starts, ends);
+        double[] prices = new double[factors.length];
+        for (int w = 0; w < factors.length; w++) {
+            prices[w] = hourlyRate * factors[w];
+        }
+        return prices;
+    }
+
+    /**
+     * Quotes every screen against every window.
+     * Returns prices[screenIndex][windowIndex].
+     */
+    public double[][] quote(List<Screen> screens, LocalDateTime[] starts, LocalDateTime[] ends) {
+        double[] factors = windowFactors(starts, ends);
+        double[] rates = new double[screens.size()];
+        for (int s = 0; s < rates.length; s++) {
+            rates[s] = rateCard(screens.get(s)).getHourlyRate();
+        }
+
+        double[][] prices = new double[rates.length][factors.length];
+        for (int s = 0; s < rates.length; s++) {
+            double rate = rates[s];
+            double[] row = prices[s];
+            for (int w = 0; w < factors.length; w++) {
+                row[w] = rate * factors[w];
+            }
+        }
+        return prices;
+    }
+
+    public double timeMultiplier(LocalDateTime start) {
+        return hourOfWeekMultipliers[hourOfWeek(start)];
+    }
+
+    // Time multiplier (by start hour) times billable hours
+    private double windowFactor(LocalDateTime start, LocalDateTime end) {
+        long minutes = Duration.between(start, end).toMinutes();
+        return hourOfWeekMultipliers[hourOfWeek(start)] * (minutes / 60.0);
+    }
+
+    private double[] windowFactors(LocalDateTime[] starts, LocalDateTime[] ends) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("Window starts and ends must have the same length");
+        }
+        double[] factors = new double[starts.length];
+        for (int w = 0; w < starts.length; w++) {
+            factors[w] = windowFactor(starts[w], ends[w]);
+        }
+        return factors;
+    }
+
+    private static int hourOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+
+    private RateCard compile(Screen screen) {
+        double baseRate = screen.getPricePerHour() != null ? screen.getPricePerHour() : DEFAULT_BASE_RATE;
+        double hourlyRate = baseRate * qualityMultiplier(screen) * sizeMultiplier(screen);
+        return new RateCard(screen.getId(), hourlyRate, screen.getUpdatedAt());
+    }
+
+    private static double qualityMultiplier(Screen screen) {
+        // 4K Resolution (> 3000px width)
+        if (screen.getResolutionWidth() != null && screen.getResolutionWidth() >= 3840) {
+            return 1.2; // 1.2x for 4K
+        }
+        return 1.0;
+    }
+
+    private static double sizeMultiplier(Screen screen) {
+        // Large Screen (Area > 2M pixels)
+        if (screen.getScreenWidth() != null && screen.getScreenHeight() != null) {
+            long area = (long) screen.getScreenWidth() * screen.getScreenHeight();
+            if (area > 2000000) {
+                return 2.0; // 2.0x for Large Screens
+            }
+        }
+        return 1.0;
+    }
+
+    private static double[] buildHourOfWeekMultipliers() {
+        double[] multipliers = new double[HOURS_PER_WEEK];
+        for (int i = 0; i < HOURS_PER_WEEK; i++) {
+            int hour = i % 24;
+            // Peak Hours: 18:00 to 22:00
+            multipliers[i] = (hour >= 18 && hour < 22) ? 1.5 : 1.0;
+        }
+        return multipliers;
+    }
+}
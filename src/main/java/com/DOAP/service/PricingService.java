@@ -3,74 +3,49 @@ package com.DOAP.service;
 import com.DOAP.entity.Screen;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class PricingService {
 
+    private final PlatformSettingsService platformSettingsService;
+    private final PricingEngine pricingEngine;
+
+    public PricingService(PlatformSettingsService platformSettingsService, PricingEngine pricingEngine) {
+        this.platformSettingsService = platformSettingsService;
+        this.pricingEngine = pricingEngine;
+    }
+
     /**
      * Calculates the price the Advertiser pays.
      * Formula: (BaseRate * TimeMultiplier * QualityMultiplier * SizeMultiplier) *
-     * Duration
+     * Duration, where BaseRate is the screen's pricePerHour
      */
     public Double calculateAdvertiserPrice(Screen screen, LocalDateTime start, LocalDateTime end) {
-        // 1. Base Rate (Fixed Global)
-        Double baseRate = 500.0;
-
-        // 2. Calculate Multipliers
-        Double timeMultiplier = getTimeMultiplier(start);
-        Double qualityMultiplier = getQualityMultiplier(screen);
-        Double sizeMultiplier = getSizeMultiplier(screen);
-
-        System.out.println("Pricing Debug: Screen=" + screen.getId() +
-                " | Base=" + baseRate +
-                " | TimeMult=" + timeMultiplier +
-                " | QualityMult=" + qualityMultiplier +
-                " | SizeMult=" + sizeMultiplier);
-
-        // 3. Final Hourly Rate
-        Double finalHourlyRate = baseRate * timeMultiplier * qualityMultiplier * sizeMultiplier;
-
-        // 4. Duration
-        long minutes = Duration.between(start, end).toMinutes();
-        Double hours = minutes / 60.0;
-
-        return finalHourlyRate * hours;
-    }
-
-    private Double getTimeMultiplier(LocalDateTime start) {
-        // Peak Hours: 18:00 to 22:00
-        int hour = start.getHour();
-        if (hour >= 18 && hour < 22) {
-            return 1.5; // 1.5x for Peak Time
-        }
-        return 1.0;
+        return pricingEngine.quote(screen, start, end);
     }
 
-    private Double getQualityMultiplier(Screen screen) {
-        // 4K Resolution (> 3000px width)
-        if (screen.getResolutionWidth() != null && screen.getResolutionWidth() >= 3840) {
-            return 1.2; // 1.2x for 4K
-        }
-        return 1.0;
+    /**
+     * Quotes every screen against every window in one pass.
+     * Returns prices[screenIndex][windowIndex].
+     */
+    public double[][] quoteAdvertiserPrices(List<Screen> screens, LocalDateTime[] starts, LocalDateTime[] ends) {
+        return pricingEngine.quote(screens, starts, ends);
     }
 
-    private Double getSizeMultiplier(Screen screen) {
-        // Large Screen (Area > 2M pixels)
-        if (screen.getScreenWidth() != null && screen.getScreenHeight() != null) {
-            long area = (long) screen.getScreenWidth() * screen.getScreenHeight();
-            if (area > 2000000) {
-                return 2.0; // 2.0x for Large Screens
-            }
-        }
-        return 1.0;
+    /**
+     * Quotes many windows for a single screen.
+     */
+    public double[] quoteAdvertiserPrices(Screen screen, LocalDateTime[] starts, LocalDateTime[] ends) {
+        return pricingEngine.quote(screen, starts, ends);
     }
 
-    private final PlatformSettingsService platformSettingsService;
-
-    public PricingService(PlatformSettingsService platformSettingsService) {
-        this.platformSettingsService = platformSettingsService;
+    /**
+     * Demand multiplier of the hour a window starts in.
+     */
+    public double timeMultiplier(LocalDateTime start) {
+        return pricingEngine.timeMultiplier(start);
     }
 
     /**
@@ -84,7 +59,7 @@ public class PricingService {
         // Get commission percentage from settings (default to 25.0 if not found)
         Double commissionPercent = 25.0;
         try {
-            commissionPercent = platformSettingsService.getSettings().getCommissionPercentage();
+            commissionPercent = platformSettingsService.getSnapshot().getCommissionPercentage();
         } catch (Exception e) {
             // Fallback to default
         }
@@ -2,24 +2,37 @@ package com.DOAP.service;
 
 import com.DOAP.dto.MLRecommendationRequest;
 import com.DOAP.dto.MLRecommendationResponse;
-import com.DOAP.dto.MLRecommendationWrapper;
+import com.DOAP.dto.RecommendationResultDTO;
 import com.DOAP.dto.ScreenRecommendationDTO;
 import com.DOAP.entity.AdBusinessDetails;
 import com.DOAP.entity.AdVisionMetadata;
 import com.DOAP.entity.Content;
+import com.DOAP.entity.ContentRecommendation;
 import com.DOAP.entity.Screen;
 import com.DOAP.repository.AdBusinessDetailsRepository;
 import com.DOAP.repository.AdVisionMetadataRepository;
+import com.DOAP.repository.ContentRecommendationRepository;
 import com.DOAP.repository.ContentRepository;
 import com.DOAP.repository.ScreenRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,18 +44,195 @@ public class RecommendationService {
     private final AdBusinessDetailsRepository adBusinessDetailsRepository;
     private final AdVisionMetadataRepository adVisionMetadataRepository;
     private final ScreenRepository screenRepository;
-    private final RestTemplate restTemplate;
+    private final MlRequestBatcher mlRequestBatcher;
+    private final ScreenEmbeddingIndex screenEmbeddingIndex;
+    private final ScreenCatalogVersionService screenCatalogVersionService;
+    private final LexicalScreenIndex lexicalScreenIndex;
+    private final AvailabilityRanker availabilityRanker;
+    private final ContentLabelIndex contentLabelIndex;
+    private final ContentRecommendationRepository recommendationRepository;
+    private final ObjectMapper objectMapper;
 
-    @Value("${ml.service.url:http://localhost:5000}")
-    private String mlServiceUrl;
+    private static final TypeReference<List<ScoredScreen>> RANKING_TYPE = new TypeReference<>() {
+    };
+
+    // Background recomputation after ad details are saved
+    private final ExecutorService precomputeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${recommendation.top-k:50}")
+    private int topK;
+
+    @Value("${recommendation.min-score:0.15}")
+    private double minScore;
+
+    @Value("${recommendation.labels.max:10}")
+    private int maxLabels;
+
+    @Value("${recommendation.lexical.min-score:0.05}")
+    private double lexicalMinScore;
+
+    // When enabled, only the lexical top candidates are sent to the ML service
+    // for the remote ranking path
+    @Value("${recommendation.lexical.candidate-filter.enabled:false}")
+    private boolean lexicalCandidateFilter;
+
+    @Value("${recommendation.lexical.candidates:200}")
+    private int lexicalCandidates;
+
+    /**
+     * Get screen recommendations for a given content ID.
+     *
+     * Served from the stored ranking when there is one. If the screen index has
+     * moved to a newer catalog since, the stored advertiser embedding is
+     * re-ranked locally; if the index has not caught up with the latest catalog
+     * yet, the stored ranking is returned marked stale. A ranking invalidated by
+     * an ad details save is recomputed, or served stale while the ML service is
+     * unavailable. With no stored ranking and the ML service unavailable, the
+     * in-process lexical index ranks the screens instead.
+     */
+    public RecommendationResultDTO getRecommendations(Long contentId) {
+        ContentRecommendation cached = recommendationRepository.findByContentId(contentId).orElse(null);
+        if (cached == null) {
+            try {
+                return compute(contentId);
+            } catch (MlServiceClient.MlServiceUnavailableException e) {
+                if (!lexicalScreenIndex.isReady()) {
+                    throw e;
+                }
+                log.warn("ML service unavailable, ranking content {} lexically: {}", contentId, e.getMessage());
+                return recommendLexically(contentId);
+            }
+        }
+
+        if (Boolean.TRUE.equals(cached.getInvalidated())) {
+            try {
+                return compute(contentId);
+            } catch (MlServiceClient.MlServiceUnavailableException e) {
+                log.warn("ML service unavailable, serving last ranking for content {}: {}", contentId,
+                        e.getMessage());
+                return toResult(cached, true);
+            }
+        }
+
+        if (screenEmbeddingIndex.isReady() && cached.getCatalogVersion() < screenEmbeddingIndex.catalogVersion()) {
+            List<ScoredScreen> hits = screenEmbeddingIndex.topK(
+                    ScreenEmbeddingIndex.decode(cached.getQueryEmbedding()), topK, minScore);
+            cached = store(contentId, cached.getQueryEmbedding(), hits, screenEmbeddingIndex.catalogVersion());
+        }
+
+        return toResult(cached, cached.getCatalogVersion() < screenCatalogVersionService.current());
+    }
+
+    /**
+     * Recommendations re-ranked for a booking window: screens with no free
+     * slot in it are dropped and the rest are ordered by similarity, free time
+     * and quoted price. The stored ranking is shared with the unfiltered view.
+     */
+    public RecommendationResultDTO getRecommendations(Long contentId, LocalDateTime start, LocalDateTime end) {
+        RecommendationResultDTO result = getRecommendations(contentId);
+        if (start != null && end != null) {
+            result.setRecommendations(availabilityRanker.rank(result.getRecommendations(), start, end));
+        }
+        return result;
+    }
+
+    private RecommendationResultDTO toResult(ContentRecommendation cached, boolean stale) {
+        return RecommendationResultDTO.builder()
+                .recommendations(hydrate(readRanking(cached)))
+                .computedAt(cached.getComputedAt())
+                .catalogVersion(cached.getCatalogVersion())
+                .stale(stale)
+                .source(RecommendationResultDTO.SOURCE_SEMANTIC)
+                .build();
+    }
+
+    // Not stored: the next request after the ML service recovers ranks it properly
+    private RecommendationResultDTO recommendLexically(Long contentId) {
+        List<ScoredScreen> hits = lexicalScreenIndex.topK(advertiserText(contentId), topK, lexicalMinScore);
+        return RecommendationResultDTO.builder()
+                .recommendations(hydrate(hits))
+                .computedAt(LocalDateTime.now())
+                .catalogVersion(screenCatalogVersionService.current())
+                .stale(false)
+                .source(RecommendationResultDTO.SOURCE_LEXICAL)
+                .build();
+    }
 
     /**
-     * Get screen recommendations for a given content ID
+     * Invalidates the stored ranking of a content item whose ad details are
+     * being saved and recomputes it in the background once the transaction
+     * commits. The old ranking is kept as a fallback until then.
      */
-    public List<ScreenRecommendationDTO> getRecommendations(Long contentId) {
+    public void recomputeAfterCommit(Long contentId) {
+        recommendationRepository.markInvalidated(contentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    precomputeExecutor.execute(() -> precompute(contentId));
+                }
+            });
+        } else {
+            precomputeExecutor.execute(() -> precompute(contentId));
+        }
+    }
+
+    private void precompute(Long contentId) {
+        try {
+            compute(contentId);
+        } catch (Exception e) {
+            // The next read computes it synchronously
+            log.warn("Failed to precompute recommendations for content {}: {}", contentId, e.getMessage());
+        }
+    }
+
+    private RecommendationResultDTO compute(Long contentId) {
         log.info("========== RECOMMENDATION REQUEST START ==========");
         log.info("Content ID: {}", contentId);
 
+        String advertiserText = advertiserText(contentId);
+
+        // Score against the precomputed screen index; until it has loaded, send
+        // the whole catalog to the ML service as before (not stored)
+        if (!screenEmbeddingIndex.isReady()) {
+            log.warn("Screen embedding index not ready, ranking through ML service");
+            return RecommendationResultDTO.builder()
+                    .recommendations(recommendRemotely(advertiserText))
+                    .computedAt(LocalDateTime.now())
+                    .catalogVersion(screenCatalogVersionService.current())
+                    .stale(false)
+                    .source(RecommendationResultDTO.SOURCE_SEMANTIC)
+                    .build();
+        }
+
+        try {
+            float[] query = screenEmbeddingIndex.embedQuery(advertiserText);
+            long catalogVersion = screenEmbeddingIndex.catalogVersion();
+            List<ScoredScreen> hits = screenEmbeddingIndex.topK(query, topK, minScore);
+            ContentRecommendation stored = store(contentId, ScreenEmbeddingIndex.encode(query), hits,
+                    catalogVersion);
+
+            List<ScreenRecommendationDTO> result = hydrate(hits);
+            log.info("Final recommendations count (score >= {}): {} of {} indexed screens", minScore,
+                    result.size(), screenEmbeddingIndex.size());
+            log.info("========== RECOMMENDATION REQUEST END ==========");
+
+            return RecommendationResultDTO.builder()
+                    .recommendations(result)
+                    .computedAt(stored.getComputedAt())
+                    .catalogVersion(catalogVersion)
+                    .stale(catalogVersion < screenCatalogVersionService.current())
+                    .source(RecommendationResultDTO.SOURCE_SEMANTIC)
+                    .build();
+        } catch (MlServiceClient.MlServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error calling ML service: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to get recommendations: " + e.getMessage());
+        }
+    }
+
+    private String advertiserText(Long contentId) {
         // 1. Fetch content and related data
         Content content = contentRepository.findById(contentId)
                 .orElseThrow(() -> new RuntimeException("Content not found"));
@@ -57,99 +247,135 @@ public class RecommendationService {
         log.info("Vision metadata found: {}", visionMetadata != null);
 
         // 2. Construct advertiser text
-        String advertiserText = constructAdvertiserText(businessDetails, visionMetadata);
+        String advertiserText = constructAdvertiserText(businessDetails, visionMetadata,
+                contentLabelIndex.labelsOf(contentId));
         log.info("Advertiser text: {}", advertiserText);
+        return advertiserText;
+    }
 
-        // 3. Fetch all active screens
-        List<Screen> activeScreens = screenRepository.findByStatus(com.DOAP.entity.enums.ScreenStatus.ACTIVE);
+    private ContentRecommendation store(Long contentId, byte[] queryEmbedding,
+            List<ScoredScreen> hits, long catalogVersion) {
+        ContentRecommendation recommendation = recommendationRepository.findByContentId(contentId)
+                .orElseGet(() -> ContentRecommendation.builder().contentId(contentId).build());
+        recommendation.setQueryEmbedding(queryEmbedding);
+        recommendation.setCatalogVersion(catalogVersion);
+        recommendation.setComputedAt(LocalDateTime.now());
+        recommendation.setInvalidated(false);
+        try {
+            recommendation.setRankedScreens(objectMapper.writeValueAsString(hits));
+            return recommendationRepository.save(recommendation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialise ranking", e);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request stored it first; its ranking is just as current
+            log.debug("Recommendations for content {} already stored", contentId);
+            return recommendation;
+        }
+    }
+
+    private List<ScoredScreen> readRanking(ContentRecommendation recommendation) {
+        try {
+            return objectMapper.readValue(recommendation.getRankedScreens(), RANKING_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt stored ranking for content " + recommendation.getContentId(),
+                    e);
+        }
+    }
+
+    // Screen details are read at serve time so price and name edits show up directly
+    private List<ScreenRecommendationDTO> hydrate(List<ScoredScreen> hits) {
+        Map<Long, Screen> screens = screenRepository.findAllById(
+                hits.stream().map(ScoredScreen::screenId).toList())
+                .stream()
+                .collect(Collectors.toMap(Screen::getId, Function.identity()));
+
+        return hits.stream()
+                .filter(hit -> {
+                    Screen screen = screens.get(hit.screenId());
+                    // The ranking may predate a status change
+                    return screen != null && screen.getStatus() == com.DOAP.entity.enums.ScreenStatus.ACTIVE;
+                })
+                .map(hit -> toDTO(screens.get(hit.screenId()), hit.score()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ranks ACTIVE screens in the ML service. Only used before the screen
+     * embedding index has loaded. With the lexical candidate filter enabled,
+     * only the lexical top candidates are sent; a text with no lexical match
+     * still goes out against the whole catalog.
+     */
+    private List<ScreenRecommendationDTO> recommendRemotely(String advertiserText) {
+        List<Screen> activeScreens = null;
+        if (lexicalCandidateFilter && lexicalScreenIndex.isReady()) {
+            List<ScoredScreen> candidates = lexicalScreenIndex.topK(advertiserText, lexicalCandidates, 0);
+            if (!candidates.isEmpty()) {
+                activeScreens = screenRepository.findAllById(candidates.stream().map(ScoredScreen::screenId).toList())
+                        .stream()
+                        .filter(screen -> screen.getStatus() == com.DOAP.entity.enums.ScreenStatus.ACTIVE)
+                        .toList();
+            }
+        }
+        if (activeScreens == null) {
+            activeScreens = screenRepository.findByStatus(com.DOAP.entity.enums.ScreenStatus.ACTIVE);
+        }
         log.info("Active screens found: {}", activeScreens.size());
         if (activeScreens.isEmpty()) {
             log.warn("No active screens found!");
             return new ArrayList<>();
         }
 
-        // 4. Construct screen texts
         List<MLRecommendationRequest.MLScreenData> screenDataList = activeScreens.stream()
                 .map(screen -> new MLRecommendationRequest.MLScreenData(
                         screen.getId(),
-                        constructScreenText(screen)))
+                        screenEmbeddingIndex.screenText(screen)))
                 .collect(Collectors.toList());
 
-        log.info("Screen data list size: {}", screenDataList.size());
-
-        // Validating Screen Texts before sending
-        for (MLRecommendationRequest.MLScreenData data : screenDataList) {
-            if (data.getText() == null || data.getText().trim().isEmpty()) {
-                log.error("CRITICAL: Empty text for Screen ID: {}", data.getId());
-            } else {
-                log.debug("Screen ID: {} | Text: {}", data.getId(), data.getText());
-            }
-        }
-
-        if (!screenDataList.isEmpty()) {
-            log.info("Sample screen text (First): {}", screenDataList.get(0).getText());
-        }
-
-        // 5. Call ML service
-        MLRecommendationRequest request = new MLRecommendationRequest(advertiserText, screenDataList);
-        log.info("Calling ML service at: {}/recommend", mlServiceUrl);
+        log.info("Calling ML service /recommend with {} screens", screenDataList.size());
 
         try {
-            MLRecommendationWrapper wrapper = restTemplate.postForObject(
-                    mlServiceUrl + "/recommend",
-                    request,
-                    MLRecommendationWrapper.class);
+            // Concurrent callers are sent as one batch sharing the screen list
+            List<MLRecommendationResponse> results = mlRequestBatcher.recommend(advertiserText, screenDataList);
 
-            log.info("ML service response received");
-
-            if (wrapper == null || wrapper.getResults() == null || wrapper.getResults().isEmpty()) {
+            if (results.isEmpty()) {
                 log.warn("No recommendations returned from ML service");
-                if (wrapper != null && wrapper.getError() != null) {
-                    log.error("ML service error: {}", wrapper.getError());
-                }
                 return new ArrayList<>();
             }
 
-            MLRecommendationResponse[] responses = wrapper.getResults().toArray(new MLRecommendationResponse[0]);
-            log.info("ML service response count: {}", responses.length);
-
-            // 6. Map to DTOs with screen details
-            List<ScreenRecommendationDTO> result = java.util.Arrays.stream(responses)
-                    .filter(response -> response.getScore() >= 0.15) // Filter by threshold
-                    .map(response -> {
-                        Screen screen = activeScreens.stream()
-                                .filter(s -> s.getId().equals(response.getScreenId()))
-                                .findFirst()
-                                .orElse(null);
-
-                        if (screen == null)
-                            return null;
-
-                        return new ScreenRecommendationDTO(
-                                screen.getId(),
-                                screen.getScreenName(),
-                                screen.getLocation(),
-                                response.getScore(),
-                                screen.getCity(),
-                                screen.getPricePerHour());
-                    })
-                    .filter(dto -> dto != null)
-                    .collect(Collectors.toList());
+            Map<Long, Screen> screens = activeScreens.stream()
+                    .collect(Collectors.toMap(Screen::getId, Function.identity()));
 
-            log.info("Final recommendations count (score >= 0.15): {}", result.size());
-            log.info("========== RECOMMENDATION REQUEST END ==========");
-            return result;
+            return results.stream()
+                    .filter(response -> response.getScore() >= minScore) // Filter by threshold
+                    .filter(response -> screens.containsKey(response.getScreenId()))
+                    .limit(topK)
+                    .map(response -> toDTO(screens.get(response.getScreenId()), response.getScore()))
+                    .collect(Collectors.toList());
 
+        } catch (MlServiceClient.MlServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error calling ML service: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to get recommendations: " + e.getMessage());
         }
     }
 
+    private ScreenRecommendationDTO toDTO(Screen screen, double score) {
+        return new ScreenRecommendationDTO(
+                screen.getId(),
+                screen.getScreenName(),
+                screen.getLocation(),
+                score,
+                screen.getCity(),
+                screen.getPricePerHour(),
+                null, null, null, null);
+    }
+
     /**
      * Construct advertiser text from business details and vision metadata
      */
-    private String constructAdvertiserText(AdBusinessDetails businessDetails, AdVisionMetadata visionMetadata) {
+    private String constructAdvertiserText(AdBusinessDetails businessDetails, AdVisionMetadata visionMetadata,
+            List<ContentLabelIndex.DetectedLabel> labels) {
         StringBuilder text = new StringBuilder();
 
         // 1. Business type (primary)
@@ -167,11 +393,16 @@ public class RecommendationService {
             text.append("Preferred time ").append(businessDetails.getPreferredTimeSlot()).append(". ");
         }
 
-        // 4. Vision metadata (secondary)
+        // 4. Vision labels (secondary), most confident first, without the percentages
+        if (!labels.isEmpty()) {
+            text.append("Related terms: ")
+                    .append(labels.stream().limit(maxLabels).map(ContentLabelIndex.DetectedLabel::label)
+                            .collect(Collectors.joining(", ")))
+                    .append(". ");
+        }
+
+        // 5. Vision text (secondary)
         if (visionMetadata != null) {
-            if (visionMetadata.getDetectedLabels() != null && !visionMetadata.getDetectedLabels().isEmpty()) {
-                text.append("Related terms: ").append(visionMetadata.getDetectedLabels()).append(". ");
-            }
             if (visionMetadata.getDetectedText() != null && !visionMetadata.getDetectedText().isEmpty()) {
                 text.append("Text: ").append(visionMetadata.getDetectedText()).append(". ");
             }
@@ -180,63 +411,8 @@ public class RecommendationService {
         return text.toString().trim();
     }
 
-    /**
-     * Construct screen text from screen details
-     */
-    /**
-     * Construct screen text from screen details
-     */
-    private String constructScreenText(Screen screen) {
-        StringBuilder text = new StringBuilder();
-
-        // 0. Basic Info (Guarantees non-empty text)
-        // if (screen.getScreenName() != null) {
-        // text.append(screen.getScreenName()).append(". ");
-        // }
-
-        // 0. Basic Info
-        // if (screen.getScreenName() != null) {
-        // text.append(screen.getScreenName()).append(". ");
-        // }
-
-        // 1. Footfall category (Promoted to primary descriptor)
-        // if (screen.getFootfallCategory() != null) {
-        // text.append(screen.getFootfallCategory().toString().replace("_", " "))
-        // .append(" footfall area. ");
-        // }
-
-        // 2. Visibility level
-        // if (screen.getVisibilityLevel() != null) {
-        // text.append(screen.getVisibilityLevel().toString())
-        // .append(" visibility. ");
-        // }
-
-        // 4. Location details (City + Zone + Raw Location)
-        // if (screen.getCity() != null && !screen.getCity().isEmpty()) {
-        // text.append("Located in ").append(screen.getCity());
-        // if (screen.getZone() != null && !screen.getZone().isEmpty()) {
-        // text.append(" ").append(screen.getZone());
-        // }
-        // text.append(". ");
-        // }
-
-        // Append raw location as fallback/enrichment
-        // if (screen.getLocation() != null && !screen.getLocation().isEmpty()) {
-        // text.append(screen.getLocation()).append(". ");
-        // }
-
-        // Append description if available
-        if (screen.getDescription() != null && !screen.getDescription().isEmpty()) {
-            text.append(screen.getDescription()).append(". ");
-        }
-
-        String finalText = text.toString().trim();
-
-        // Final fallback to ensure NO empty strings
-        if (finalText.isEmpty()) {
-            return "Screen Display at " + screen.getId();
-        }
-
-        return finalText;
+    @PreDestroy
+    public void shutdown() {
+        precomputeExecutor.shutdownNow();
     }
 }
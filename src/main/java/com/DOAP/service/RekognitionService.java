@@ -1,27 +1,44 @@
 package com.DOAP.service;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.rekognition.RekognitionClient;
 import software.amazon.awssdk.services.rekognition.model.*;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 public class RekognitionService {
 
         private final RekognitionClient rekognitionClient;
+        private final RekognitionThrottle throttle;
+
+        // Async variants run the blocking SDK calls on virtual threads; cancelling the
+        // returned Future interrupts the in-flight HTTP call
+        private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
         public RekognitionService(@Value("${aws.access.key.id}") String accessKey,
                         @Value("${aws.secret.access.key}") String secretKey,
-                        @Value("${aws.region}") String region) {
+                        @Value("${aws.region}") String region,
+                        RekognitionThrottle throttle) {
+                this.throttle = throttle;
+                // Retries are handled by RekognitionThrottle so it sees every throttle
                 this.rekognitionClient = RekognitionClient.builder()
                                 .region(Region.of(region))
                                 .credentialsProvider(StaticCredentialsProvider.create(
                                                 AwsBasicCredentials.create(accessKey, secretKey)))
+                                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                                                .retryPolicy(RetryPolicy.none())
+                                                .build())
                                 .build();
         }
 
@@ -44,11 +61,16 @@ public class RekognitionService {
                                 .build();
                 System.out.println("\n\n\n\n\n\n\n\nModeration labels: " + request);          
 
-                DetectModerationLabelsResponse response = rekognitionClient.detectModerationLabels(request);
+                DetectModerationLabelsResponse response = throttle.call(RekognitionThrottle.Api.DETECT_MODERATION_LABELS,
+                                () -> rekognitionClient.detectModerationLabels(request));
                 System.out.println("\n\n\n\n\n\n\n responce moderation labels: " + response);          
                 return response.moderationLabels();
         }
 
+        public Future<List<ModerationLabel>> detectModerationLabelsAsync(String bucketName, String key) {
+                return asyncExecutor.submit(() -> detectModerationLabels(bucketName, key));
+        }
+
         public int detectFaceCount(String bucketName, String key) {
         S3Object s3Object = S3Object.builder()
         .bucket(bucketName)
@@ -63,7 +85,8 @@ public class RekognitionService {
         .image(image)
         .build();
 
-        DetectFacesResponse response = rekognitionClient.detectFaces(request);
+        DetectFacesResponse response = throttle.call(RekognitionThrottle.Api.DETECT_FACES,
+                        () -> rekognitionClient.detectFaces(request));
                 System.out.println("\n\n\n\n\n\n\n responce detect face labels: " + response);          
 
         return response.faceDetails().size();
@@ -83,7 +106,8 @@ public class RekognitionService {
         .image(image)
         .build();
 
-        DetectTextResponse response = rekognitionClient.detectText(request);
+        DetectTextResponse response = throttle.call(RekognitionThrottle.Api.DETECT_TEXT,
+                        () -> rekognitionClient.detectText(request));
                 System.out.println("\n\n\n\n\n responce detect text labels: " + response);          
 
         return response.textDetections().size();
@@ -104,11 +128,16 @@ public class RekognitionService {
                                 .minConfidence(70F)
                                 .build();
 
-                DetectLabelsResponse response = rekognitionClient.detectLabels(request);
+                DetectLabelsResponse response = throttle.call(RekognitionThrottle.Api.DETECT_LABELS,
+                                () -> rekognitionClient.detectLabels(request));
                 System.out.println("\n\n\n\n responce detect labels: " + response);          
                 return response.labels();
         }
 
+        public Future<List<Label>> detectLabelsAsync(String bucketName, String key) {
+                return asyncExecutor.submit(() -> detectLabels(bucketName, key));
+        }
+
         public String startVideoModeration(String bucketName, String key) {
                 S3Object s3Object = S3Object.builder()
                                 .bucket(bucketName)
@@ -124,50 +153,45 @@ public class RekognitionService {
                                 .minConfidence(60F)
                                 .build();
 
-                StartContentModerationResponse response = rekognitionClient.startContentModeration(request);
+                StartContentModerationResponse response = throttle.call(
+                                RekognitionThrottle.Api.START_CONTENT_MODERATION,
+                                () -> rekognitionClient.startContentModeration(request));
                 return response.jobId();
         }
 
-        public List<ContentModerationDetection> getVideoModerationResults(String jobId)
-                        throws InterruptedException {
+        /**
+         * Single status probe for a video moderation job (IN_PROGRESS, SUCCEEDED or
+         * FAILED). Does not wait.
+         */
+        public String getVideoModerationStatus(String jobId) {
+                GetContentModerationRequest checkRequest = GetContentModerationRequest.builder()
+                                .jobId(jobId)
+                                .maxResults(1)
+                                .build();
+                return throttle.call(RekognitionThrottle.Api.GET_CONTENT_MODERATION,
+                                () -> rekognitionClient.getContentModeration(checkRequest)).jobStatusAsString();
+        }
+
+        /**
+         * Fetches all detections of a finished video moderation job, following
+         * pagination.
+         */
+        public List<ContentModerationDetection> getVideoModerationResults(String jobId) {
                 GetContentModerationRequest.Builder requestBuilder = GetContentModerationRequest.builder()
                                 .jobId(jobId)
                                 .maxResults(1000); // Get up to 1000 results per page
 
                 List<ContentModerationDetection> allDetections = new java.util.ArrayList<>();
                 String nextToken = null;
-                String status = "IN_PROGRESS";
-
-                // Poll for completion (max 5 minutes for longer videos)
-                int maxAttempts = 60; // 60 * 5 seconds = 5 minutes
-                int attempt = 0;
-
-                // Wait for job to complete
-                while (!"SUCCEEDED".equals(status) && !"FAILED".equals(status) && attempt < maxAttempts) {
-                        GetContentModerationRequest checkRequest = GetContentModerationRequest.builder()
-                                        .jobId(jobId)
-                                        .build();
-                        GetContentModerationResponse checkResponse = rekognitionClient
-                                        .getContentModeration(checkRequest);
-                        status = checkResponse.jobStatusAsString();
 
-                        if ("IN_PROGRESS".equals(status)) {
-                                Thread.sleep(5000); // Wait 5 seconds before checking again
-                                attempt++;
-                        }
-                }
-
-                if (!"SUCCEEDED".equals(status)) {
-                        throw new RuntimeException("Video moderation job failed or timed out: " + status);
-                }
-
-                // Job succeeded - now fetch all results with pagination
                 do {
                         GetContentModerationRequest request = requestBuilder
                                         .nextToken(nextToken)
                                         .build();
 
-                        GetContentModerationResponse response = rekognitionClient.getContentModeration(request);
+                        GetContentModerationResponse response = throttle.call(
+                                        RekognitionThrottle.Api.GET_CONTENT_MODERATION,
+                                        () -> rekognitionClient.getContentModeration(request));
                         allDetections.addAll(response.moderationLabels());
                         nextToken = response.nextToken();
 
@@ -175,4 +199,10 @@ public class RekognitionService {
 
                 return allDetections;
         }
+
+        @PreDestroy
+        public void shutdown() {
+                asyncExecutor.shutdownNow();
+                rekognitionClient.close();
+        }
 }
@@ -0,0 +1,260 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.RekognitionApiStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.rekognition.model.LimitExceededException;
+import software.amazon.awssdk.services.rekognition.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.rekognition.model.ThrottlingException;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Throttle-aware gate in front of every Rekognition call.
+ *
+ * Each API has its own AIMD concurrency limit: every success raises the limit
+ * by 1/limit (about +1 per round trip of calls), every throttling error halves
+ * it. Callers over the limit wait in FIFO order until a slot frees up or their
+ * deadline passes. Throttled and 5xx calls are retried with decorrelated jitter
+ * within the same deadline. SDK-level retries are disabled on the client so
+ * the limiter sees every throttle.
+ */
+@Service
+@Slf4j
+public class RekognitionThrottle {
+
+    public enum Api {
+        DETECT_MODERATION_LABELS,
+        DETECT_LABELS,
+        DETECT_FACES,
+        DETECT_TEXT,
+        START_CONTENT_MODERATION,
+        GET_CONTENT_MODERATION
+    }
+
+    private enum Outcome {
+        SUCCESS, THROTTLED, ERROR
+    }
+
+    /**
+     * Raised when a call could not be completed within its deadline because of
+     * throttling or queueing. The ingestion pipeline retries these later.
+     */
+    public static class RekognitionThrottledException extends RuntimeException {
+        public RekognitionThrottledException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final Map<Api, AdaptiveLimit> limits = new EnumMap<>(Api.class);
+    private final long deadlineNanos;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RekognitionThrottle(@Value("${rekognition.throttle.initial-limit:4}") int initialLimit,
+            @Value("${rekognition.throttle.min-limit:1}") int minLimit,
+            @Value("${rekognition.throttle.max-limit:50}") int maxLimit,
+            @Value("${rekognition.throttle.deadline-ms:12000}") long deadlineMs,
+            @Value("${rekognition.throttle.max-attempts:6}") int maxAttempts,
+            @Value("${rekognition.throttle.base-delay-ms:100}") long baseDelayMs,
+            @Value("${rekognition.throttle.max-delay-ms:3000}") long maxDelayMs) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Rekognition throttle limits must satisfy 1 <= min-limit <= "
+                    + "initial-limit <= max-limit");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("rekognition.throttle.max-attempts must be at least 1");
+        }
+        if (deadlineMs <= 0 || baseDelayMs <= 0 || maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("Rekognition throttle deadline and delays must be positive, "
+                    + "with max-delay-ms >= base-delay-ms");
+        }
+        for (Api api : Api.values()) {
+            limits.put(api, new AdaptiveLimit(initialLimit, minLimit, maxLimit));
+        }
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public <T> T call(Api api, Supplier<T> call) {
+        AdaptiveLimit limit = limits.get(api);
+        long deadline = System.nanoTime() + deadlineNanos;
+        long delayMs = baseDelayMs;
+        RuntimeException lastFailure = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                if (!limit.acquire(deadline)) {
+                    limit.deadlineExpired.increment();
+                    throw new RekognitionThrottledException(api + " queued past its deadline", lastFailure);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RekognitionThrottledException(api + " interrupted while queued", e);
+            }
+
+            Outcome outcome = Outcome.ERROR;
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                outcome = Outcome.SUCCESS;
+                limit.latencyNanos.add(System.nanoTime() - start);
+                return result;
+            } catch (RuntimeException e) {
+                if (isThrottle(e)) {
+                    outcome = Outcome.THROTTLED;
+                } else if (!isRetryable(e)) {
+                    throw e;
+                }
+                lastFailure = e;
+            } finally {
+                limit.release(outcome);
+            }
+
+            // Decorrelated jitter: sleep = min(cap, random(base, previous * 3))
+            delayMs = Math.min(maxDelayMs, ThreadLocalRandom.current().nextLong(baseDelayMs, delayMs * 3 + 1));
+            if (attempt == maxAttempts || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) > deadline) {
+                break;
+            }
+            limit.retries.increment();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RekognitionThrottledException(api + " interrupted during backoff", e);
+            }
+        }
+
+        limit.deadlineExpired.increment();
+        throw new RekognitionThrottledException(api + " failed after retries"
+                + (lastFailure != null ? ": " + lastFailure.getMessage() : ""), lastFailure);
+    }
+
+    private static boolean isThrottle(RuntimeException e) {
+        return e instanceof ProvisionedThroughputExceededException
+                || e instanceof ThrottlingException
+                || e instanceof LimitExceededException
+                || (e instanceof AwsServiceException && ((AwsServiceException) e).isThrottlingException());
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        return e instanceof SdkClientException
+                || (e instanceof AwsServiceException && ((AwsServiceException) e).statusCode() >= 500);
+    }
+
+    public List<RekognitionApiStatsDTO> getStats() {
+        return Arrays.stream(Api.values())
+                .map(api -> limits.get(api).toStats(api))
+                .toList();
+    }
+
+    /**
+     * AIMD concurrency limit with a FIFO wait queue.
+     */
+    private static final class AdaptiveLimit {
+        private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final Condition slotFreed = lock.newCondition();
+        private final int minLimit;
+        private final int maxLimit;
+        private double limit;
+        private int inFlight;
+        private int queued;
+        private long lastDecreaseNanos;
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder deadlineExpired = new LongAdder();
+        final LongAdder successes = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+
+        AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.limit = initialLimit;
+        }
+
+        // Waits for a free slot; false if the deadline passed first
+        boolean acquire(long deadlineNanos) throws InterruptedException {
+            lock.lock();
+            try {
+                queued++;
+                try {
+                    while (inFlight >= (int) limit) {
+                        long remaining = deadlineNanos - System.nanoTime();
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        slotFreed.awaitNanos(remaining);
+                    }
+                    inFlight++;
+                    calls.increment();
+                    return true;
+                } finally {
+                    queued--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Outcome outcome) {
+            lock.lock();
+            try {
+                inFlight--;
+                if (outcome == Outcome.SUCCESS) {
+                    successes.increment();
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                } else if (outcome == Outcome.THROTTLED) {
+                    throttled.increment();
+                    // One decrease per burst of throttles, not one per failed call
+                    long now = System.nanoTime();
+                    if (now - lastDecreaseNanos > DECREASE_COOLDOWN_NANOS) {
+                        limit = Math.max(minLimit, limit / 2);
+                        lastDecreaseNanos = now;
+                    }
+                }
+                slotFreed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        RekognitionApiStatsDTO toStats(Api api) {
+            lock.lock();
+            try {
+                long ok = successes.sum();
+                return RekognitionApiStatsDTO.builder()
+                        .api(api.name())
+                        .concurrencyLimit(limit)
+                        .inFlight(inFlight)
+                        .queued(queued)
+                        .calls(calls.sum())
+                        .throttled(throttled.sum())
+                        .retries(retries.sum())
+                        .deadlineExpired(deadlineExpired.sum())
+                        .avgLatencyMs(ok > 0 ? latencyNanos.sum() / 1e6 / ok : 0.0)
+                        .build();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.ResumableUploadDTO;
+import com.DOAP.dto.ResumableUploadRequest;
+import com.DOAP.entity.Content;
+import com.DOAP.entity.ResumableUpload;
+import com.DOAP.entity.enums.ContentType;
+import com.DOAP.entity.enums.ResumableUploadStatus;
+import com.DOAP.repository.ResumableUploadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable chunked uploads: create, PATCH chunks at the current offset,
+ * finalize.
+ *
+ * Chunks are streamed straight from the request body into a local spool file
+ * through a fixed 64 KB buffer, so memory per upload does not grow with file
+ * size. A dropped connection resumes from the stored offset. On finalize the
+ * spool file enters the regular ingestion pipeline (pre-screen, dedup, S3
+ * multipart upload, validation) and is deleted. Uploads with no chunk before
+ * their expiry are cleaned up.
+ *
+ * The spool file and the per-upload lock live on the node that created the
+ * upload, so with several nodes every request of one upload must reach that
+ * node (sticky routing on the upload id). Finalize claims the row with a
+ * conditional update to UPLOADING, so a duplicate finalize loses on any node,
+ * and runs the pipeline outside the lock: no chunk, abort or expiry touches an
+ * UPLOADING row while its finalize is running.
+ */
+@Service
+@Slf4j
+public class ResumableUploadService {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final ResumableUploadRepository uploadRepository;
+    private final ContentIngestionService contentIngestionService;
+    private final ContentService contentService;
+    private final ContentPreScreenService contentPreScreenService;
+
+    private final Path spoolDir;
+    private final long maxUploadBytes;
+    private final int maxChunkBytes;
+    private final int maxActivePerUser;
+    private final long expiryMinutes;
+
+    // One writer per upload at a time. Every holder re-reads the row, so an entry
+    // can go once its upload is closed: a late holder of the old lock finds it closed
+    private final Map<String, Object> uploadLocks = new ConcurrentHashMap<>();
+    // Uploads this node is finalizing, which expiry leaves alone however long S3 takes
+    private final Set<String> finalizing = ConcurrentHashMap.newKeySet();
+
+    public ResumableUploadService(ResumableUploadRepository uploadRepository,
+            ContentIngestionService contentIngestionService,
+            ContentService contentService,
+            ContentPreScreenService contentPreScreenService,
+            @Value("${content.resumable.spool-dir:${java.io.tmpdir}/doap-uploads}") String spoolDir,
+            @Value("${content.resumable.max-mb:2048}") long maxUploadMb,
+            @Value("${content.resumable.max-chunk-mb:64}") int maxChunkMb,
+            @Value("${content.resumable.max-active-per-user:5}") int maxActivePerUser,
+            @Value("${content.resumable.expiry-minutes:60}") long expiryMinutes) throws IOException {
+        this.uploadRepository = uploadRepository;
+        this.contentIngestionService = contentIngestionService;
+        this.contentService = contentService;
+        this.contentPreScreenService = contentPreScreenService;
+        this.spoolDir = Files.createDirectories(Path.of(spoolDir));
+        this.maxUploadBytes = maxUploadMb * 1024 * 1024;
+        this.maxChunkBytes = maxChunkMb * 1024 * 1024;
+        this.maxActivePerUser = maxActivePerUser;
+        this.expiryMinutes = expiryMinutes;
+    }
+
+    public ResumableUploadDTO create(ResumableUploadRequest request, Long uploaderId) throws IOException {
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new IllegalArgumentException("fileName is required");
+        }
+        if (request.getTotalBytes() == null || request.getTotalBytes() <= 0) {
+            throw new IllegalArgumentException("totalBytes must be positive");
+        }
+        // The pre-screen would reject anything larger on finalize, after every chunk was spooled
+        ContentType contentType = contentService.determineContentType(request.getFileName());
+        long maxBytes = Math.min(maxUploadBytes, contentPreScreenService.maxBytes(contentType));
+        if (request.getTotalBytes() > maxBytes) {
+            throw new IllegalArgumentException("File exceeds the " + (maxBytes / (1024 * 1024)) + " MB limit");
+        }
+        if (uploadRepository.countByUploaderIdAndStatus(uploaderId, ResumableUploadStatus.IN_PROGRESS)
+                >= maxActivePerUser) {
+            throw new IllegalStateException("Too many uploads in progress, finish or cancel one first");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path spoolFile = Files.createFile(spoolDir.resolve(id + ".part"));
+
+        ResumableUpload upload = uploadRepository.save(ResumableUpload.builder()
+                .id(id)
+                .uploaderId(uploaderId)
+                .fileName(request.getFileName())
+                .mimeType(request.getMimeType())
+                .totalBytes(request.getTotalBytes())
+                .spoolPath(spoolFile.toString())
+                .status(ResumableUploadStatus.IN_PROGRESS)
+                .expiresAt(LocalDateTime.now().plusMinutes(expiryMinutes))
+                .build());
+
+        log.info("Created resumable upload {} for {} ({} bytes)", id, request.getFileName(), request.getTotalBytes());
+        return toDTO(upload);
+    }
+
+    public ResumableUploadDTO getUpload(String uploadId, Long uploaderId) {
+        return toDTO(findOwned(uploadId, uploaderId));
+    }
+
+    /**
+     * Appends one chunk. The offset must equal the bytes received so far; on a
+     * mismatch nothing is written and the client should resume from the
+     * current offset returned by getUpload.
+     */
+    public ResumableUploadDTO appendChunk(String uploadId, Long uploaderId, long offset, InputStream body)
+            throws IOException {
+        synchronized (uploadLocks.computeIfAbsent(uploadId, id -> new Object())) {
+            ResumableUpload upload = findOwned(uploadId, uploaderId);
+            requireInProgress(upload);
+
+            if (offset != upload.getReceivedBytes()) {
+                throw new IllegalStateException("Offset mismatch: upload is at " + upload.getReceivedBytes());
+            }
+
+            long remaining = upload.getTotalBytes() - offset;
+            long limit = Math.min(remaining, maxChunkBytes);
+            long written = 0;
+
+            try (FileChannel channel = FileChannel.open(Path.of(upload.getSpoolPath()), StandardOpenOption.WRITE)) {
+                // Drop anything past the offset left by a chunk that was cut off mid-write
+                channel.truncate(offset);
+                channel.position(offset);
+
+                byte[] buffer = new byte[COPY_BUFFER_BYTES];
+                int read;
+                while ((read = body.read(buffer, 0, (int) Math.min(buffer.length, limit - written + 1))) != -1) {
+                    if (written + read > limit) {
+                        throw new IllegalArgumentException(written + read > remaining
+                                ? "Chunk runs past totalBytes"
+                                : "Chunk exceeds " + maxChunkBytes + " bytes");
+                    }
+                    channel.write(ByteBuffer.wrap(buffer, 0, read));
+                    written += read;
+                }
+                channel.force(false);
+            }
+
+            upload.setReceivedBytes(offset + written);
+            upload.setExpiresAt(LocalDateTime.now().plusMinutes(expiryMinutes));
+            return toDTO(uploadRepository.save(upload));
+        }
+    }
+
+    /**
+     * Hands a complete upload to the ingestion pipeline and removes the spool
+     * file. Returns the created content.
+     */
+    public Content finalizeUpload(String uploadId, Long uploaderId) throws IOException {
+        Object lock = uploadLocks.computeIfAbsent(uploadId, id -> new Object());
+        ResumableUpload upload;
+        synchronized (lock) {
+            upload = findOwned(uploadId, uploaderId);
+            requireInProgress(upload);
+
+            if (!upload.getReceivedBytes().equals(upload.getTotalBytes())) {
+                throw new IllegalStateException("Upload incomplete: " + upload.getReceivedBytes() + " of "
+                        + upload.getTotalBytes() + " bytes received");
+            }
+
+            LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(expiryMinutes);
+            if (uploadRepository.claimForUpload(uploadId, expiresAt) == 0) {
+                throw new IllegalStateException("Upload is already being finalized");
+            }
+            upload.setStatus(ResumableUploadStatus.UPLOADING);
+            upload.setExpiresAt(expiresAt);
+            finalizing.add(uploadId);
+        }
+
+        // Pre-screen, hashing and the S3 upload run without holding the lock
+        Path spoolFile = Path.of(upload.getSpoolPath());
+        try {
+            Content content = contentIngestionService.submit(new SpoolFile(upload, spoolFile), uploaderId);
+            upload.setStatus(ResumableUploadStatus.COMPLETED);
+            upload.setContentId(content.getId());
+            return content;
+        } catch (ContentService.ContentRejectedException e) {
+            upload.setStatus(ResumableUploadStatus.FAILED);
+            upload.setFailureReason(e.getMessage());
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            // The spool file is intact, so the client can finalize again
+            upload.setStatus(ResumableUploadStatus.IN_PROGRESS);
+            throw e;
+        } finally {
+            if (upload.getStatus() != ResumableUploadStatus.IN_PROGRESS) {
+                deleteSpool(upload);
+            }
+            uploadRepository.save(upload);
+            finalizing.remove(uploadId);
+            if (upload.getStatus() != ResumableUploadStatus.IN_PROGRESS) {
+                uploadLocks.remove(uploadId, lock);
+            }
+        }
+    }
+
+    public void abort(String uploadId, Long uploaderId) {
+        Object lock = uploadLocks.computeIfAbsent(uploadId, id -> new Object());
+        synchronized (lock) {
+            ResumableUpload upload = findOwned(uploadId, uploaderId);
+            requireInProgress(upload);
+            close(upload, ResumableUploadStatus.ABORTED);
+        }
+        uploadLocks.remove(uploadId, lock);
+    }
+
+    @Scheduled(fixedDelay = 60000) // Run every 60 seconds
+    public void expireAbandonedUploads() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ResumableUpload> candidates = uploadRepository.findByStatusInAndExpiresAtBefore(
+                List.of(ResumableUploadStatus.IN_PROGRESS, ResumableUploadStatus.UPLOADING), now);
+        int expired = 0;
+        for (ResumableUpload candidate : candidates) {
+            Object lock = uploadLocks.computeIfAbsent(candidate.getId(), id -> new Object());
+            boolean closed = false;
+            synchronized (lock) {
+                // A chunk or finalize may have landed since the query, so decide on the current row
+                ResumableUpload upload = uploadRepository.findById(candidate.getId()).orElse(null);
+                if (upload != null && upload.getExpiresAt().isBefore(now) && isAbandoned(upload)) {
+                    close(upload, ResumableUploadStatus.EXPIRED);
+                    closed = true;
+                    expired++;
+                }
+            }
+            if (closed) {
+                uploadLocks.remove(candidate.getId(), lock);
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} abandoned resumable uploads", expired);
+        }
+    }
+
+    // An UPLOADING row is abandoned only if its finalize died on this node, leaving the spool behind
+    private boolean isAbandoned(ResumableUpload upload) {
+        return upload.getStatus() == ResumableUploadStatus.IN_PROGRESS
+                || (upload.getStatus() == ResumableUploadStatus.UPLOADING && !finalizing.contains(upload.getId())
+                        && Files.exists(Path.of(upload.getSpoolPath())));
+    }
+
+    private void close(ResumableUpload upload, ResumableUploadStatus status) {
+        deleteSpool(upload);
+        upload.setStatus(status);
+        uploadRepository.save(upload);
+    }
+
+    private void deleteSpool(ResumableUpload upload) {
+        try {
+            Files.deleteIfExists(Path.of(upload.getSpoolPath()));
+        } catch (IOException e) {
+            log.error("Failed to delete spool file {}", upload.getSpoolPath(), e);
+        }
+    }
+
+    private ResumableUpload findOwned(String uploadId, Long uploaderId) {
+        ResumableUpload upload = uploadRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        if (!upload.getUploaderId().equals(uploaderId)) {
+            throw new RuntimeException("Unauthorized: You do not own this upload");
+        }
+        return upload;
+    }
+
+    private static void requireInProgress(ResumableUpload upload) {
+        if (upload.getStatus() != ResumableUploadStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Upload is " + upload.getStatus());
+        }
+    }
+
+    private ResumableUploadDTO toDTO(ResumableUpload upload) {
+        return ResumableUploadDTO.builder()
+                .uploadId(upload.getId())
+                .fileName(upload.getFileName())
+                .totalBytes(upload.getTotalBytes())
+                .offset(upload.getReceivedBytes())
+                .maxChunkBytes(maxChunkBytes)
+                .status(upload.getStatus())
+                .expiresAt(upload.getExpiresAt())
+                .contentId(upload.getContentId())
+                .failureReason(upload.getFailureReason())
+                .build();
+    }
+
+    /**
+     * Presents a finished spool file as a MultipartFile so it takes exactly the
+     * same ingestion path as a direct upload.
+     */
+    private static class SpoolFile implements MultipartFile {
+        private final ResumableUpload upload;
+        private final Path path;
+
+        SpoolFile(ResumableUpload upload, Path path) {
+            this.upload = upload;
+            this.path = path;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return upload.getFileName();
+        }
+
+        @Override
+        public String getContentType() {
+            return upload.getMimeType();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return upload.getTotalBytes() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return upload.getTotalBytes();
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
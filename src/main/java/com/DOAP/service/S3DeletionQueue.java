@@ -0,0 +1,140 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.S3DeletionTask;
+import com.DOAP.repository.S3DeletionTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Durable background queue for S3 object deletion.
+ *
+ * Callers enqueue inside their own database transaction, so the queued delete
+ * commits or rolls back together with the rows that referenced the object and
+ * no S3 call is made while the transaction holds locks. A scheduled drain
+ * removes due objects with batched DeleteObjects requests; failures are
+ * retried with exponential backoff and dropped with an error log after the
+ * last attempt. S3 deletes are idempotent, so a task that runs twice is
+ * harmless.
+ */
+@Service
+@Slf4j
+public class S3DeletionQueue {
+
+    // DeleteObjects accepts at most 1000 keys per request
+    private static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    private final S3DeletionTaskRepository taskRepository;
+    private final S3Service s3Service;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long baseBackoffSeconds;
+    private final long maxBackoffSeconds;
+
+    public S3DeletionQueue(S3DeletionTaskRepository taskRepository,
+            S3Service s3Service,
+            @Value("${s3.delete-queue.batch-size:500}") int batchSize,
+            @Value("${s3.delete-queue.max-attempts:8}") int maxAttempts,
+            @Value("${s3.delete-queue.base-backoff-seconds:30}") long baseBackoffSeconds,
+            @Value("${s3.delete-queue.max-backoff-seconds:3600}") long maxBackoffSeconds) {
+        this.taskRepository = taskRepository;
+        this.s3Service = s3Service;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffSeconds = baseBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    /**
+     * Queues the objects for deletion. Joins the caller's transaction when
+     * there is one.
+     */
+    public int enqueue(String bucket, Collection<String> keys) {
+        LocalDateTime now = LocalDateTime.now();
+        List<S3DeletionTask> tasks = keys.stream()
+                .distinct()
+                .map(key -> S3DeletionTask.builder()
+                        .bucket(bucket)
+                        .s3Key(key)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList();
+        taskRepository.saveAll(tasks);
+        return tasks.size();
+    }
+
+    @Scheduled(fixedDelayString = "${s3.delete-queue.poll-interval-ms:5000}")
+    public void drain() {
+        List<S3DeletionTask> due = taskRepository.findDueTasks(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<S3DeletionTask> done = new ArrayList<>();
+        List<S3DeletionTask> failed = new ArrayList<>();
+
+        Map<String, List<S3DeletionTask>> byBucket = due.stream()
+                .collect(Collectors.groupingBy(S3DeletionTask::getBucket));
+        for (Map.Entry<String, List<S3DeletionTask>> entry : byBucket.entrySet()) {
+            List<S3DeletionTask> tasks = entry.getValue();
+            for (int from = 0; from < tasks.size(); from += MAX_KEYS_PER_REQUEST) {
+                List<S3DeletionTask> chunk = tasks.subList(from, Math.min(tasks.size(), from + MAX_KEYS_PER_REQUEST));
+                deleteChunk(entry.getKey(), chunk, done, failed);
+            }
+        }
+
+        taskRepository.deleteAllInBatch(done);
+        if (!failed.isEmpty()) {
+            taskRepository.saveAll(failed);
+        }
+        log.info("S3 delete queue: {} objects deleted, {} to retry", done.size(), failed.size());
+    }
+
+    private void deleteChunk(String bucket, List<S3DeletionTask> chunk, List<S3DeletionTask> done,
+            List<S3DeletionTask> failed) {
+        Set<String> failedKeys;
+        String error;
+        try {
+            failedKeys = new HashSet<>(s3Service.deleteFiles(bucket,
+                    chunk.stream().map(S3DeletionTask::getS3Key).toList()));
+            error = "Rejected by DeleteObjects";
+        } catch (Exception e) {
+            log.warn("DeleteObjects on {} failed for {} keys: {}", bucket, chunk.size(), e.getMessage());
+            failedKeys = chunk.stream().map(S3DeletionTask::getS3Key).collect(Collectors.toSet());
+            error = e.getMessage();
+        }
+
+        for (S3DeletionTask task : chunk) {
+            if (!failedKeys.contains(task.getS3Key())) {
+                done.add(task);
+            } else if (task.getAttempts() + 1 >= maxAttempts) {
+                log.error("Giving up deleting s3://{}/{} after {} attempts: {}", bucket, task.getS3Key(),
+                        maxAttempts, error);
+                done.add(task);
+            } else {
+                int attempts = task.getAttempts() + 1;
+                long backoff = Math.min(maxBackoffSeconds, baseBackoffSeconds << Math.min(attempts - 1, 20));
+                task.setAttempts(attempts);
+                task.setLastError(error);
+                task.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+                failed.add(task);
+            }
+        }
+    }
+
+    public long getPendingCount() {
+        return taskRepository.count();
+    }
+}
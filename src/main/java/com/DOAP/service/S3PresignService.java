@@ -0,0 +1,132 @@
+package com.DOAP.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Presigned GET URLs for private S3 objects.
+ *
+ * Signing is a local HMAC computation with no network call. Each signed URL is
+ * cached until shortly before it expires, so list endpoints that return the
+ * same creatives repeatedly mostly hit the cache.
+ */
+@Service
+@Slf4j
+public class S3PresignService {
+
+    private final S3Presigner presigner;
+    private final String approvedBucket;
+    private final Duration signatureDuration;
+    private final long refreshMarginMillis;
+    private final int maxCachedUrls;
+
+    private final Map<String, SignedUrl> cache = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder signatures = new LongAdder();
+
+    private record SignedUrl(String url, long refreshAtMillis) {
+    }
+
+    public S3PresignService(@Value("${aws.access.key.id}") String accessKey,
+            @Value("${aws.secret.access.key}") String secretKey,
+            @Value("${aws.region}") String region,
+            @Value("${aws.s3.bucket.approved}") String approvedBucket,
+            @Value("${aws.s3.presign.ttl-minutes:60}") long ttlMinutes,
+            @Value("${aws.s3.presign.refresh-margin-minutes:5}") long refreshMarginMinutes,
+            @Value("${aws.s3.presign.cache-max-entries:50000}") int maxCachedUrls) {
+        this.presigner = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(accessKey, secretKey)))
+                .build();
+        this.approvedBucket = approvedBucket;
+        this.signatureDuration = Duration.ofMinutes(ttlMinutes);
+        this.refreshMarginMillis = Duration.ofMinutes(Math.min(refreshMarginMinutes, ttlMinutes / 2)).toMillis();
+        this.maxCachedUrls = maxCachedUrls;
+    }
+
+    public String presign(String bucketName, String key) {
+        long now = System.currentTimeMillis();
+        String cacheKey = bucketName + "/" + key;
+
+        SignedUrl cached = cache.get(cacheKey);
+        if (cached != null && now < cached.refreshAtMillis()) {
+            cacheHits.increment();
+            return cached.url();
+        }
+
+        GetObjectPresignRequest request = GetObjectPresignRequest.builder()
+                .signatureDuration(signatureDuration)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucketName).key(key).build())
+                .build();
+        String url = presigner.presignGetObject(request).url().toString();
+        signatures.increment();
+
+        if (cache.size() >= maxCachedUrls) {
+            evictExpired();
+        }
+        cache.put(cacheKey, new SignedUrl(url, now + signatureDuration.toMillis() - refreshMarginMillis));
+        return url;
+    }
+
+    /**
+     * Signs a batch of keys, returning key -> URL in iteration order.
+     * Duplicate keys are signed once.
+     */
+    public Map<String, String> presignAll(String bucketName, Collection<String> keys) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String key : keys) {
+            if (key != null) {
+                urls.computeIfAbsent(key, k -> presign(bucketName, k));
+            }
+        }
+        return urls;
+    }
+
+    public String presignApproved(String key) {
+        return presign(approvedBucket, key);
+    }
+
+    public Map<String, String> presignAllApproved(Collection<String> keys) {
+        return presignAll(approvedBucket, keys);
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getSignatureCount() {
+        return signatures.sum();
+    }
+
+    @Scheduled(fixedDelay = 60000) // Run every 60 seconds
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(signed -> now >= signed.refreshAtMillis());
+        if (cache.size() >= maxCachedUrls) {
+            log.warn("Presigned URL cache still holds {} entries after eviction, clearing", cache.size());
+            cache.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        presigner.close();
+    }
+}
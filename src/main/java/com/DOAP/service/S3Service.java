@@ -1,5 +1,8 @@
 package com.DOAP.service;
 
+import com.DOAP.dto.S3TransferStatsDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -10,32 +13,271 @@ import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
+@Slf4j
 public class S3Service {
 
         private final S3Client s3Client;
 
+        // Multipart streaming: parts are uploaded in parallel, and the number of part
+        // buffers held in memory at once is capped across all uploads
+        private final long multipartThresholdBytes;
+        private final int partSizeBytes;
+        private final Semaphore partBufferPermits;
+        private final ExecutorService partUploader = Executors.newVirtualThreadPerTaskExecutor();
+
+        // Transfer metrics
+        private final LongAdder uploadCount = new LongAdder();
+        private final LongAdder multipartUploadCount = new LongAdder();
+        private final LongAdder bytesUploaded = new LongAdder();
+        private final LongAdder uploadNanos = new LongAdder();
+        private final LongAdder copyCount = new LongAdder();
+
         public S3Service(@Value("${aws.access.key.id}") String accessKey,
                         @Value("${aws.secret.access.key}") String secretKey,
-                        @Value("${aws.region}") String region) {
+                        @Value("${aws.region}") String region,
+                        @Value("${aws.s3.multipart.threshold-mb:16}") long multipartThresholdMb,
+                        @Value("${aws.s3.multipart.part-size-mb:8}") int partSizeMb,
+                        @Value("${aws.s3.multipart.max-buffered-parts:8}") int maxBufferedParts) {
                 this.s3Client = S3Client.builder()
                                 .region(Region.of(region))
                                 .credentialsProvider(StaticCredentialsProvider.create(
                                                 AwsBasicCredentials.create(accessKey, secretKey)))
                                 .build();
+                this.multipartThresholdBytes = multipartThresholdMb * 1024 * 1024;
+                this.partSizeBytes = Math.max(5, partSizeMb) * 1024 * 1024; // S3 minimum part size is 5 MB
+                this.partBufferPermits = new Semaphore(maxBufferedParts);
         }
 
         public void uploadFile(String bucketName, String key, MultipartFile file) throws IOException {
-                PutObjectRequest putOb = PutObjectRequest.builder()
+                uploadFile(bucketName, key, file, null);
+        }
+
+        /**
+         * Uploads a multipart file, optionally with object tags (URL-encoded
+         * "k1=v1&k2=v2").
+         */
+        public void uploadFile(String bucketName, String key, MultipartFile file, String tagging) throws IOException {
+                try (InputStream in = file.getInputStream()) {
+                        upload(bucketName, key, in, file.getSize(), file.getContentType(), tagging);
+                }
+        }
+
+        /**
+         * Streams an object to S3 with CRC32 checksums. Large objects are sent as a
+         * parallel multipart upload so memory use stays bounded regardless of size.
+         */
+        public void upload(String bucketName, String key, InputStream in, long size, String contentType,
+                        String tagging) throws IOException {
+                long start = System.nanoTime();
+
+                if (size >= multipartThresholdBytes) {
+                        multipartUpload(bucketName, key, in, contentType, tagging);
+                        multipartUploadCount.increment();
+                } else {
+                        PutObjectRequest putOb = PutObjectRequest.builder()
+                                        .bucket(bucketName)
+                                        .key(key)
+                                        .contentType(contentType)
+                                        .tagging(tagging)
+                                        .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+                                        .build();
+
+                        s3Client.putObject(putOb, RequestBody.fromInputStream(in, size));
+                }
+
+                long elapsed = System.nanoTime() - start;
+                uploadCount.increment();
+                bytesUploaded.add(size);
+                uploadNanos.add(elapsed);
+                log.info("Uploaded {} bytes to {}/{} in {}ms", size, bucketName, key,
+                                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+
+        private void multipartUpload(String bucketName, String key, InputStream in, String contentType,
+                        String tagging) throws IOException {
+                String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .contentType(contentType)
+                                .tagging(tagging)
+                                .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+                                .build()).uploadId();
+
+                List<PartUpload> parts = new ArrayList<>();
+                try {
+                        int partNumber = 1;
+                        while (true) {
+                                partBufferPermits.acquire();
+                                byte[] buffer = new byte[partSizeBytes];
+                                int length;
+                                try {
+                                        length = in.readNBytes(buffer, 0, partSizeBytes);
+                                } catch (IOException e) {
+                                        partBufferPermits.release();
+                                        throw e;
+                                }
+                                if (length == 0) {
+                                        partBufferPermits.release();
+                                        break;
+                                }
+
+                                int currentPart = partNumber++;
+                                PartUpload part = new PartUpload();
+                                part.result = partUploader.submit(() -> {
+                                        if (!part.claim()) {
+                                                throw new CancellationException();
+                                        }
+                                        return uploadPart(bucketName, key, uploadId, currentPart, buffer, length);
+                                });
+                                parts.add(part);
+
+                                if (length < partSizeBytes) {
+                                        break; // End of stream
+                                }
+                        }
+
+                        List<CompletedPart> completedParts = new ArrayList<>(parts.size());
+                        for (PartUpload part : parts) {
+                                completedParts.add(part.result.get());
+                        }
+
+                        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                                        .bucket(bucketName)
+                                        .key(key)
+                                        .uploadId(uploadId)
+                                        .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                                        .build());
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        abortMultipartUpload(bucketName, key, uploadId, parts);
+                        throw new InterruptedIOException("Multipart upload interrupted for " + key);
+                } catch (ExecutionException e) {
+                        abortMultipartUpload(bucketName, key, uploadId, parts);
+                        throw new IOException("Multipart upload failed for " + key + ": " + e.getCause().getMessage(),
+                                        e.getCause());
+                } catch (IOException | RuntimeException e) {
+                        abortMultipartUpload(bucketName, key, uploadId, parts);
+                        throw e;
+                }
+        }
+
+        private CompletedPart uploadPart(String bucketName, String key, String uploadId, int partNumber, byte[] buffer,
+                        int length) {
+                try {
+                        UploadPartRequest request = UploadPartRequest.builder()
+                                        .bucket(bucketName)
+                                        .key(key)
+                                        .uploadId(uploadId)
+                                        .partNumber(partNumber)
+                                        .contentLength((long) length)
+                                        .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+                                        .build();
+
+                        UploadPartResponse response = s3Client.uploadPart(request,
+                                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length));
+
+                        return CompletedPart.builder()
+                                        .partNumber(partNumber)
+                                        .eTag(response.eTag())
+                                        .checksumCRC32(response.checksumCRC32())
+                                        .build();
+                } finally {
+                        partBufferPermits.release();
+                }
+        }
+
+        /**
+         * One submitted part. Its buffer permit is released exactly once: by the
+         * upload task when it ran, or by the abort when it claimed the part before
+         * the task started (a cancelled queued task never reaches its finally).
+         */
+        private static final class PartUpload {
+                private final AtomicBoolean claimed = new AtomicBoolean();
+                private Future<CompletedPart> result;
+
+                boolean claim() {
+                        return claimed.compareAndSet(false, true);
+                }
+        }
+
+        private void abortMultipartUpload(String bucketName, String key, String uploadId, List<PartUpload> parts) {
+                for (PartUpload part : parts) {
+                        part.result.cancel(true);
+                        if (part.claim()) {
+                                partBufferPermits.release();
+                        }
+                }
+                try {
+                        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                                        .bucket(bucketName)
+                                        .key(key)
+                                        .uploadId(uploadId)
+                                        .build());
+                } catch (Exception e) {
+                        log.error("Failed to abort multipart upload {} for {}", uploadId, key, e);
+                }
+        }
+
+        public byte[] getObjectBytes(String bucketName, String key) {
+                GetObjectRequest request = GetObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .build();
+
+                return s3Client.getObjectAsBytes(request).asByteArray();
+        }
+
+        /**
+         * Reads a byte range of an object. Used to inspect file headers without
+         * downloading the whole object.
+         */
+        public byte[] getObjectRange(String bucketName, String key, long offset, int length) {
+                GetObjectRequest request = GetObjectRequest.builder()
                                 .bucket(bucketName)
                                 .key(key)
-                                .contentType(file.getContentType())
+                                .range("bytes=" + offset + "-" + (offset + length - 1))
                                 .build();
 
-                s3Client.putObject(putOb, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+                return s3Client.getObjectAsBytes(request).asByteArray();
+        }
+
+        public long getObjectSize(String bucketName, String key) {
+                return s3Client.headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build())
+                                .contentLength();
+        }
+
+        /**
+         * Replaces an object's tags. Used to mark a validated object as approved
+         * without rewriting its bytes.
+         */
+        public void tagObject(String bucketName, String key, String tagKey, String tagValue) {
+                PutObjectTaggingRequest request = PutObjectTaggingRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .tagging(Tagging.builder()
+                                                .tagSet(Tag.builder().key(tagKey).value(tagValue).build())
+                                                .build())
+                                .build();
+
+                s3Client.putObjectTagging(request);
         }
 
         public void copyFile(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey) {
@@ -47,6 +289,7 @@ public class S3Service {
                                 .build();
 
                 s3Client.copyObject(copyReq);
+                copyCount.increment();
         }
 
         public void deleteFile(String bucketName, String key) {
@@ -58,6 +301,26 @@ public class S3Service {
                 s3Client.deleteObject(deleteReq);
         }
 
+        /**
+         * Deletes up to 1000 keys in one DeleteObjects request. Returns the keys
+         * S3 reported as failed.
+         */
+        public List<String> deleteFiles(String bucketName, List<String> keys) {
+                DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                                .bucket(bucketName)
+                                .delete(Delete.builder()
+                                                .objects(keys.stream()
+                                                                .map(key -> ObjectIdentifier.builder().key(key).build())
+                                                                .toList())
+                                                .quiet(true)
+                                                .build())
+                                .build();
+
+                return s3Client.deleteObjects(request).errors().stream()
+                                .map(S3Error::key)
+                                .toList();
+        }
+
         public String generateUrl(String bucketName, String key) {
                 // For private buckets, we might want presigned URLs, but for now we'll return
                 // the standard S3 URL.
@@ -73,4 +336,24 @@ public class S3Service {
                 URL url = s3Client.utilities().getUrl(request);
                 return url.toString();
         }
+
+        public S3TransferStatsDTO getTransferStats() {
+                long uploads = uploadCount.sum();
+                long bytes = bytesUploaded.sum();
+                long nanos = uploadNanos.sum();
+
+                return S3TransferStatsDTO.builder()
+                                .uploads(uploads)
+                                .multipartUploads(multipartUploadCount.sum())
+                                .bytesUploaded(bytes)
+                                .serverSideCopies(copyCount.sum())
+                                .avgUploadThroughputMbps(nanos > 0 ? (bytes * 8.0 / 1_000_000) / (nanos / 1e9) : 0.0)
+                                .avgBytesWrittenPerUpload(uploads > 0 ? (double) bytes / uploads : 0.0)
+                                .build();
+        }
+
+        @PreDestroy
+        public void shutdown() {
+                partUploader.shutdownNow();
+        }
 }
@@ -0,0 +1,7 @@
+package com.DOAP.service;
+
+/**
+ * A screen and its relevance score for one advertiser, higher is better.
+ */
+public record ScoredScreen(Long screenId, double score) {
+}
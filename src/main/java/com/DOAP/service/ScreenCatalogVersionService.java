@@ -0,0 +1,95 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.ScreenCatalogVersion;
+import com.DOAP.repository.ScreenCatalogVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Version of the bookable screen catalog.
+ *
+ * Screen services bump it in the same transaction as the screen change; after
+ * commit the new version is published locally and the screen embedding and
+ * lexical indexes refresh. Bumps made on other nodes are picked up by polling, like
+ * PlatformSettingsService.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScreenCatalogVersionService {
+
+    private final ScreenCatalogVersionRepository versionRepository;
+    private final ScreenEmbeddingIndex screenEmbeddingIndex;
+    private final LexicalScreenIndex lexicalScreenIndex;
+
+    private volatile long version;
+
+    @PostConstruct
+    public void init() {
+        if (versionRepository.findVersionById(ScreenCatalogVersion.SINGLETON_ID).isEmpty()) {
+            try {
+                versionRepository.save(ScreenCatalogVersion.builder().id(ScreenCatalogVersion.SINGLETON_ID).version(1L).build());
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it first
+            }
+        }
+        version = readVersion();
+    }
+
+    public long current() {
+        return version;
+    }
+
+    /**
+     * Marks the catalog as changed. Must run inside the transaction that saves
+     * the screen.
+     */
+    public void bump(Long screenId) {
+        versionRepository.increment(ScreenCatalogVersion.SINGLETON_ID);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(readVersion());
+                    lexicalScreenIndex.rebuildAsync();
+                }
+            });
+        } else {
+            publish(readVersion());
+            lexicalScreenIndex.rebuildAsync();
+        }
+        screenEmbeddingIndex.onScreenChanged(screenId);
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.catalog.refresh-interval-ms:15000}")
+    public void refreshIfStale() {
+        try {
+            long latest = readVersion();
+            if (latest > version) {
+                log.info("Screen catalog version changed {} -> {}", version, latest);
+                publish(latest);
+                screenEmbeddingIndex.onScreenChanged(null);
+                lexicalScreenIndex.rebuildAsync();
+            }
+        } catch (Exception e) {
+            log.warn("Screen catalog version poll failed: {}", e.getMessage());
+        }
+    }
+
+    private long readVersion() {
+        return versionRepository.findVersionById(ScreenCatalogVersion.SINGLETON_ID).orElse(0L);
+    }
+
+    // Versions only move forward, so a slow poll cannot overwrite a newer bump
+    private synchronized void publish(long candidate) {
+        if (candidate > version) {
+            version = candidate;
+        }
+    }
+}
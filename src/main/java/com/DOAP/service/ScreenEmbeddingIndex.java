@@ -0,0 +1,367 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.MLEmbeddingRequest;
+import com.DOAP.dto.MLEmbeddingResponse;
+import com.DOAP.entity.Screen;
+import com.DOAP.entity.ScreenCatalogVersion;
+import com.DOAP.entity.enums.ScreenStatus;
+import com.DOAP.repository.ScreenCatalogVersionRepository;
+import com.DOAP.repository.ScreenRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-memory vector index over the embeddings of ACTIVE screens.
+ *
+ * A screen's text is embedded once by the ML service when it changes and the
+ * unit-length vector is stored on the screen row. The index keeps all active
+ * vectors in one contiguous float array, so a recommendation only embeds the
+ * advertiser text and scores the catalog with a flat dot-product scan here.
+ *
+ * ScreenCatalogVersionService calls onScreenChanged when a screen is saved; the
+ * refresh runs once the transaction commits. A periodic reconcile also retries
+ * embeddings that failed while the ML service was down. Each snapshot records
+ * the catalog version it was built from. Refresh listeners are told which
+ * screens changed once their vectors are stored.
+ */
+@Service
+@Slf4j
+public class ScreenEmbeddingIndex {
+
+    private static final int EMBED_BATCH_SIZE = 64;
+
+    private final ScreenRepository screenRepository;
+    private final ScreenCatalogVersionRepository catalogVersionRepository;
+    private final MlServiceClient mlServiceClient;
+    private final MlRequestBatcher mlRequestBatcher;
+    private final String embeddingModel;
+
+    // Serialises refreshes triggered by screen changes
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "screen-embedding-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Immutable view of the index. Row i of vectors (dimension floats starting
+     * at i * dimension) belongs to screenIds[i].
+     */
+    private record Snapshot(long[] screenIds, float[] vectors, int dimension, long catalogVersion) {
+        int size() {
+            return screenIds.length;
+        }
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new float[0], 0, 0);
+
+    private final List<Consumer<Set<Long>>> refreshListeners = new CopyOnWriteArrayList<>();
+
+    public ScreenEmbeddingIndex(ScreenRepository screenRepository,
+            ScreenCatalogVersionRepository catalogVersionRepository,
+            MlServiceClient mlServiceClient,
+            MlRequestBatcher mlRequestBatcher,
+            @Value("${recommendation.embedding.model:all-MiniLM-L6-v2}") String embeddingModel) {
+        this.screenRepository = screenRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.mlServiceClient = mlServiceClient;
+        this.mlRequestBatcher = mlRequestBatcher;
+        this.embeddingModel = embeddingModel;
+    }
+
+    public boolean isReady() {
+        return snapshot.size() > 0;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    // Catalog version the current snapshot reflects
+    public long catalogVersion() {
+        return snapshot.catalogVersion();
+    }
+
+    /**
+     * Schedules a refresh after the current transaction commits, or right away
+     * outside a transaction.
+     */
+    public void onScreenChanged(Long screenId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshExecutor.execute(() -> refreshSafely(screenId));
+                }
+            });
+        } else {
+            refreshExecutor.execute(() -> refreshSafely(screenId));
+        }
+    }
+
+    /**
+     * Registers a callback that receives the ids of screens changed or
+     * re-embedded by a refresh.
+     */
+    public void addRefreshListener(Consumer<Set<Long>> listener) {
+        refreshListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.embedding.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        refreshSafely(null);
+    }
+
+    private void refreshSafely(Long changedScreenId) {
+        try {
+            Set<Long> changed = new LinkedHashSet<>(refresh());
+            if (changedScreenId != null) {
+                changed.add(changedScreenId);
+            }
+            if (!changed.isEmpty()) {
+                refreshListeners.forEach(listener -> listener.accept(changed));
+            }
+        } catch (Exception e) {
+            log.warn("Screen embedding refresh failed (changed screen {}): {}", changedScreenId, e.getMessage());
+        }
+    }
+
+    /**
+     * Embeds ACTIVE screens whose text changed since their last embedding and
+     * rebuilds the in-memory snapshot. Returns the ids of re-embedded screens.
+     */
+    public synchronized List<Long> refresh() {
+        // Read before the screens, so the snapshot never claims a newer catalog than it holds
+        long catalogVersion = catalogVersionRepository.findVersionById(ScreenCatalogVersion.SINGLETON_ID).orElse(0L);
+        List<Screen> active = screenRepository.findByStatus(ScreenStatus.ACTIVE);
+
+        List<Screen> stale = new ArrayList<>();
+        List<String> staleTexts = new ArrayList<>();
+        List<Long> embedded = new ArrayList<>();
+        for (Screen screen : active) {
+            String text = screenText(screen);
+            if (screen.getEmbedding() == null || !sourceHash(text).equals(screen.getEmbeddingSourceHash())) {
+                stale.add(screen);
+                staleTexts.add(text);
+            }
+        }
+
+        for (int from = 0; from < stale.size(); from += EMBED_BATCH_SIZE) {
+            int to = Math.min(stale.size(), from + EMBED_BATCH_SIZE);
+            try {
+                List<float[]> vectors = embed(staleTexts.subList(from, to));
+                for (int i = from; i < to; i++) {
+                    Screen screen = stale.get(i);
+                    byte[] encoded = encode(normalize(vectors.get(i - from)));
+                    String hash = sourceHash(staleTexts.get(i));
+                    screenRepository.updateEmbedding(screen.getId(), encoded, hash);
+                    screen.setEmbedding(encoded);
+                    screen.setEmbeddingSourceHash(hash);
+                    embedded.add(screen.getId());
+                }
+            } catch (Exception e) {
+                // Screens keep their previous vector (if any) until the next reconcile
+                log.warn("Failed to embed {} screens: {}", to - from, e.getMessage());
+            }
+        }
+
+        rebuild(active, catalogVersion);
+        if (!stale.isEmpty()) {
+            log.info("Screen embedding index: {} screens indexed, {} re-embedded", snapshot.size(), embedded.size());
+        }
+        return embedded;
+    }
+
+    private void rebuild(List<Screen> active, long catalogVersion) {
+        List<Screen> embedded = active.stream().filter(s -> s.getEmbedding() != null).toList();
+        if (embedded.isEmpty()) {
+            snapshot = new Snapshot(new long[0], new float[0], 0, catalogVersion);
+            return;
+        }
+
+        int dimension = embedded.get(0).getEmbedding().length / Float.BYTES;
+        List<Screen> rows = embedded.stream()
+                .filter(s -> s.getEmbedding().length == dimension * Float.BYTES)
+                .toList();
+        if (rows.size() < embedded.size()) {
+            log.warn("Skipping {} screens with a different embedding dimension", embedded.size() - rows.size());
+        }
+
+        long[] ids = new long[rows.size()];
+        float[] vectors = new float[rows.size() * dimension];
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = rows.get(i).getId();
+            ByteBuffer.wrap(rows.get(i).getEmbedding()).order(ByteOrder.LITTLE_ENDIAN)
+                    .asFloatBuffer().get(vectors, i * dimension, dimension);
+        }
+        snapshot = new Snapshot(ids, vectors, dimension, catalogVersion);
+    }
+
+    // ================= QUERY =================
+
+    /**
+     * Embeds one text with the ML service and returns a unit-length vector.
+     * Concurrent queries share one /embed call through the batcher.
+     */
+    public float[] embedQuery(String text) {
+        return normalize(mlRequestBatcher.embed(text));
+    }
+
+    /**
+     * Best k screens with a cosine similarity of at least minScore, highest
+     * first.
+     */
+    public List<ScoredScreen> topK(float[] query, int k, double minScore) {
+        Snapshot current = snapshot;
+        if (current.size() == 0 || k <= 0) {
+            return List.of();
+        }
+        if (query.length != current.dimension()) {
+            throw new IllegalStateException("Query dimension " + query.length + " does not match index dimension "
+                    + current.dimension());
+        }
+
+        // Min-heap of row indexes keyed by score; the root is the weakest kept hit
+        float[] scores = new float[current.size()];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+        int dimension = current.dimension();
+        for (int row = 0; row < current.size(); row++) {
+            float score = dot(query, current.vectors(), row * dimension, dimension);
+            if (score < minScore) {
+                continue;
+            }
+            scores[row] = score;
+            if (heap.size() < k) {
+                heap.add(row);
+            } else if (score > scores[heap.peek()]) {
+                heap.poll();
+                heap.add(row);
+            }
+        }
+
+        List<ScoredScreen> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int row = heap.poll();
+            result.add(new ScoredScreen(current.screenIds()[row], scores[row]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Four independent accumulators keep the loop free of a serial add chain
+    private static float dot(float[] query, float[] vectors, int offset, int dimension) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < dimension; i += 4) {
+            s0 += query[i] * vectors[offset + i];
+            s1 += query[i + 1] * vectors[offset + i + 1];
+            s2 += query[i + 2] * vectors[offset + i + 2];
+            s3 += query[i + 3] * vectors[offset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += query[i] * vectors[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // ================= EMBEDDING =================
+
+    private List<float[]> embed(List<String> texts) {
+        MLEmbeddingResponse response = mlServiceClient.post(MlServiceClient.Endpoint.EMBED,
+                new MLEmbeddingRequest(texts), MLEmbeddingResponse.class);
+
+        if (response == null || response.getEmbeddings() == null
+                || response.getEmbeddings().size() != texts.size()) {
+            throw new IllegalStateException("ML service returned no embeddings"
+                    + (response != null && response.getError() != null ? ": " + response.getError() : ""));
+        }
+        return response.getEmbeddings();
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        if (norm == 0) {
+            return vector;
+        }
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    static float[] decode(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    private String sourceHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                    digest.digest((embeddingModel + "\n" + text).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Text that represents a screen for matching against advertiser text.
+     */
+    public String screenText(Screen screen) {
+        StringBuilder text = new StringBuilder();
+
+        // Only the owner's description is matched; location, footfall and
+        // visibility are left out of the text
+        if (screen.getDescription() != null && !screen.getDescription().isEmpty()) {
+            text.append(screen.getDescription()).append(". ");
+        }
+
+        String finalText = text.toString().trim();
+
+        // Final fallback to ensure NO empty strings
+        if (finalText.isEmpty()) {
+            return "Screen Display at " + screen.getId();
+        }
+
+        return finalText;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,332 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.ScreenRecommendationDTO;
+import com.DOAP.entity.Screen;
+import com.DOAP.entity.enums.FootfallCategory;
+import com.DOAP.entity.enums.ScreenStatus;
+import com.DOAP.entity.enums.ScreenType;
+import com.DOAP.entity.enums.VisibilityLevel;
+import com.DOAP.repository.ScreenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * k-nearest-neighbour graph over ACTIVE screens for "similar screens".
+ *
+ * Similarity blends the description embedding with geo distance, footfall,
+ * visibility, screen type and hourly price. Every screen's k best neighbours
+ * are kept in memory, so a lookup is a single map read. When the embedding
+ * index reports changed screens only those screens are re-scored against the
+ * catalog and patched into the lists of the others; a screen that drops out of
+ * a list it was in forces that list to be rebuilt. A periodic full rebuild
+ * covers changes made on other nodes.
+ */
+@Service
+@Slf4j
+public class ScreenSimilarityGraph {
+
+    private final ScreenRepository screenRepository;
+    private final ScreenEmbeddingIndex screenEmbeddingIndex;
+
+    private final int k;
+    private final double textWeight;
+    private final double geoWeight;
+    private final double footfallWeight;
+    private final double visibilityWeight;
+    private final double typeWeight;
+    private final double priceWeight;
+    private final double geoScaleKm;
+
+    /**
+     * Comparable attributes of one screen. vector is null until the screen
+     * has an embedding; latitude is NaN without coordinates.
+     */
+    private record Features(long screenId, float[] vector, double latitude, double longitude, int footfall,
+            int visibility, ScreenType type, double logPrice) {
+    }
+
+    // Guarded by this for writes; readers only do map lookups
+    private final Map<Long, Features> features = new ConcurrentHashMap<>();
+    private final Map<Long, List<ScoredScreen>> neighbours = new ConcurrentHashMap<>();
+
+    public ScreenSimilarityGraph(ScreenRepository screenRepository,
+            ScreenEmbeddingIndex screenEmbeddingIndex,
+            @Value("${screens.similar.k:20}") int k,
+            @Value("${screens.similar.text-weight:0.4}") double textWeight,
+            @Value("${screens.similar.geo-weight:0.25}") double geoWeight,
+            @Value("${screens.similar.footfall-weight:0.1}") double footfallWeight,
+            @Value("${screens.similar.visibility-weight:0.05}") double visibilityWeight,
+            @Value("${screens.similar.type-weight:0.1}") double typeWeight,
+            @Value("${screens.similar.price-weight:0.1}") double priceWeight,
+            @Value("${screens.similar.geo-scale-km:10}") double geoScaleKm) {
+        this.screenRepository = screenRepository;
+        this.screenEmbeddingIndex = screenEmbeddingIndex;
+        this.k = k;
+        this.textWeight = textWeight;
+        this.geoWeight = geoWeight;
+        this.footfallWeight = footfallWeight;
+        this.visibilityWeight = visibilityWeight;
+        this.typeWeight = typeWeight;
+        this.priceWeight = priceWeight;
+        this.geoScaleKm = geoScaleKm;
+    }
+
+    @PostConstruct
+    public void init() {
+        screenEmbeddingIndex.addRefreshListener(this::onScreensChanged);
+    }
+
+    /**
+     * Up to limit screens most similar to the given one, best first. Screens
+     * outside the graph (not ACTIVE) are scored against the catalog on the
+     * spot.
+     */
+    public List<ScreenRecommendationDTO> similar(Long screenId, int limit) {
+        List<ScoredScreen> hits = neighbours.get(screenId);
+        if (hits == null) {
+            Screen screen = screenRepository.findById(screenId)
+                    .orElseThrow(() -> new RuntimeException("Screen not found"));
+            hits = nearest(toFeatures(screen), features.values());
+        }
+        hits = hits.subList(0, Math.min(limit, hits.size()));
+
+        Map<Long, Screen> screens = screenRepository.findAllById(hits.stream().map(ScoredScreen::screenId).toList())
+                .stream()
+                .collect(Collectors.toMap(Screen::getId, Function.identity()));
+        return hits.stream()
+                .filter(hit -> screens.containsKey(hit.screenId()))
+                .map(hit -> {
+                    Screen screen = screens.get(hit.screenId());
+                    return new ScreenRecommendationDTO(screen.getId(), screen.getScreenName(), screen.getLocation(),
+                            hit.score(), screen.getCity(), screen.getPricePerHour(), null, null, null, null);
+                })
+                .collect(Collectors.toList());
+    }
+
+    // ================= MAINTENANCE =================
+
+    @Scheduled(fixedDelayString = "${screens.similar.rebuild-interval-ms:900000}")
+    public void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Screen similarity graph rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes every neighbour list. O(n^2) in the number of ACTIVE screens,
+     * so it only runs at startup and on the periodic schedule.
+     */
+    public synchronized void rebuild() {
+        Map<Long, Features> loaded = new HashMap<>();
+        for (Screen screen : screenRepository.findByStatus(ScreenStatus.ACTIVE)) {
+            loaded.put(screen.getId(), toFeatures(screen));
+        }
+        features.keySet().retainAll(loaded.keySet());
+        features.putAll(loaded);
+        neighbours.keySet().retainAll(loaded.keySet());
+        for (Features screen : loaded.values()) {
+            neighbours.put(screen.screenId(), nearest(screen, loaded.values()));
+        }
+        log.info("Screen similarity graph rebuilt: {} screens, k={}", loaded.size(), k);
+    }
+
+    private void onScreensChanged(Set<Long> screenIds) {
+        try {
+            update(screenIds);
+        } catch (Exception e) {
+            log.warn("Screen similarity graph update failed for {}: {}", screenIds, e.getMessage());
+        }
+    }
+
+    /**
+     * Re-scores the changed screens: O(changed x n) instead of a full rebuild.
+     */
+    synchronized void update(Collection<Long> screenIds) {
+        Map<Long, Screen> screens = screenRepository.findAllById(screenIds).stream()
+                .collect(Collectors.toMap(Screen::getId, Function.identity()));
+
+        List<Long> dirty = new ArrayList<>();
+        for (long screenId : screenIds) {
+            Screen screen = screens.get(screenId);
+            if (screen == null || screen.getStatus() != ScreenStatus.ACTIVE) {
+                if (features.remove(screenId) != null) {
+                    neighbours.remove(screenId);
+                    dirty.addAll(listsContaining(screenId));
+                }
+                continue;
+            }
+
+            Features updated = toFeatures(screen);
+            features.put(screenId, updated);
+            neighbours.put(screenId, nearest(updated, features.values()));
+
+            // Patch the change into every other screen's list
+            for (Features other : features.values()) {
+                if (other.screenId() == screenId) {
+                    continue;
+                }
+                List<ScoredScreen> current = neighbours.getOrDefault(other.screenId(), List.of());
+                boolean listed = current.stream().anyMatch(hit -> hit.screenId() == screenId);
+                double score = similarity(other, updated);
+                if (listed) {
+                    if (current.size() == k && score < current.get(current.size() - 1).score()) {
+                        // May have fallen below a screen that is not in the list
+                        dirty.add(other.screenId());
+                    } else {
+                        neighbours.put(other.screenId(), insert(without(current, screenId), screenId, score));
+                    }
+                } else if (current.size() < k || score > current.get(current.size() - 1).score()) {
+                    neighbours.put(other.screenId(), insert(current, screenId, score));
+                }
+            }
+        }
+
+        for (Long screenId : dirty) {
+            Features screen = features.get(screenId);
+            if (screen != null) {
+                neighbours.put(screenId, nearest(screen, features.values()));
+            }
+        }
+    }
+
+    private List<Long> listsContaining(long screenId) {
+        return neighbours.entrySet().stream()
+                .filter(entry -> entry.getValue().stream().anyMatch(hit -> hit.screenId() == screenId))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static List<ScoredScreen> without(List<ScoredScreen> list, long screenId) {
+        return list.stream().filter(hit -> hit.screenId() != screenId).toList();
+    }
+
+    // Lists stay sorted best first and capped at k
+    private List<ScoredScreen> insert(List<ScoredScreen> list, long screenId, double score) {
+        List<ScoredScreen> result = new ArrayList<>(list.size() + 1);
+        boolean inserted = false;
+        for (ScoredScreen hit : list) {
+            if (!inserted && score > hit.score()) {
+                result.add(new ScoredScreen(screenId, score));
+                inserted = true;
+            }
+            result.add(hit);
+        }
+        if (!inserted) {
+            result.add(new ScoredScreen(screenId, score));
+        }
+        return List.copyOf(result.subList(0, Math.min(k, result.size())));
+    }
+
+    private List<ScoredScreen> nearest(Features screen, Collection<Features> candidates) {
+        PriorityQueue<ScoredScreen> heap = new PriorityQueue<>(k + 1,
+                (a, b) -> Double.compare(a.score(), b.score()));
+        for (Features candidate : candidates) {
+            if (candidate.screenId() == screen.screenId()) {
+                continue;
+            }
+            double score = similarity(screen, candidate);
+            if (heap.size() < k) {
+                heap.add(new ScoredScreen(candidate.screenId(), score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new ScoredScreen(candidate.screenId(), score));
+            }
+        }
+        List<ScoredScreen> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return List.copyOf(result);
+    }
+
+    // ================= SIMILARITY =================
+
+    /**
+     * Weighted mean of per-attribute similarities in 0..1. Attributes missing
+     * on either screen are left out of both the sum and the weights.
+     */
+    private double similarity(Features a, Features b) {
+        double score = 0;
+        double weight = 0;
+
+        if (a.vector() != null && b.vector() != null && a.vector().length == b.vector().length) {
+            // Cosine of unit vectors, mapped from -1..1
+            score += textWeight * (dot(a.vector(), b.vector()) + 1) / 2;
+            weight += textWeight;
+        }
+        if (!Double.isNaN(a.latitude()) && !Double.isNaN(b.latitude())) {
+            score += geoWeight * Math.exp(-distanceKm(a, b) / geoScaleKm);
+            weight += geoWeight;
+        }
+        if (a.footfall() >= 0 && b.footfall() >= 0) {
+            score += footfallWeight * (1 - Math.abs(a.footfall() - b.footfall()) / 3.0);
+            weight += footfallWeight;
+        }
+        if (a.visibility() >= 0 && b.visibility() >= 0) {
+            score += visibilityWeight * (1 - Math.abs(a.visibility() - b.visibility()) / 2.0);
+            weight += visibilityWeight;
+        }
+        if (a.type() != null && b.type() != null) {
+            score += typeWeight * (a.type() == b.type() ? 1 : 0);
+            weight += typeWeight;
+        }
+        // Half the score at a 2x price ratio
+        score += priceWeight * Math.exp(-Math.abs(a.logPrice() - b.logPrice()));
+        weight += priceWeight;
+
+        return weight == 0 ? 0 : score / weight;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    // Haversine
+    private static double distanceKm(Features a, Features b) {
+        double dLat = Math.toRadians(b.latitude() - a.latitude());
+        double dLon = Math.toRadians(b.longitude() - a.longitude());
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(a.latitude())) * Math.cos(Math.toRadians(b.latitude()))
+                        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.sqrt(h));
+    }
+
+    private static Features toFeatures(Screen screen) {
+        FootfallCategory footfall = screen.getFootfallCategory();
+        VisibilityLevel visibility = screen.getVisibilityLevel();
+        boolean located = screen.getLatitude() != null && screen.getLongitude() != null;
+        double price = screen.getPricePerHour() != null && screen.getPricePerHour() > 0 ? screen.getPricePerHour() : 1;
+        return new Features(
+                screen.getId(),
+                screen.getEmbedding() != null ? ScreenEmbeddingIndex.decode(screen.getEmbedding()) : null,
+                located ? screen.getLatitude() : Double.NaN,
+                located ? screen.getLongitude() : Double.NaN,
+                // Enum order runs from most to least
+                footfall != null ? footfall.ordinal() : -1,
+                visibility != null ? visibility.ordinal() : -1,
+                screen.getScreenType(),
+                Math.log(price));
+    }
+}
@@ -0,0 +1,154 @@
+package com.DOAP.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.rekognition.model.ContentModerationDetection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Central tracker for Rekognition video moderation jobs.
+ *
+ * Instead of each upload sleeping in a polling loop, jobs are registered here
+ * and a single timer checks all outstanding job ids on a shared interval.
+ * Status checks run on virtual threads behind a small permit pool, so thousands
+ * of in-flight videos cost a handful of platform threads. When a job finishes
+ * its results are paged in and the returned future completes.
+ */
+@Service
+@Slf4j
+public class VideoModerationTracker {
+
+    private final RekognitionService rekognitionService;
+    private final long pollIntervalMs;
+    private final long maxWaitMs;
+
+    private final Map<String, TrackedJob> outstanding = new ConcurrentHashMap<>();
+    private final Semaphore pollPermits;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "video-moderation-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService pollers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public VideoModerationTracker(RekognitionService rekognitionService,
+            @Value("${rekognition.video.poll-interval-ms:5000}") long pollIntervalMs,
+            @Value("${rekognition.video.max-wait-minutes:5}") long maxWaitMinutes,
+            @Value("${rekognition.video.max-concurrent-polls:8}") int maxConcurrentPolls) {
+        this.rekognitionService = rekognitionService;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxWaitMs = TimeUnit.MINUTES.toMillis(maxWaitMinutes);
+        this.pollPermits = new Semaphore(maxConcurrentPolls);
+    }
+
+    private static class TrackedJob {
+        final String jobId;
+        final long deadlineMillis;
+        final CompletableFuture<List<ContentModerationDetection>> result = new CompletableFuture<>();
+        final AtomicBoolean checking = new AtomicBoolean();
+
+        TrackedJob(String jobId, long deadlineMillis) {
+            this.jobId = jobId;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        timer.scheduleWithFixedDelay(this::pollOutstanding, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a started moderation job. The future completes with all
+     * detections once the job succeeds, or exceptionally if it fails or times out.
+     * It completes on the tracker's own threads, so callers should continue on
+     * their own executor.
+     */
+    public CompletableFuture<List<ContentModerationDetection>> track(String jobId) {
+        TrackedJob job = outstanding.computeIfAbsent(jobId,
+                id -> new TrackedJob(id, System.currentTimeMillis() + maxWaitMs));
+        return job.result;
+    }
+
+    public int getOutstandingCount() {
+        return outstanding.size();
+    }
+
+    // Timer tick: only dispatches checks, never blocks on Rekognition itself
+    private void pollOutstanding() {
+        long now = System.currentTimeMillis();
+        for (TrackedJob job : outstanding.values()) {
+            if (now > job.deadlineMillis) {
+                complete(job, null, new TimeoutException("Video moderation job timed out: " + job.jobId));
+            } else {
+                scheduleCheck(job);
+            }
+        }
+    }
+
+    private void scheduleCheck(TrackedJob job) {
+        if (!job.checking.compareAndSet(false, true)) {
+            return; // Previous check still running
+        }
+        pollers.execute(() -> check(job));
+    }
+
+    private void check(TrackedJob job) {
+        try {
+            pollPermits.acquire();
+            try {
+                String status = rekognitionService.getVideoModerationStatus(job.jobId);
+                if ("SUCCEEDED".equals(status)) {
+                    complete(job, rekognitionService.getVideoModerationResults(job.jobId), null);
+                } else if ("FAILED".equals(status)) {
+                    complete(job, null, new RuntimeException("Video moderation job failed: " + job.jobId));
+                }
+            } finally {
+                pollPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Transient API error, try again on the next tick
+            log.warn("Status check for video moderation job {} failed: {}", job.jobId, e.getMessage());
+        } finally {
+            job.checking.set(false);
+        }
+    }
+
+    private void complete(TrackedJob job, List<ContentModerationDetection> detections, Throwable error) {
+        if (!outstanding.remove(job.jobId, job)) {
+            return;
+        }
+        if (error != null) {
+            job.result.completeExceptionally(error);
+        } else {
+            job.result.complete(detections);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        pollers.shutdownNow();
+        // Futures are dropped, not cancelled: cancelling would count as a failed attempt.
+        // Waiting jobs are picked up by the ingestion pipeline's stale job recovery, which
+        // re-tracks the same Rekognition job
+        outstanding.clear();
+    }
+}
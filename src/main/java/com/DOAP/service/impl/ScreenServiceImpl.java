@@ -24,6 +24,8 @@ public class ScreenServiceImpl implements ScreenService {
     private final com.DOAP.repository.UserRepository userRepository;
     private final com.DOAP.service.PlatformSettingsService platformSettingsService;
     private final com.DOAP.service.EmailService emailService;
+    private final com.DOAP.service.ScreenCatalogVersionService screenCatalogVersionService;
+    private final com.DOAP.service.LoopInventoryService loopInventoryService;
 
     @Override
     @Transactional
@@ -36,7 +38,7 @@ public class ScreenServiceImpl implements ScreenService {
 
         // Determine initial status based on Platform Settings
         ScreenStatus initialStatus = ScreenStatus.PENDING_APPROVAL;
-        if ("ADMIN".equals(role) || platformSettingsService.getSettings().getAutoApproveScreens()) {
+        if ("ADMIN".equals(role) || platformSettingsService.getSnapshot().isAutoApproveScreens()) {
             initialStatus = ScreenStatus.ACTIVE;
         }
 
@@ -67,6 +69,9 @@ public class ScreenServiceImpl implements ScreenService {
                 .resolutionHeight(request.getResolutionHeight())
                 .activeFrom(request.getActiveFrom())
                 .activeTo(request.getActiveTo())
+                .loopSpots(request.getLoopSpots())
+                .spotSeconds(request.getLoopSpots() == null ? null
+                        : request.getSpotSeconds() != null ? request.getSpotSeconds() : 10)
                 // Ownership
                 .ownerId(userId)
                 .ownerRole(role)
@@ -81,6 +86,7 @@ public class ScreenServiceImpl implements ScreenService {
         }
 
         Screen savedScreen = screenRepository.save(screen);
+        screenCatalogVersionService.bump(savedScreen.getId());
 
         // Send Email Notification
         try {
@@ -123,6 +129,7 @@ public class ScreenServiceImpl implements ScreenService {
         screen.setApprovedAt(LocalDateTime.now());
 
         Screen savedScreen = screenRepository.save(screen);
+        screenCatalogVersionService.bump(savedScreen.getId());
         return mapToResponse(savedScreen);
     }
 
@@ -177,7 +184,10 @@ public class ScreenServiceImpl implements ScreenService {
     @Override
     @Transactional
     public ScreenResponse updateScreen(Long screenId, ScreenRequest request, Long userId, String role) {
-        Screen screen = screenRepository.findById(screenId)
+        // A loop change locks the screen, which keeps exclusive bookings out while the mode changes
+        boolean loopChange = request.getLoopSpots() != null || request.getSpotSeconds() != null;
+        Screen screen = (loopChange ? screenRepository.findByIdWithLock(screenId)
+                : screenRepository.findById(screenId))
                 .orElseThrow(() -> new RuntimeException("Screen not found with ID: " + screenId));
 
         // Ownership Check
@@ -209,12 +219,27 @@ public class ScreenServiceImpl implements ScreenService {
         if (request.getZone() != null)
             screen.setZone(request.getZone());
 
+        // Loop inventory: existing bookings keep their spots, so a loop cannot shrink below what is sold
+        if (request.getLoopSpots() != null && !request.getLoopSpots().equals(screen.getLoopSpots())) {
+            loopInventoryService.checkLoopSize(screen.getId(), request.getLoopSpots());
+            screen.setLoopSpots(request.getLoopSpots());
+        }
+        if (screen.getLoopSpots() != null) {
+            if (request.getSpotSeconds() != null)
+                screen.setSpotSeconds(request.getSpotSeconds());
+            else if (screen.getSpotSeconds() == null)
+                screen.setSpotSeconds(10);
+        } else if (request.getSpotSeconds() != null) {
+            throw new IllegalArgumentException("Spot length only applies to loop screens");
+        }
+
         // Reconstruct composite location string using NEW address and OLD city/pincode
         // (Since City and Pincode are non-editable)
         String newAddress = request.getAddress() != null ? request.getAddress() : screen.getAddress();
         screen.setLocation(constructLocationWithComponents(newAddress, screen.getCity(), screen.getPincode()));
 
         Screen savedScreen = screenRepository.save(screen);
+        screenCatalogVersionService.bump(savedScreen.getId());
         return mapToResponse(savedScreen);
     }
 
@@ -235,6 +260,7 @@ public class ScreenServiceImpl implements ScreenService {
 
         screen.setStatus(status);
         Screen savedScreen = screenRepository.save(screen);
+        screenCatalogVersionService.bump(savedScreen.getId());
         return mapToResponse(savedScreen);
     }
 
@@ -294,6 +320,8 @@ public class ScreenServiceImpl implements ScreenService {
                 .resolutionHeight(screen.getResolutionHeight())
                 .activeFrom(screen.getActiveFrom())
                 .activeTo(screen.getActiveTo())
+                .loopSpots(screen.getLoopSpots())
+                .spotSeconds(screen.getSpotSeconds())
                 // Meta
                 .ownerId(screen.getOwnerId())
                 .ownerName(ownerName)
@@ -0,0 +1,96 @@
+package com.DOAP.benchmark;
+
+import com.DOAP.service.BudgetKnapsack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Campaign planner solve at catalogue scale: every screen offers its best
+ * hours (planner.max-hours-per-screen) and the budget buys a fraction of all
+ * of them. Prices and values follow the planner's units, paise and
+ * recommendation score times demand multiplier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BudgetKnapsackBenchmark {
+
+    @Param({ "1000", "10000" })
+    int screens;
+
+    @Param("12")
+    int hoursPerScreen;
+
+    // Share of the total price of all candidates the budget can buy
+    @Param({ "0.05", "0.3" })
+    double budgetShare;
+
+    @Param("64")
+    int coreSize;
+
+    private long[] costs;
+    private double[] values;
+    private long budget;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        int n = screens * hoursPerScreen;
+        costs = new long[n];
+        values = new double[n];
+        long total = 0;
+        for (int screen = 0; screen < screens; screen++) {
+            double pricePerHour = 300 + random.nextInt(1700);
+            double score = random.nextDouble();
+            for (int hour = 0; hour < hoursPerScreen; hour++) {
+                double multiplier = hour >= 6 && hour < 10 ? 1.5 : 1.0;
+                int i = screen * hoursPerScreen + hour;
+                costs[i] = Math.round(pricePerHour * multiplier * 100);
+                values[i] = score * multiplier;
+                total += costs[i];
+            }
+        }
+        budget = (long) (total * budgetShare);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public BudgetKnapsack.Solution solve() {
+        // Same time budget as planner.time-budget-ms
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        return new BudgetKnapsack(costs, values, budget, coreSize, deadline).solve(pool);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BudgetKnapsackBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
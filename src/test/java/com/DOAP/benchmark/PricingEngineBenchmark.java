@@ -0,0 +1,104 @@
+package com.DOAP.benchmark;
+
+import com.DOAP.entity.Screen;
+import com.DOAP.service.PricingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price grid behind POST /api/bookings/quote: screens x hourly windows of a
+ * week. grid is the batch path the endpoint takes once the screens are
+ * loaded; perCell quotes window by window as the single-booking path does;
+ * changedScreens recompiles every rate card, as after a catalogue edit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    @Param({ "100", "1000" })
+    int screenCount;
+
+    @Param("168")
+    int windowCount;
+
+    private PricingEngine engine;
+    private List<Screen> screens;
+    private LocalDateTime[] starts;
+    private LocalDateTime[] ends;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        engine = new PricingEngine();
+        screens = new ArrayList<>(screenCount);
+        for (long id = 1; id <= screenCount; id++) {
+            screens.add(Screen.builder()
+                    .id(id)
+                    .pricePerHour(300.0 + random.nextInt(1700))
+                    .resolutionWidth(random.nextBoolean() ? 3840 : 1920)
+                    .screenWidth(1000 + random.nextInt(2000))
+                    .screenHeight(500 + random.nextInt(1500))
+                    .updatedAt(LocalDateTime.of(2030, 1, 1, 0, 0))
+                    .build());
+        }
+        LocalDateTime monday = LocalDateTime.of(2030, 1, 7, 0, 0);
+        starts = new LocalDateTime[windowCount];
+        ends = new LocalDateTime[windowCount];
+        for (int w = 0; w < windowCount; w++) {
+            starts[w] = monday.plusHours(w);
+            ends[w] = starts[w].plusHours(1);
+        }
+    }
+
+    @Benchmark
+    public double[][] grid() {
+        return engine.quote(screens, starts, ends);
+    }
+
+    @Benchmark
+    public void perCell(Blackhole blackhole) {
+        for (Screen screen : screens) {
+            for (int w = 0; w < windowCount; w++) {
+                blackhole.consume(engine.quote(screen, starts[w], ends[w]));
+            }
+        }
+    }
+
+    @Benchmark
+    public double[][] changedScreens() {
+        for (Screen screen : screens) {
+            engine.evict(screen.getId());
+        }
+        return engine.quote(screens, starts, ends);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PricingEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.DOAP.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BudgetKnapsackTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void matchesExactDynamicProgrammingWhenTheCoreCoversEveryItem() {
+        Random random = new Random(7);
+        for (int round = 0; round < 300; round++) {
+            int n = 1 + random.nextInt(24);
+            long[] costs = new long[n];
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                costs[i] = 1 + random.nextInt(100);
+                values[i] = 1 + random.nextInt(1000) / 10.0;
+            }
+            long budget = random.nextInt(50 * n + 1);
+
+            BudgetKnapsack.Solution solution = new BudgetKnapsack(costs, values, budget, 64, NO_DEADLINE)
+                    .solve(pool);
+
+            assertFeasible(solution, costs, values, budget);
+            assertThat(solution.optimal()).isTrue();
+            assertThat(solution.totalValue()).as("round %d", round)
+                    .isCloseTo(exact(costs, values, budget), within(1e-6));
+        }
+    }
+
+    @Test
+    void smallCoreIsNeverWorseThanGreedy() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            int n = 20 + random.nextInt(200);
+            long[] costs = new long[n];
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                costs[i] = 1 + random.nextInt(500);
+                values[i] = 1 + random.nextInt(1000) / 10.0;
+            }
+            long budget = random.nextInt(100 * n + 1);
+
+            BudgetKnapsack.Solution solution = new BudgetKnapsack(costs, values, budget, 8, NO_DEADLINE)
+                    .solve(pool);
+
+            assertFeasible(solution, costs, values, budget);
+            assertThat(solution.totalValue()).isGreaterThanOrEqualTo(greedy(costs, values, budget) - 1e-6);
+            assertThat(solution.totalValue()).isLessThanOrEqualTo(exact(costs, values, budget) + 1e-6);
+        }
+    }
+
+    @Test
+    void takesEverythingThatFits() {
+        BudgetKnapsack.Solution solution = new BudgetKnapsack(new long[] { 10, 20, 30 },
+                new double[] { 1, 2, 3 }, 100, 64, NO_DEADLINE).solve(pool);
+
+        assertThat(solution.chosen()).containsExactly(true, true, true);
+        assertThat(solution.totalCost()).isEqualTo(60L);
+        assertThat(solution.optimal()).isTrue();
+    }
+
+    private static void assertFeasible(BudgetKnapsack.Solution solution, long[] costs, double[] values,
+            long budget) {
+        long cost = 0;
+        double value = 0;
+        for (int i = 0; i < costs.length; i++) {
+            if (solution.chosen()[i]) {
+                cost += costs[i];
+                value += values[i];
+            }
+        }
+        assertThat(cost).isEqualTo(solution.totalCost()).isLessThanOrEqualTo(budget);
+        assertThat(value).isCloseTo(solution.totalValue(), within(1e-6));
+    }
+
+    // Best value for every budget up to the real one
+    private static double exact(long[] costs, double[] values, long budget) {
+        double[] best = new double[(int) budget + 1];
+        for (int i = 0; i < costs.length; i++) {
+            for (int b = (int) budget; b >= costs[i]; b--) {
+                best[b] = Math.max(best[b], best[b - (int) costs[i]] + values[i]);
+            }
+        }
+        return best[(int) budget];
+    }
+
+    private static double greedy(long[] costs, double[] values, long budget) {
+        int[] order = IntStream.range(0, costs.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> values[i] / costs[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        long cost = 0;
+        double value = 0;
+        for (int item : order) {
+            if (cost + costs[item] <= budget) {
+                cost += costs[item];
+                value += values[item];
+            }
+        }
+        return value;
+    }
+}
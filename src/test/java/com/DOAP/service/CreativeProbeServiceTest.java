@@ -0,0 +1,86 @@
+package com.DOAP.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CreativeProbeServiceTest {
+
+    private static final int ONE = 0x10000; // 1.0 in 16.16
+    private static final int MINUS_ONE = -ONE;
+
+    private final CreativeProbeService probeService = new CreativeProbeService(mock(S3Service.class), 0.15);
+
+    @Test
+    void readsTrackDimensionsWithoutRotation() throws Exception {
+        CreativeProbeService.ProbeResult result = probe(mp4(1920, 1080, ONE, 0, 0, ONE));
+
+        assertThat(result.getFormat()).isEqualTo("mp4");
+        assertThat(result.getWidth()).isEqualTo(1920);
+        assertThat(result.getHeight()).isEqualTo(1080);
+    }
+
+    @Test
+    void swapsDimensionsForQuarterTurns() throws Exception {
+        CreativeProbeService.ProbeResult rotated90 = probe(mp4(1920, 1080, 0, ONE, MINUS_ONE, 0));
+        CreativeProbeService.ProbeResult rotated270 = probe(mp4(1920, 1080, 0, MINUS_ONE, ONE, 0));
+
+        assertThat(rotated90.getWidth()).isEqualTo(1080);
+        assertThat(rotated90.getHeight()).isEqualTo(1920);
+        assertThat(rotated270.getWidth()).isEqualTo(1080);
+        assertThat(rotated270.getHeight()).isEqualTo(1920);
+    }
+
+    @Test
+    void keepsDimensionsForAHalfTurn() throws Exception {
+        CreativeProbeService.ProbeResult result = probe(mp4(1920, 1080, MINUS_ONE, 0, 0, MINUS_ONE));
+
+        assertThat(result.getWidth()).isEqualTo(1920);
+        assertThat(result.getHeight()).isEqualTo(1080);
+    }
+
+    private CreativeProbeService.ProbeResult probe(byte[] file) throws Exception {
+        return probeService.probe((offset, length) -> Arrays.copyOfRange(file, (int) offset,
+                (int) Math.min(file.length, offset + length)), file.length);
+    }
+
+    // ftyp, then moov > trak > (tkhd, mdia > hdlr) for one video track
+    private static byte[] mp4(int width, int height, int a, int b, int c, int d) {
+        ByteBuffer tkhd = ByteBuffer.allocate(84);
+        tkhd.position(40); // Version, flags, times, track id, duration, layer, group, volume
+        int[] matrix = { a, b, 0, c, d, 0, 0, 0, 0x40000000 };
+        for (int value : matrix) {
+            tkhd.putInt(value);
+        }
+        tkhd.putInt(width << 16);
+        tkhd.putInt(height << 16);
+
+        ByteBuffer hdlr = ByteBuffer.allocate(25);
+        hdlr.position(8);
+        hdlr.put("vide".getBytes(StandardCharsets.US_ASCII));
+
+        byte[] trak = box("trak", box("tkhd", tkhd.array()), box("mdia", box("hdlr", hdlr.array())));
+        return concat(box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[4]),
+                box("moov", trak));
+    }
+
+    private static byte[] box(String type, byte[]... payloads) {
+        byte[] payload = concat(payloads);
+        return concat(ByteBuffer.allocate(8).putInt(8 + payload.length)
+                .put(type.getBytes(StandardCharsets.US_ASCII)).array(), payload);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,122 @@
+package com.DOAP.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.rekognition.RekognitionClient;
+import software.amazon.awssdk.services.rekognition.RekognitionServiceClientConfiguration;
+import software.amazon.awssdk.services.rekognition.model.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local Rekognition stand-in for testing the throttle without AWS.
+ *
+ * Every call waits a fixed latency and draws from a token bucket; when the
+ * bucket is empty it fails with ProvisionedThroughputExceededException the way
+ * the real service does under burst. All content is reported as safe with no
+ * labels.
+ */
+@Slf4j
+public class LocalRekognitionStandIn implements RekognitionClient {
+
+    private final double requestsPerSecond;
+    private final double burst;
+    private final long latencyMs;
+    private final long videoJobMs;
+
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    private final Map<String, Long> videoJobsDoneAt = new ConcurrentHashMap<>();
+
+    public LocalRekognitionStandIn(double requestsPerSecond, int burst, long latencyMs, long videoJobMs) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.latencyMs = latencyMs;
+        this.videoJobMs = videoJobMs;
+        this.tokens = burst;
+        log.info("Using local Rekognition stand-in: {} req/s, burst {}, {}ms latency", requestsPerSecond, burst,
+                latencyMs);
+    }
+
+    private void admit(String operation) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * requestsPerSecond);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                throw (ProvisionedThroughputExceededException) ProvisionedThroughputExceededException.builder()
+                        .message(operation + ": provisioned rate exceeded (stand-in)")
+                        .statusCode(400)
+                        .build();
+            }
+            tokens -= 1;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(operation + " interrupted", e);
+        }
+    }
+
+    @Override
+    public DetectModerationLabelsResponse detectModerationLabels(DetectModerationLabelsRequest request) {
+        admit("DetectModerationLabels");
+        return DetectModerationLabelsResponse.builder().build();
+    }
+
+    @Override
+    public DetectLabelsResponse detectLabels(DetectLabelsRequest request) {
+        admit("DetectLabels");
+        return DetectLabelsResponse.builder().build();
+    }
+
+    @Override
+    public DetectFacesResponse detectFaces(DetectFacesRequest request) {
+        admit("DetectFaces");
+        return DetectFacesResponse.builder().build();
+    }
+
+    @Override
+    public DetectTextResponse detectText(DetectTextRequest request) {
+        admit("DetectText");
+        return DetectTextResponse.builder().build();
+    }
+
+    @Override
+    public StartContentModerationResponse startContentModeration(StartContentModerationRequest request) {
+        admit("StartContentModeration");
+        String jobId = UUID.randomUUID().toString();
+        videoJobsDoneAt.put(jobId, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(videoJobMs));
+        return StartContentModerationResponse.builder().jobId(jobId).build();
+    }
+
+    @Override
+    public GetContentModerationResponse getContentModeration(GetContentModerationRequest request) {
+        admit("GetContentModeration");
+        Long doneAt = videoJobsDoneAt.get(request.jobId());
+        if (doneAt == null) {
+            throw InvalidParameterException.builder().message("Unknown job " + request.jobId()).build();
+        }
+        VideoJobStatus status = System.nanoTime() >= doneAt ? VideoJobStatus.SUCCEEDED : VideoJobStatus.IN_PROGRESS;
+        return GetContentModerationResponse.builder().jobStatus(status).build();
+    }
+
+    @Override
+    public RekognitionServiceClientConfiguration serviceClientConfiguration() {
+        return RekognitionServiceClientConfiguration.builder().build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        videoJobsDoneAt.clear();
+    }
+}
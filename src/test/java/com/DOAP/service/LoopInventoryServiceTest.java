@@ -0,0 +1,132 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.Booking;
+import com.DOAP.entity.enums.BookingStatus;
+import com.DOAP.repository.BookingRepository;
+import com.DOAP.repository.ScreenHourInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoopInventoryServiceTest {
+
+    private static final Long SCREEN_ID = 7L;
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private ScreenHourInventoryRepository inventoryRepository;
+    private BookingRepository bookingRepository;
+    private LoopInventoryService service;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(ScreenHourInventoryRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        service = new LoopInventoryService(inventoryRepository, bookingRepository);
+    }
+
+    @Test
+    void admitTakesSpotsInEveryHour() {
+        List<LocalDateTime> hours = List.of(NINE, NINE.plusHours(1));
+        when(inventoryRepository.findExistingHours(SCREEN_ID, hours)).thenReturn(hours);
+        when(inventoryRepository.admit(SCREEN_ID, hours, 2)).thenReturn(2);
+
+        service.admit(SCREEN_ID, 6, NINE, NINE.plusHours(2), 2);
+
+        verify(inventoryRepository).admit(SCREEN_ID, hours, 2);
+        verify(inventoryRepository, never()).insertIfAbsent(anyLong(), any(), anyInt());
+        verify(bookingRepository, never()).findActiveOverlapping(anyCollection(), any(), any());
+    }
+
+    @Test
+    void admitFailsWhenAnHourIsShort() {
+        List<LocalDateTime> hours = List.of(NINE, NINE.plusHours(1));
+        when(inventoryRepository.findExistingHours(SCREEN_ID, hours)).thenReturn(hours);
+        when(inventoryRepository.admit(SCREEN_ID, hours, 3)).thenReturn(1);
+
+        assertThatThrownBy(() -> service.admit(SCREEN_ID, 6, NINE, NINE.plusHours(2), 3))
+                .hasMessageContaining("Slot unavailable");
+    }
+
+    @Test
+    void admitRejectsSpotsOutsideTheLoop() {
+        assertThatThrownBy(() -> service.admit(SCREEN_ID, 6, NINE, NINE.plusHours(1), 7))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.admit(SCREEN_ID, 6, NINE.plusMinutes(30), NINE.plusHours(1), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void firstBookingOfAnHourSeedsItsCounterFromOverlappingBookings() {
+        List<LocalDateTime> hours = List.of(NINE, NINE.plusHours(1), NINE.plusHours(2));
+        when(inventoryRepository.findExistingHours(SCREEN_ID, hours)).thenReturn(List.of(NINE));
+        // A loop booking of 2 spots in 10:00-12:00 and an exclusive one left from before the loop at 11:00
+        when(bookingRepository.findActiveOverlapping(List.of(SCREEN_ID), NINE.plusHours(1), NINE.plusHours(3)))
+                .thenReturn(List.of(
+                        booking(NINE.plusHours(1), NINE.plusHours(3), 2),
+                        booking(NINE.plusHours(2), NINE.plusHours(3), null)));
+        when(inventoryRepository.admit(SCREEN_ID, hours, 1)).thenReturn(3);
+
+        service.admit(SCREEN_ID, 6, NINE, NINE.plusHours(3), 1);
+
+        verify(inventoryRepository).insertIfAbsent(SCREEN_ID, NINE.plusHours(1), 2);
+        verify(inventoryRepository).insertIfAbsent(SCREEN_ID, NINE.plusHours(2), 6);
+        verify(inventoryRepository, never()).insertIfAbsent(eq(SCREEN_ID), eq(NINE), anyInt());
+    }
+
+    @Test
+    void releaseGivesBackTheSpotsOfEveryHour() {
+        Booking booking = booking(NINE, NINE.plusHours(2), 3);
+        when(inventoryRepository.release(SCREEN_ID, List.of(NINE, NINE.plusHours(1)), 3)).thenReturn(2);
+
+        service.release(booking);
+
+        verify(inventoryRepository).release(SCREEN_ID, List.of(NINE, NINE.plusHours(1)), 3);
+    }
+
+    @Test
+    void releaseIgnoresExclusiveBookings() {
+        service.release(booking(NINE, NINE.plusHours(1), null));
+
+        verify(inventoryRepository, never()).release(anyLong(), anyCollection(), anyInt());
+    }
+
+    @Test
+    void loopCannotShrinkBelowSoldSpots() {
+        when(inventoryRepository.findMaxSoldSpotsFrom(eq(SCREEN_ID), any())).thenReturn(4);
+
+        service.checkLoopSize(SCREEN_ID, 4);
+        assertThatThrownBy(() -> service.checkLoopSize(SCREEN_ID, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void hoursOfListsEveryHourStart() {
+        assertThat(LoopInventoryService.hoursOf(NINE, NINE.plusHours(3)))
+                .containsExactly(NINE, NINE.plusHours(1), NINE.plusHours(2));
+    }
+
+    private static Booking booking(LocalDateTime start, LocalDateTime end, Integer spots) {
+        return Booking.builder()
+                .id(1L)
+                .screenId(SCREEN_ID)
+                .startDatetime(start)
+                .endDatetime(end)
+                .status(BookingStatus.CONFIRMED)
+                .spots(spots)
+                .build();
+    }
+}
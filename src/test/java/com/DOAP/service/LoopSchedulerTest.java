@@ -0,0 +1,46 @@
+package com.DOAP.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoopSchedulerTest {
+
+    @Test
+    void interleaveGivesEveryEntryExactlyItsWeight() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            int total = 2 + random.nextInt(30);
+            int[] weights = new int[1 + random.nextInt(6)];
+            int left = total;
+            for (int i = 0; i < weights.length - 1; i++) {
+                weights[i] = random.nextInt(left + 1);
+                left -= weights[i];
+            }
+            weights[weights.length - 1] = left;
+
+            int[] picks = new int[weights.length];
+            for (int pick : LoopScheduler.interleave(weights, total)) {
+                picks[pick]++;
+            }
+            assertThat(picks).containsExactly(weights);
+        }
+    }
+
+    @Test
+    void interleaveSpreadsSpotsOut() {
+        // Two bookings of 3 spots and 2 unsold in a loop of 8
+        int[] order = LoopScheduler.interleave(new int[] { 3, 3, 2 }, 8);
+
+        for (int i = 1; i < order.length; i++) {
+            assertThat(order[i]).as("spot %d", i).isNotEqualTo(order[i - 1]);
+        }
+    }
+
+    @Test
+    void interleaveFillsAnExclusiveLoop() {
+        assertThat(LoopScheduler.interleave(new int[] { 6, 0 }, 6)).containsOnly(0);
+    }
+}
@@ -0,0 +1,122 @@
+package com.DOAP.service;
+
+import com.DOAP.entity.Screen;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PricingEngineTest {
+
+    // A Monday
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+
+    private final PricingEngine engine = new PricingEngine();
+
+    @Test
+    void pricesOffPeakSlotsAtTheHourlyRate() {
+        Screen screen = screen(1L, 400.0);
+
+        assertThat(engine.quote(screen, DAY.withHour(10), DAY.withHour(12))).isCloseTo(800.0, within(1e-9));
+        assertThat(engine.quote(screen, DAY.withHour(10), DAY.withHour(10).plusMinutes(30)))
+                .isCloseTo(200.0, within(1e-9));
+    }
+
+    @Test
+    void chargesPeakHoursByTheStartHour() {
+        Screen screen = screen(1L, 400.0);
+
+        assertThat(engine.timeMultiplier(DAY.withHour(17))).isEqualTo(1.0);
+        assertThat(engine.timeMultiplier(DAY.withHour(18))).isEqualTo(1.5);
+        assertThat(engine.timeMultiplier(DAY.plusDays(5).withHour(21))).isEqualTo(1.5);
+        assertThat(engine.timeMultiplier(DAY.withHour(22))).isEqualTo(1.0);
+        assertThat(engine.quote(screen, DAY.withHour(19), DAY.withHour(21))).isCloseTo(1200.0, within(1e-9));
+    }
+
+    @Test
+    void appliesQualityAndSizeMultipliers() {
+        Screen screen = screen(1L, 100.0);
+        screen.setResolutionWidth(3840);
+        screen.setScreenWidth(2000);
+        screen.setScreenHeight(1500);
+
+        assertThat(engine.quote(screen, DAY.withHour(10), DAY.withHour(11))).isCloseTo(240.0, within(1e-9));
+    }
+
+    @Test
+    void fallsBackToTheDefaultBaseRate() {
+        Screen screen = screen(1L, null);
+
+        assertThat(engine.quote(screen, DAY.withHour(10), DAY.withHour(11)))
+                .isCloseTo(PricingEngine.DEFAULT_BASE_RATE, within(1e-9));
+    }
+
+    @Test
+    void batchQuotesMatchSingleQuotes() {
+        List<Screen> screens = List.of(screen(1L, 400.0), screen(2L, 750.0));
+        LocalDateTime[] starts = { DAY.withHour(9), DAY.withHour(18), DAY.plusDays(6).withHour(20) };
+        LocalDateTime[] ends = { DAY.withHour(10), DAY.withHour(20), DAY.plusDays(6).withHour(23) };
+
+        double[][] grid = engine.quote(screens, starts, ends);
+        for (int s = 0; s < screens.size(); s++) {
+            double[] row = engine.quote(screens.get(s), starts, ends);
+            for (int w = 0; w < starts.length; w++) {
+                double single = engine.quote(screens.get(s), starts[w], ends[w]);
+                assertThat(grid[s][w]).isCloseTo(single, within(1e-9));
+                assertThat(row[w]).isCloseTo(single, within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void rejectsMismatchedWindows() {
+        assertThatThrownBy(() -> engine.quote(screen(1L, 400.0), new LocalDateTime[] { DAY },
+                new LocalDateTime[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reusesTheRateCardUntilTheScreenChanges() {
+        Screen screen = screen(1L, 400.0);
+        PricingEngine.RateCard card = engine.rateCard(screen);
+
+        // Same updatedAt: the cached card stands even if the entity in hand differs
+        screen.setPricePerHour(900.0);
+        assertThat(engine.rateCard(screen)).isSameAs(card);
+
+        screen.setUpdatedAt(screen.getUpdatedAt().plusSeconds(1));
+        PricingEngine.RateCard recompiled = engine.rateCard(screen);
+        assertThat(recompiled).isNotSameAs(card);
+        assertThat(recompiled.getHourlyRate()).isEqualTo(900.0);
+        assertThat(engine.rateCard(screen)).isSameAs(recompiled);
+    }
+
+    @Test
+    void evictForcesARecompile() {
+        Screen screen = screen(1L, 400.0);
+        PricingEngine.RateCard card = engine.rateCard(screen);
+
+        engine.evict(1L);
+
+        assertThat(engine.rateCard(screen)).isNotSameAs(card);
+    }
+
+    @Test
+    void unsavedScreensAreNotCached() {
+        Screen screen = screen(null, 400.0);
+
+        assertThat(engine.rateCard(screen)).isNotSameAs(engine.rateCard(screen));
+    }
+
+    private static Screen screen(Long id, Double pricePerHour) {
+        return Screen.builder()
+                .id(id)
+                .pricePerHour(pricePerHour)
+                .updatedAt(LocalDateTime.of(2030, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.DOAP.service;
+
+import com.DOAP.dto.RekognitionApiStatsDTO;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.rekognition.model.DetectLabelsRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RekognitionThrottleTest {
+
+    private static final RekognitionThrottle.Api API = RekognitionThrottle.Api.DETECT_LABELS;
+
+    @Test
+    void limitShrinksWhenTheServiceThrottles() {
+        RekognitionThrottle throttle = new RekognitionThrottle(8, 1, 50, 2000, 1, 10, 50);
+        // One call per second, so the second call in a row is throttled
+        LocalRekognitionStandIn rekognition = new LocalRekognitionStandIn(1, 1, 0, 0);
+
+        throttle.call(API, () -> rekognition.detectLabels(DetectLabelsRequest.builder().build()));
+        assertThatThrownBy(() -> throttle.call(API,
+                () -> rekognition.detectLabels(DetectLabelsRequest.builder().build())))
+                .isInstanceOf(RekognitionThrottle.RekognitionThrottledException.class);
+
+        RekognitionApiStatsDTO stats = stats(throttle);
+        assertThat(stats.getThrottled()).isEqualTo(1L);
+        assertThat(stats.getConcurrencyLimit()).isLessThan(5);
+    }
+
+    @Test
+    void limitRecoversAfterThrottlingStops() {
+        RekognitionThrottle throttle = new RekognitionThrottle(4, 1, 50, 2000, 1, 10, 50);
+        LocalRekognitionStandIn rekognition = new LocalRekognitionStandIn(1, 1, 0, 0);
+        rekognition.detectLabels(DetectLabelsRequest.builder().build());
+
+        assertThatThrownBy(() -> throttle.call(API,
+                () -> rekognition.detectLabels(DetectLabelsRequest.builder().build())))
+                .isInstanceOf(RekognitionThrottle.RekognitionThrottledException.class);
+        double shrunk = stats(throttle).getConcurrencyLimit();
+        assertThat(shrunk).isEqualTo(2.0);
+
+        for (int i = 0; i < 40; i++) {
+            throttle.call(API, () -> "ok");
+        }
+        assertThat(stats(throttle).getConcurrencyLimit()).isGreaterThan(4.0);
+    }
+
+    @Test
+    void queuedCallerGivesUpAtItsDeadline() throws Exception {
+        RekognitionThrottle throttle = new RekognitionThrottle(1, 1, 1, 200, 1, 10, 50);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> throttle.call(API, () -> {
+            holding.countDown();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "held";
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> throttle.call(API, () -> "queued"))
+                .isInstanceOf(RekognitionThrottle.RekognitionThrottledException.class)
+                .hasMessageContaining("deadline");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(150);
+        assertThat(stats(throttle).getDeadlineExpired()).isEqualTo(1L);
+
+        done.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("held");
+    }
+
+    @Test
+    void rejectsConfigurationWithoutAttempts() {
+        assertThatThrownBy(() -> new RekognitionThrottle(4, 1, 50, 12000, 0, 100, 3000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RekognitionThrottle(0, 0, 50, 12000, 6, 100, 3000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RekognitionApiStatsDTO stats(RekognitionThrottle throttle) {
+        return throttle.getStats().stream()
+                .filter(stats -> stats.getApi().equals(API.name()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
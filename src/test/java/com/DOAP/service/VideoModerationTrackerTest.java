@@ -0,0 +1,133 @@
+package com.DOAP.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.rekognition.model.ContentModerationDetection;
+import software.amazon.awssdk.services.rekognition.model.ModerationLabel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VideoModerationTrackerTest {
+
+    private static final List<ContentModerationDetection> DETECTIONS = List.of(ContentModerationDetection.builder()
+            .timestamp(1000L)
+            .moderationLabel(ModerationLabel.builder().name("Violence").confidence(91f).build())
+            .build());
+
+    // Fake Rekognition: job status as set by the test, results once SUCCEEDED
+    private final Map<String, String> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger statusChecks = new AtomicInteger();
+    private RekognitionService rekognitionService;
+    private VideoModerationTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        rekognitionService = mock(RekognitionService.class);
+        when(rekognitionService.getVideoModerationStatus(anyString())).thenAnswer(invocation -> {
+            statusChecks.incrementAndGet();
+            String status = statuses.get(invocation.<String>getArgument(0));
+            if (status == null) {
+                throw new IllegalStateException("Rekognition unavailable");
+            }
+            return status;
+        });
+        when(rekognitionService.getVideoModerationResults(anyString())).thenReturn(DETECTIONS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.shutdown();
+    }
+
+    @Test
+    void completesWithDetectionsOnceTheJobSucceeds() throws Exception {
+        tracker = startTracker(20, 5);
+        statuses.put("job-1", "IN_PROGRESS");
+
+        CompletableFuture<List<ContentModerationDetection>> result = tracker.track("job-1");
+        waitForChecks(2);
+        assertThat(result).isNotDone();
+
+        statuses.put("job-1", "SUCCEEDED");
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(DETECTIONS);
+        assertThat(tracker.getOutstandingCount()).isZero();
+    }
+
+    @Test
+    void failsWhenTheJobFails() {
+        tracker = startTracker(20, 5);
+        statuses.put("job-1", "FAILED");
+
+        CompletableFuture<List<ContentModerationDetection>> result = tracker.track("job-1");
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("job-1");
+    }
+
+    @Test
+    void retriesTransientStatusErrors() throws Exception {
+        tracker = startTracker(20, 5);
+
+        CompletableFuture<List<ContentModerationDetection>> result = tracker.track("job-1");
+        waitForChecks(2);
+        statuses.put("job-1", "SUCCEEDED");
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(DETECTIONS);
+    }
+
+    @Test
+    void timesOutJobsPastTheirDeadline() {
+        tracker = startTracker(20, 0);
+        statuses.put("job-1", "IN_PROGRESS");
+
+        CompletableFuture<List<ContentModerationDetection>> result = tracker.track("job-1");
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(tracker.getOutstandingCount()).isZero();
+    }
+
+    @Test
+    void shutdownLeavesWaitingJobsUncompleted() {
+        tracker = startTracker(20, 5);
+        statuses.put("job-1", "IN_PROGRESS");
+
+        CompletableFuture<List<ContentModerationDetection>> result = tracker.track("job-1");
+        tracker.shutdown();
+
+        // A cancelled future would fail the ingestion job; recovery re-tracks it instead
+        assertThat(result).isNotDone();
+        assertThat(tracker.getOutstandingCount()).isZero();
+    }
+
+    private VideoModerationTracker startTracker(long pollIntervalMs, long maxWaitMinutes) {
+        VideoModerationTracker started = new VideoModerationTracker(rekognitionService, pollIntervalMs,
+                maxWaitMinutes, 2);
+        started.start();
+        return started;
+    }
+
+    private void waitForChecks(int checks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (statusChecks.get() < checks && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(statusChecks.get()).isGreaterThanOrEqualTo(checks);
+    }
+}